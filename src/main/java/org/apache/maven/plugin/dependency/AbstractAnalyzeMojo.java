@@ -26,12 +26,16 @@ import java.util.Iterator;
 import java.util.Set;
 
 import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.dependency.analyzer.ProjectAnalyzerFactory;
 import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.dependency.analyzer.ClassAnalyzer;
+import org.apache.maven.shared.dependency.analyzer.DependencyAnalyzer;
 import org.apache.maven.shared.dependency.analyzer.ProjectDependencyAnalysis;
-import org.apache.maven.shared.dependency.analyzer.ProjectDependencyAnalyzer;
 import org.apache.maven.shared.dependency.analyzer.ProjectDependencyAnalyzerException;
 import org.codehaus.plexus.util.xml.PrettyPrintXMLWriter;
 
@@ -58,13 +62,76 @@ public abstract class AbstractAnalyzeMojo
     private MavenProject project;
 
     /**
-     * The Maven project dependency analyzer to use.
+     * The analyzer listing the classes of dependencies that are not jar files.
      * 
      * @component
      * @required
      * @readonly
      */
-    private ProjectDependencyAnalyzer analyzer;
+    private ClassAnalyzer classAnalyzer;
+
+    /**
+     * The analyzer finding the classes referenced by the project's classes.
+     * 
+     * @component
+     * @required
+     * @readonly
+     */
+    private DependencyAnalyzer dependencyAnalyzer;
+
+    /**
+     * Directory the class names of the dependency jars are cached in. Entries are keyed by the SHA-1 of the jar, so
+     * they are shared by all the projects using the same local repository and a jar is only scanned the first time it
+     * is seen. Defaults to <code>.cache/maven-dependency-plugin/class-index</code> in the local repository.
+     * 
+     * @parameter expression="${mdep.classIndexDirectory}"
+     * @since 2.2
+     */
+    private File classIndexDirectory;
+
+    /**
+     * The local repository, home of the default class index directory.
+     * 
+     * @parameter expression="${localRepository}"
+     * @required
+     * @readonly
+     */
+    private ArtifactRepository localRepository;
+
+    /**
+     * Number of threads used to read the dependencies and the project's classes. A value of zero or less uses one
+     * thread per available processor.
+     * 
+     * @parameter expression="${mdep.threads}" default-value="0"
+     * @since 2.2
+     */
+    private int threads;
+
+    /**
+     * The current build session.
+     * 
+     * @parameter expression="${session}"
+     * @readonly
+     */
+    private MavenSession session;
+
+    /**
+     * Reuse the analysis made by an earlier goal of the build for the same module, as long as its classes and
+     * dependencies didn't change, instead of analyzing the module again.
+     * 
+     * @parameter expression="${mdep.analyze.share}" default-value="true"
+     * @since 2.2
+     */
+    private boolean shareAnalysis;
+
+    /**
+     * Remember the classes referenced by each class file of the project, so later builds only parse the class files
+     * that changed. The references are kept in the build directory, keyed by the SHA-1 of the class files.
+     * 
+     * @parameter expression="${mdep.analyze.incremental}" default-value="false"
+     * @since 2.2
+     */
+    private boolean incremental;
 
     /**
      * Whether to fail the build if a dependency warning is found.
@@ -165,7 +232,7 @@ public abstract class AbstractAnalyzeMojo
         ProjectDependencyAnalysis analysis;
         try
         {
-            analysis = analyzer.analyze( project );
+            analysis = analyzeProject();
         }
         catch ( ProjectDependencyAnalyzerException exception )
         {
@@ -178,14 +245,14 @@ public abstract class AbstractAnalyzeMojo
         
         if ( ignoreNonCompile )
         {
-            Set filteredUnusedDeclared = new HashSet( unusedDeclared );
-            Iterator iter = filteredUnusedDeclared.iterator();
-            while ( iter.hasNext() )
+            // keep the compile scoped artifacts in one pass, the analysis sets are shared and can't be changed
+            Set filteredUnusedDeclared = new HashSet();
+            for ( Iterator iter = unusedDeclared.iterator(); iter.hasNext(); )
             {
                 Artifact artifact = (Artifact) iter.next();
-                if ( !artifact.getScope().equals( Artifact.SCOPE_COMPILE ) )
+                if ( artifact.getScope().equals( Artifact.SCOPE_COMPILE ) )
                 {
-                    iter.remove();
+                    filteredUnusedDeclared.add( artifact );
                 }
             }
             unusedDeclared = filteredUnusedDeclared;
@@ -231,6 +298,27 @@ public abstract class AbstractAnalyzeMojo
         return !usedUndeclared.isEmpty() || !unusedDeclared.isEmpty();
     }
 
+    /**
+     * Analyzes the project, or reuses the analysis made by an earlier goal of this build.
+     * 
+     * @return the analysis
+     * @throws ProjectDependencyAnalyzerException if the project can't be analyzed
+     */
+    private ProjectDependencyAnalysis analyzeProject()
+        throws ProjectDependencyAnalyzerException
+    {
+        ProjectAnalyzerFactory factory = new ProjectAnalyzerFactory( classAnalyzer, dependencyAnalyzer, getLog() );
+        factory.setClassIndexDirectory( classIndexDirectory );
+        factory.setLocalRepository( localRepository );
+        factory.setThreads( threads );
+        factory.setIncremental( incremental );
+        if ( shareAnalysis )
+        {
+            factory.setSession( session );
+        }
+        return factory.analyze( project );
+    }
+
     private void logArtifacts( Set artifacts, boolean warn )
     {
         if ( artifacts.isEmpty() )
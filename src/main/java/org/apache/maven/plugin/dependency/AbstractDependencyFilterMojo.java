@@ -20,24 +20,21 @@ package org.apache.maven.plugin.dependency;
  */
 
 import java.io.File;
+import java.io.IOException;
 import java.util.HashSet;
 import java.util.Set;
 
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.dependency.utils.DependencyStatusSets;
-import org.apache.maven.plugin.dependency.utils.resolvers.ArtifactsResolver;
+import org.apache.maven.plugin.dependency.utils.filters.CompiledArtifactFilter;
+import org.apache.maven.plugin.dependency.utils.resolvers.ConcurrentArtifactsResolver;
 import org.apache.maven.plugin.dependency.utils.resolvers.DefaultArtifactsResolver;
-import org.apache.maven.plugin.dependency.utils.translators.ArtifactTranslator;
+import org.apache.maven.plugin.dependency.utils.resolvers.NegativeResolutionCache;
+import org.apache.maven.plugin.dependency.utils.resolvers.ResolutionCache;
 import org.apache.maven.plugin.dependency.utils.translators.ClassifierTypeTranslator;
 import org.apache.maven.shared.artifact.filter.collection.ArtifactFilterException;
-import org.apache.maven.shared.artifact.filter.collection.ArtifactIdFilter;
 import org.apache.maven.shared.artifact.filter.collection.ArtifactsFilter;
-import org.apache.maven.shared.artifact.filter.collection.ClassifierFilter;
 import org.apache.maven.shared.artifact.filter.collection.FilterArtifacts;
-import org.apache.maven.shared.artifact.filter.collection.GroupIdFilter;
-import org.apache.maven.shared.artifact.filter.collection.ScopeFilter;
-import org.apache.maven.shared.artifact.filter.collection.TransitivityFilter;
-import org.apache.maven.shared.artifact.filter.collection.TypeFilter;
 import org.codehaus.plexus.util.StringUtils;
 
 /**
@@ -139,6 +136,8 @@ public abstract class AbstractDependencyFilterMojo
 
     /**
      * Comma separated list of Artifact names too exclude.
+     * Entries may also be globs using <code>*</code> and <code>?</code>, or regular expressions prefixed with
+     * <code>regex:</code>, which are matched against the whole artifactId (since 2.2).
      * 
      * @since 2.0
      * @optional
@@ -148,6 +147,8 @@ public abstract class AbstractDependencyFilterMojo
 
     /**
      * Comma separated list of Artifact names to include.
+     * Entries may also be globs using <code>*</code> and <code>?</code>, or regular expressions prefixed with
+     * <code>regex:</code>, which are matched against the whole artifactId (since 2.2).
      * 
      * @since 2.0
      * @optional
@@ -156,7 +157,9 @@ public abstract class AbstractDependencyFilterMojo
     protected String includeArtifactIds;
 
     /**
-     * Comma separated list of GroupId Names to exclude.
+     * Comma separated list of GroupId Names to exclude. Plain names match as a prefix.
+     * Entries may also be globs using <code>*</code> and <code>?</code>, or regular expressions prefixed with
+     * <code>regex:</code>, which are matched against the whole groupId (since 2.2).
      * 
      * @since 2.0
      * @optional
@@ -165,7 +168,9 @@ public abstract class AbstractDependencyFilterMojo
     protected String excludeGroupIds;
 
     /**
-     * Comma separated list of GroupIds to include.
+     * Comma separated list of GroupIds to include. Plain names match as a prefix.
+     * Entries may also be globs using <code>*</code> and <code>?</code>, or regular expressions prefixed with
+     * <code>regex:</code>, which are matched against the whole groupId (since 2.2).
      * 
      * @since 2.0
      * @optional
@@ -210,6 +215,47 @@ public abstract class AbstractDependencyFilterMojo
      */
     protected boolean overWriteIfNewer;
 
+    /**
+     * Number of threads used to resolve classifier translated artifacts. A value of zero or less uses one thread per
+     * available processor.
+     *
+     * @optional
+     * @since 2.2
+     * @parameter expression="${mdep.resolverThreads}" default-value="1"
+     */
+    protected int resolverThreads;
+
+    /**
+     * Maximum number of concurrent resolutions that may contact a remote repository when resolving on several threads.
+     * The limit applies to all remote repositories together. A value of zero or less means no limit.
+     *
+     * @optional
+     * @since 2.2
+     * @parameter expression="${mdep.maxRemoteResolutions}" default-value="4"
+     */
+    protected int maxRemoteResolutions;
+
+    /**
+     * Number of minutes an artifact that could not be found (e.g. a <code>sources</code> classifier that was never
+     * published) is remembered as missing, so it is not looked up again by every module and every build. Zero
+     * disables the cache.
+     *
+     * @optional
+     * @since 2.2
+     * @parameter expression="${mdep.negativeCacheTtl}" default-value="0"
+     */
+    protected int negativeCacheTtl;
+
+    /**
+     * The file missing artifacts are remembered in. It defaults to a file in the local repository, so it is shared by
+     * all the modules and builds using that repository.
+     *
+     * @optional
+     * @since 2.2
+     * @parameter expression="${mdep.negativeCacheFile}"
+     */
+    protected File negativeCacheFile;
+
     protected abstract ArtifactsFilter getMarkedArtifactFilter();
 
     /**
@@ -240,22 +286,18 @@ public abstract class AbstractDependencyFilterMojo
     protected DependencyStatusSets getDependencySets( boolean stopOnFailure )
         throws MojoExecutionException
     {
-        // add filters in well known order, least specific to most specific
-        FilterArtifacts filter = new FilterArtifacts();
-
-        filter.addFilter( new TransitivityFilter( project.getDependencyArtifacts(), this.excludeTransitive ) );
-        filter.addFilter( new ScopeFilter( this.includeScope, this.excludeScope ) );
-        filter.addFilter( new TypeFilter( this.includeTypes, this.excludeTypes ) );
-        filter.addFilter( new ClassifierFilter( this.includeClassifiers, this.excludeClassifiers ) );
-        filter.addFilter( new GroupIdFilter( this.includeGroupIds, this.excludeGroupIds ) );
-        filter.addFilter( new ArtifactIdFilter( this.includeArtifactIds, this.excludeArtifactIds ) );
-
         // start with all artifacts.
         Set artifacts = project.getArtifacts();
 
-        // perform filtering
+        // perform filtering: the transitivity, scope, type, classifier, groupId and artifactId criteria are compiled
+        // once and applied in a single pass
         try
         {
+            CompiledArtifactFilter filter =
+                new CompiledArtifactFilter( project.getDependencyArtifacts(), this.excludeTransitive, this.includeScope,
+                                            this.excludeScope, this.includeTypes, this.excludeTypes,
+                                            this.includeClassifiers, this.excludeClassifiers, this.includeGroupIds,
+                                            this.excludeGroupIds, this.includeArtifactIds, this.excludeArtifactIds );
             artifacts = filter.filter( artifacts );
         }
         catch ( ArtifactFilterException e )
@@ -299,7 +341,10 @@ public abstract class AbstractDependencyFilterMojo
         // if this did something, we need to resolve the new artifacts
         if ( StringUtils.isNotEmpty( classifier ) )
         {
-            ArtifactTranslator translator = new ClassifierTypeTranslator( this.classifier, this.type, this.factory );
+            ResolutionCache resolutionCache = getResolutionCache();
+            ClassifierTypeTranslator translator =
+                new ClassifierTypeTranslator( this.classifier, this.type, this.factory );
+            translator.setResolutionCache( resolutionCache );
             artifacts = translator.translate( artifacts, getLog() );
 
             status = filterMarkedDependencies( artifacts );
@@ -308,8 +353,20 @@ public abstract class AbstractDependencyFilterMojo
             artifacts = status.getResolvedDependencies();
 
             // resolve the rest of the artifacts
-            ArtifactsResolver artifactsResolver = new DefaultArtifactsResolver( this.resolver, this.local,
-                                                                                this.remoteRepos, stopOnFailure );
+            DefaultArtifactsResolver artifactsResolver;
+            if ( this.resolverThreads == 1 )
+            {
+                artifactsResolver = new DefaultArtifactsResolver( this.resolver, this.local, this.remoteRepos,
+                                                                  stopOnFailure );
+            }
+            else
+            {
+                artifactsResolver = new ConcurrentArtifactsResolver( this.resolver, this.local, this.remoteRepos,
+                                                                     stopOnFailure, this.resolverThreads,
+                                                                     this.maxRemoteResolutions );
+            }
+            artifactsResolver.setNegativeCache( getNegativeResolutionCache() );
+            artifactsResolver.setResolutionCache( resolutionCache );
             resolvedArtifacts = artifactsResolver.resolve( artifacts, getLog() );
 
             // calculate the artifacts not resolved.
@@ -324,6 +381,36 @@ public abstract class AbstractDependencyFilterMojo
         return status;
     }
 
+    /**
+     * Gets the shared cache of artifacts known to be missing.
+     * 
+     * @return the cache, or null if it is disabled or can't be read.
+     */
+    protected NegativeResolutionCache getNegativeResolutionCache()
+    {
+        if ( this.negativeCacheTtl <= 0 )
+        {
+            return null;
+        }
+
+        File cacheFile = this.negativeCacheFile;
+        if ( cacheFile == null )
+        {
+            cacheFile = new File( this.local.getBasedir(), ".cache" + File.separator + "maven-dependency-plugin"
+                + File.separator + "missing-artifacts.properties" );
+        }
+
+        try
+        {
+            return NegativeResolutionCache.getInstance( cacheFile, this.negativeCacheTtl * 60L * 1000L );
+        }
+        catch ( IOException e )
+        {
+            getLog().warn( "Unable to read " + cacheFile + ", missing artifacts will be looked up again: " + e );
+            return null;
+        }
+    }
+
     /**
      * Filter the marked dependencies
      * 
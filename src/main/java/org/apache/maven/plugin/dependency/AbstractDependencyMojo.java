@@ -20,14 +20,22 @@ package org.apache.maven.plugin.dependency;
  */
 
 import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.Field;
 import java.util.List;
 
+import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.metadata.ArtifactMetadataSource;
 import org.apache.maven.artifact.resolver.ArtifactCollector;
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.dependency.utils.DependencySilentLog;
+import org.apache.maven.plugin.dependency.utils.DigestIndex;
+import org.apache.maven.plugin.dependency.utils.FileCopyUtil;
+import org.apache.maven.plugin.dependency.utils.ZipUnpacker;
+import org.apache.maven.plugin.dependency.utils.markers.MarkerManifest;
+import org.apache.maven.plugin.dependency.utils.resolvers.ResolutionCache;
 import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.archiver.ArchiverException;
@@ -35,7 +43,6 @@ import org.codehaus.plexus.archiver.UnArchiver;
 import org.codehaus.plexus.archiver.manager.ArchiverManager;
 import org.codehaus.plexus.archiver.manager.NoSuchArchiverException;
 import org.codehaus.plexus.components.io.fileselectors.IncludeExcludeFileSelector;
-import org.codehaus.plexus.util.FileUtils;
 import org.codehaus.plexus.util.ReflectionUtils;
 import org.codehaus.plexus.util.StringUtils;
 
@@ -121,6 +128,24 @@ public abstract class AbstractDependencyMojo
      */
     protected List reactorProjects;
 
+    /**
+     * The current build session.
+     *
+     * @parameter expression="${session}"
+     * @readonly
+     */
+    protected MavenSession session;
+
+    /**
+     * Share translated and resolved artifacts between the modules of the build, so that each artifact is resolved at
+     * most once per reactor.
+     *
+     * @optional
+     * @since 2.2
+     * @parameter expression="${mdep.reactorCache}" default-value="true"
+     */
+    protected boolean reactorCache;
+
     /**
      * If the plugin should be silent.
      *
@@ -141,6 +166,66 @@ public abstract class AbstractDependencyMojo
      */
     protected boolean outputAbsoluteArtifactFilename;
 
+    /**
+     * How files are put into the destination directory: <code>copy</code> (streamed copy), <code>transfer</code>
+     * (NIO channel transfer), <code>link</code> (hard link to the local repository file) or <code>reflink</code>
+     * (native copy, shared blocks on copy-on-write file systems). <code>link</code> and <code>reflink</code> need
+     * Java 7 and fall back to <code>transfer</code> when they can't be used, e.g. across file systems. Files created
+     * with <code>link</code> must not be modified in place.
+     *
+     * @optional
+     * @since 2.2
+     * @parameter expression="${mdep.copyMode}" default-value="transfer"
+     */
+    protected String copyMode;
+
+    /**
+     * Compare existing destination files with the artifacts by SHA-1 instead of by timestamp when deciding whether
+     * they need to be copied again. Digests are taken from the repository's <code>.sha1</code> files when present and
+     * are remembered in <code>digestIndexFile</code>, so unchanged files are not read again by later builds.
+     *
+     * @optional
+     * @since 2.2
+     * @parameter expression="${mdep.useChecksums}" default-value="false"
+     */
+    protected boolean useChecksums;
+
+    /**
+     * The file the digests used by <code>useChecksums</code> are kept in between builds.
+     *
+     * @optional
+     * @since 2.2
+     * @parameter expression="${mdep.digestIndexFile}"
+     *            default-value="${project.build.directory}/dependency-maven-plugin-markers/digests.properties"
+     */
+    protected File digestIndexFile;
+
+    private DigestIndex digestIndex;
+
+    /**
+     * Keep the markers of the unpack goals in a single manifest file in the markers directory, instead of one marker
+     * file per artifact. The manifest is read once per execution, which saves a file creation and a stat per artifact
+     * on slow file systems.
+     *
+     * @optional
+     * @since 2.2
+     * @parameter expression="${mdep.useMarkerManifest}" default-value="false"
+     */
+    protected boolean useMarkerManifest;
+
+    private MarkerManifest markerManifest;
+
+    /**
+     * Unpack zip archives incrementally: the CRC and size of every extracted entry are recorded next to the markers,
+     * and unpacking the archive again (e.g. a changed snapshot) only rewrites the entries that changed and deletes the
+     * ones that are gone, leaving unchanged files untouched.
+     *
+     * @optional
+     * @since 2.2
+     * @parameter expression="${mdep.unpack.incremental}" default-value="false"
+     */
+    protected boolean incrementalUnpack;
+
     private Log log;
 
     /**
@@ -160,6 +245,22 @@ public abstract class AbstractDependencyMojo
         return this.log;
     }
 
+    /**
+     * @return Returns the copyMode.
+     */
+    public String getCopyMode ()
+    {
+        return this.copyMode;
+    }
+
+    /**
+     * @param theCopyMode The copyMode to set.
+     */
+    public void setCopyMode ( String theCopyMode )
+    {
+        this.copyMode = theCopyMode;
+    }
+
     /**
      * @return Returns the archiverManager.
      */
@@ -180,21 +281,172 @@ public abstract class AbstractDependencyMojo
     protected void copyFile ( File artifact, File destFile )
         throws MojoExecutionException
     {
-        Log theLog = this.getLog();
+        copyFile( artifact, destFile, this.getLog() );
+    }
+
+    /**
+     * Does the actual copy of the file and logging.
+     *
+     * @param artifact represents the file to copy.
+     * @param destFile file name of destination file.
+     * @param theLog the log to report the copy to.
+     *
+     * @throws MojoExecutionException with a message if an
+     *             error occurs.
+     */
+    protected void copyFile ( File artifact, File destFile, Log theLog )
+        throws MojoExecutionException
+    {
         try
         {
             theLog.info( "Copying "
                 + ( this.outputAbsoluteArtifactFilename ? artifact.getAbsolutePath() : artifact.getName() ) + " to "
                 + destFile );
-            FileUtils.copyFile( artifact, destFile );
+            if ( !FileCopyUtil.isValidMode( this.copyMode ) )
+            {
+                throw new MojoExecutionException( "Unknown copyMode '" + this.copyMode
+                    + "', expected one of copy, transfer, link or reflink." );
+            }
+            FileCopyUtil.copyFile( artifact, destFile, this.copyMode, theLog );
+
+            DigestIndex index = getDigestIndex();
+            if ( index != null )
+            {
+                // the copy has the source's content, no need to read it next time
+                index.record( destFile, index.getDigest( artifact ) );
+            }
 
         }
+        catch ( MojoExecutionException e )
+        {
+            throw e;
+        }
         catch ( Exception e )
         {
             throw new MojoExecutionException( "Error copying artifact from " + artifact + " to " + destFile, e );
         }
     }
 
+    /**
+     * Gets the digest index used for content based up-to-date checks.
+     *
+     * @return the index, loaded on first use, or null if <code>useChecksums</code> is off.
+     */
+    protected synchronized DigestIndex getDigestIndex ()
+    {
+        if ( !useChecksums )
+        {
+            return null;
+        }
+
+        if ( digestIndex == null )
+        {
+            File indexFile = digestIndexFile;
+            if ( indexFile == null )
+            {
+                indexFile = new File( project.getBuild().getDirectory(),
+                                      "dependency-maven-plugin-markers" + File.separator + "digests.properties" );
+            }
+
+            digestIndex = new DigestIndex( indexFile );
+            try
+            {
+                digestIndex.load();
+            }
+            catch ( IOException e )
+            {
+                getLog().warn( "Unable to read digest index " + indexFile + ", starting from scratch: " + e );
+            }
+        }
+        return digestIndex;
+    }
+
+    /**
+     * Stores the digest index, if one was used.
+     *
+     * @throws MojoExecutionException if the index can't be written.
+     */
+    protected void saveDigestIndex ()
+        throws MojoExecutionException
+    {
+        if ( digestIndex != null )
+        {
+            try
+            {
+                digestIndex.save();
+            }
+            catch ( IOException e )
+            {
+                throw new MojoExecutionException( "Unable to write digest index " + digestIndex.getIndexFile(), e );
+            }
+        }
+    }
+
+    /**
+     * Gets the marker manifest kept in the given markers directory.
+     *
+     * @param markersDirectory the directory the markers are kept in.
+     * @return the manifest, loaded on first use, or null if <code>useMarkerManifest</code> is off.
+     */
+    protected synchronized MarkerManifest getMarkerManifest ( File markersDirectory )
+    {
+        if ( !useMarkerManifest )
+        {
+            return null;
+        }
+
+        if ( markerManifest == null )
+        {
+            markerManifest = new MarkerManifest( new File( markersDirectory, MarkerManifest.MANIFEST_NAME ) );
+            try
+            {
+                markerManifest.load();
+            }
+            catch ( IOException e )
+            {
+                getLog().warn( "Unable to read marker manifest " + markerManifest.getManifestFile()
+                                   + ", starting from scratch: " + e );
+            }
+        }
+        return markerManifest;
+    }
+
+    /**
+     * Gets the translated and resolved artifacts shared by the modules of this build.
+     *
+     * @return the cache of the current session, or null if it is disabled.
+     */
+    protected ResolutionCache getResolutionCache ()
+    {
+        if ( !reactorCache || session == null )
+        {
+            return null;
+        }
+        return ResolutionCache.getInstance( session );
+    }
+
+    /**
+     * Rewrites the marker manifest, if one was used.
+     *
+     * @throws MojoExecutionException if the manifest can't be written.
+     */
+    protected void saveMarkerManifest ()
+        throws MojoExecutionException
+    {
+        if ( markerManifest != null )
+        {
+            try
+            {
+                markerManifest.save();
+            }
+            catch ( IOException e )
+            {
+                throw new MojoExecutionException( "Unable to write marker manifest "
+                    + markerManifest.getManifestFile(), e );
+            }
+        }
+    }
+
     protected void unpack ( File file, File location )
         throws MojoExecutionException
     {
@@ -216,15 +468,65 @@ public abstract class AbstractDependencyMojo
      */
     protected void unpack ( File file, File location, String includes, String excludes )
         throws MojoExecutionException
+    {
+        unpack( file, location, includes, excludes, getLog() );
+    }
+
+    /**
+     * Unpacks the archive file, reporting to the given log. This variant is used by the worker threads so that their
+     * output can be buffered.
+     *
+     * @param file File to be unpacked.
+     * @param location Location where to put the unpacked files.
+     * @param includes Comma separated list of file patterns to include.
+     * @param excludes Comma separated list of file patterns to exclude.
+     * @param theLog the log to report to.
+     */
+    protected void unpack ( File file, File location, String includes, String excludes, Log theLog )
+        throws MojoExecutionException
+    {
+        unpack( file, location, includes, excludes, null, theLog );
+    }
+
+    /**
+     * Unpacks the archive file, incrementally if <code>incrementalUnpack</code> is set and the archive is a zip file.
+     *
+     * @param file File to be unpacked.
+     * @param location Location where to put the unpacked files.
+     * @param includes Comma separated list of file patterns to include.
+     * @param excludes Comma separated list of file patterns to exclude.
+     * @param stateFile File the extracted entries are recorded in for incremental unpacks, may be null.
+     * @param theLog the log to report to.
+     */
+    protected void unpack ( File file, File location, String includes, String excludes, File stateFile, Log theLog )
+        throws MojoExecutionException
     {
         try
         {
-            getLog().info(
+            theLog.info(
                             "Unpacking " + file.getPath() + " to\n  " + location.getPath()
                                 + "\n   with includes " + includes + " and excludes:" + excludes );
 
             location.mkdirs();
 
+            if ( incrementalUnpack && stateFile != null && ZipUnpacker.isZipFile( file ) )
+            {
+                ZipUnpacker.unpackIncremental( file, location, includes, excludes, stateFile, theLog );
+                return;
+            }
+
+            if ( ( StringUtils.isNotEmpty( excludes ) || StringUtils.isNotEmpty( includes ) )
+                && ZipUnpacker.isZipFile( file ) )
+            {
+                // only inflate the selected entries instead of walking the whole archive
+                int count = ZipUnpacker.unpack( file, location, includes, excludes );
+                if ( theLog.isDebugEnabled() )
+                {
+                    theLog.debug( "Extracted " + count + " selected files from " + file.getName() );
+                }
+                return;
+            }
+
             UnArchiver unArchiver;
 
             unArchiver = archiverManager.getUnArchiver( file );
@@ -269,6 +571,30 @@ public abstract class AbstractDependencyMojo
             throw new MojoExecutionException( "Error unpacking file: " + file + " to: " + location + "\r\n"
                 + e.toString(), e );
         }
+        catch ( IOException e )
+        {
+            throw new MojoExecutionException( "Error unpacking file: " + file + " to: " + location + "\r\n"
+                + e.toString(), e );
+        }
+    }
+
+    /**
+     * Gets the file the entries of an incremental unpack are recorded in. The destination and the patterns are part of
+     * the name, so unpacking the same artifact elsewhere or with other patterns starts from scratch.
+     *
+     * @param markersDirectory the directory the markers are kept in.
+     * @param artifact the artifact being unpacked.
+     * @param location the directory it is unpacked to.
+     * @param includes the include patterns.
+     * @param excludes the exclude patterns.
+     * @return the state file, which may not exist yet.
+     */
+    protected File getUnpackStateFile ( File markersDirectory, Artifact artifact, File location, String includes,
+                                        String excludes )
+    {
+        int hash = ( location.getAbsolutePath() + "|" + includes + "|" + excludes ).hashCode();
+        return new File( markersDirectory, artifact.getId().replace( ':', '-' ) + "-" + Integer.toHexString( hash )
+            + ZipUnpacker.STATE_FILE_EXTENSION );
     }
 
     private void silenceUnarchiver ( UnArchiver unArchiver )
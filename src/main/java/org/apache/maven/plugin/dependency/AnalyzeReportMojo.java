@@ -23,13 +23,17 @@ import java.io.File;
 import java.util.Locale;
 import java.util.ResourceBundle;
 
+import org.apache.maven.artifact.repository.ArtifactRepository;
 import org.apache.maven.doxia.sink.Sink;
 import org.apache.maven.doxia.siterenderer.Renderer;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.dependency.analyzer.ProjectAnalyzerFactory;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.reporting.AbstractMavenReport;
 import org.apache.maven.reporting.MavenReportException;
+import org.apache.maven.shared.dependency.analyzer.ClassAnalyzer;
+import org.apache.maven.shared.dependency.analyzer.DependencyAnalyzer;
 import org.apache.maven.shared.dependency.analyzer.ProjectDependencyAnalysis;
-import org.apache.maven.shared.dependency.analyzer.ProjectDependencyAnalyzer;
 import org.apache.maven.shared.dependency.analyzer.ProjectDependencyAnalyzerException;
 
 /**
@@ -58,13 +62,76 @@ public class AnalyzeReportMojo
     private MavenProject project;
 
     /**
-     * The Maven project dependency analyzer to use.
+     * The analyzer listing the classes of dependencies that are not jar files.
      * 
      * @component
      * @required
      * @readonly
      */
-    private ProjectDependencyAnalyzer analyzer;
+    private ClassAnalyzer classAnalyzer;
+
+    /**
+     * The analyzer finding the classes referenced by the project's classes.
+     * 
+     * @component
+     * @required
+     * @readonly
+     */
+    private DependencyAnalyzer dependencyAnalyzer;
+
+    /**
+     * Directory the class names of the dependency jars are cached in. Entries are keyed by the SHA-1 of the jar, so
+     * they are shared by all the projects using the same local repository and a jar is only scanned the first time it
+     * is seen. Defaults to <code>.cache/maven-dependency-plugin/class-index</code> in the local repository.
+     * 
+     * @parameter expression="${mdep.classIndexDirectory}"
+     * @since 2.2
+     */
+    private File classIndexDirectory;
+
+    /**
+     * The local repository, home of the default class index directory.
+     * 
+     * @parameter expression="${localRepository}"
+     * @required
+     * @readonly
+     */
+    private ArtifactRepository localRepository;
+
+    /**
+     * Number of threads used to read the dependencies and the project's classes. A value of zero or less uses one
+     * thread per available processor.
+     * 
+     * @parameter expression="${mdep.threads}" default-value="0"
+     * @since 2.2
+     */
+    private int threads;
+
+    /**
+     * The current build session.
+     * 
+     * @parameter expression="${session}"
+     * @readonly
+     */
+    private MavenSession session;
+
+    /**
+     * Reuse the analysis made by an earlier goal of the build for the same module, as long as its classes and
+     * dependencies didn't change, instead of analyzing the module again.
+     * 
+     * @parameter expression="${mdep.analyze.share}" default-value="true"
+     * @since 2.2
+     */
+    private boolean shareAnalysis;
+
+    /**
+     * Remember the classes referenced by each class file of the project, so later builds only parse the class files
+     * that changed. The references are kept in the build directory, keyed by the SHA-1 of the class files.
+     * 
+     * @parameter expression="${mdep.analyze.incremental}" default-value="false"
+     * @since 2.2
+     */
+    private boolean incremental;
 
     /**
      * 
@@ -108,7 +175,7 @@ public class AnalyzeReportMojo
         ProjectDependencyAnalysis analysis = null;
         try
         {
-            analysis = analyzer.analyze( project );
+            analysis = analyzeProject();
         }
         catch ( ProjectDependencyAnalyzerException exception )
         {
@@ -124,6 +191,27 @@ public class AnalyzeReportMojo
         analyzethis.generateReport( analysis, sink, bundle );
     }
     
+    /**
+     * Analyzes the project, or reuses the analysis made by an earlier goal of this build.
+     * 
+     * @return the analysis
+     * @throws ProjectDependencyAnalyzerException if the project can't be analyzed
+     */
+    private ProjectDependencyAnalysis analyzeProject()
+        throws ProjectDependencyAnalyzerException
+    {
+        ProjectAnalyzerFactory factory = new ProjectAnalyzerFactory( classAnalyzer, dependencyAnalyzer, getLog() );
+        factory.setClassIndexDirectory( classIndexDirectory );
+        factory.setLocalRepository( localRepository );
+        factory.setThreads( threads );
+        factory.setIncremental( incremental );
+        if ( shareAnalysis )
+        {
+            factory.setSession( session );
+        }
+        return factory.analyze( project );
+    }
+
     // MavenReport methods ----------------------------------------------------
 
     /*
@@ -20,23 +20,43 @@ package org.apache.maven.plugin.dependency;
  */
 
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
+import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.UnsupportedEncodingException;
 import java.io.Writer;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
 
 import org.apache.maven.artifact.Artifact;
+import org.apache.maven.model.Dependency;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.dependency.utils.DependencyUtil;
+import org.apache.maven.plugin.dependency.utils.DigestIndex;
 import org.apache.maven.project.MavenProjectHelper;
 import org.apache.maven.shared.artifact.filter.collection.ArtifactsFilter;
+import org.codehaus.plexus.util.FileUtils;
 import org.codehaus.plexus.util.StringUtils;
 
 /**
@@ -54,6 +74,23 @@ public class BuildClasspathMojo
     implements Comparator
 {
 
+    public static final String ORDER_SORTED = "sorted";
+
+    public static final String ORDER_DECLARATION = "declaration";
+
+    public static final String FORMAT_CLASSPATH = "classpath";
+
+    public static final String FORMAT_ARGFILE = "argfile";
+
+    public static final String FORMAT_LIST = "list";
+
+    public static final String FORMAT_MANIFEST_JAR = "manifest-jar";
+
+    /**
+     * Fixed timestamp for the manifest jar entries, so an unchanged jar has unchanged bytes.
+     */
+    private static final long MANIFEST_JAR_TIME = 315532800000L;
+
     /**
      * Strip artifact version during copy (only works if prefix is set)
      * 
@@ -138,6 +175,35 @@ public class BuildClasspathMojo
      */
     boolean outputFilterFile;
 
+    /**
+     * The order of the classpath entries. <code>sorted</code> orders them by groupId, artifactId, version, type and
+     * classifier. <code>declaration</code> keeps the order of the dependencies in the POM, followed by the transitive
+     * dependencies in the order Maven resolved them, which is a breadth first walk of the dependency tree. Either way
+     * the same dependencies always produce the same classpath.
+     * 
+     * @since 2.2
+     * @parameter default-value="sorted" expression="${mdep.classpathOrder}"
+     */
+    private String classpathOrder;
+
+    /**
+     * The format of the output file:
+     * <ul>
+     * <li><code>classpath</code>: the classpath string.</li>
+     * <li><code>argfile</code>: a JDK argument file passing the classpath with <code>-classpath</code>, for
+     * <code>java @file</code>.</li>
+     * <li><code>list</code>: one classpath entry per line.</li>
+     * <li><code>manifest-jar</code>: a jar holding only a manifest whose <code>Class-Path</code> lists the dependency
+     * files as URLs, so a launcher only needs the jar itself on its classpath. Requires <code>outputFile</code>.</li>
+     * </ul>
+     * The attached file is always written in the <code>classpath</code> format, and <code>outputFilterFile</code> only
+     * applies to that format.
+     * 
+     * @since 2.2
+     * @parameter default-value="classpath" expression="${mdep.outputFormat}"
+     */
+    private String outputFormat;
+
     /**
      * Maven ProjectHelper
      * 
@@ -186,6 +252,25 @@ public class BuildClasspathMojo
             isPathSepSet = true;
         }
 
+        if ( StringUtils.isNotEmpty( classpathOrder ) && !ORDER_SORTED.equals( classpathOrder )
+            && !ORDER_DECLARATION.equals( classpathOrder ) )
+        {
+            throw new MojoExecutionException( "Invalid classpathOrder '" + classpathOrder + "', use '" + ORDER_SORTED
+                + "' or '" + ORDER_DECLARATION + "'." );
+        }
+
+        String format = StringUtils.isEmpty( outputFormat ) ? FORMAT_CLASSPATH : outputFormat;
+        if ( !FORMAT_CLASSPATH.equals( format ) && !FORMAT_ARGFILE.equals( format ) && !FORMAT_LIST.equals( format )
+            && !FORMAT_MANIFEST_JAR.equals( format ) )
+        {
+            throw new MojoExecutionException( "Invalid outputFormat '" + outputFormat + "', use '" + FORMAT_CLASSPATH
+                + "', '" + FORMAT_ARGFILE + "', '" + FORMAT_LIST + "' or '" + FORMAT_MANIFEST_JAR + "'." );
+        }
+        if ( FORMAT_MANIFEST_JAR.equals( format ) && outputFile == null )
+        {
+            throw new MojoExecutionException( "The " + FORMAT_MANIFEST_JAR + " outputFormat requires outputFile." );
+        }
+
         //don't allow them to have absolute paths when they attach.
         if ( attach && StringUtils.isEmpty( localRepoProperty ) )
         {
@@ -200,70 +285,464 @@ public class BuildClasspathMojo
         }
 
         List artList = new ArrayList( artifacts );
+        sortArtifacts( artList );
 
-        StringBuffer sb = new StringBuffer();
-        Iterator i = artList.iterator();
+        // decide up-to-date from the inputs before building the classpath string
+        String fingerprint = null;
+        File fingerprintFile = getFingerprintFile();
+        if ( fingerprintFile != null )
+        {
+            fingerprint = computeFingerprint( artList, format );
+            if ( !regenerateFile && isFingerprintUpToDate( fingerprintFile, fingerprint ) )
+            {
+                this.getLog().info( "Skipped writing classpath file '" + outputFile + "'.  No changes found." );
+                if ( attach )
+                {
+                    projectHelper.attachArtifact( project, getAttachedFile(), "classpath" );
+                }
+                return;
+            }
+        }
 
-        if ( i.hasNext() )
+        if ( outputFile == null )
         {
-            appendArtifactPath( (Artifact) i.next(), sb );
+            StringWriter w = new StringWriter();
+            try
+            {
+                writeText( artList, format, w );
+            }
+            catch ( IOException e )
+            {
+                // can't happen with a StringWriter
+                throw new MojoExecutionException( e.getMessage(), e );
+            }
+            getLog().info( "Dependencies classpath:\n" + w.toString() );
+        }
+        else
+        {
+            storeClasspathFile( artList, outputFile, format );
+        }
+        if ( attach )
+        {
+            attachFile( artList );
+        }
 
-            while ( i.hasNext() )
+        if ( fingerprintFile != null )
+        {
+            storeFingerprint( fingerprintFile, fingerprint );
+        }
+    }
+
+    /**
+     * Puts the artifacts in the configured classpath order.
+     * 
+     * @param artList the artifacts to sort.
+     */
+    private void sortArtifacts( List artList )
+    {
+        if ( ORDER_DECLARATION.equals( classpathOrder ) )
+        {
+            Collections.sort( artList, new DeclarationComparator( getDeclarationRanks( artList ), this ) );
+        }
+        else
+        {
+            Collections.sort( artList, this );
+        }
+    }
+
+    /**
+     * Ranks the artifacts by declaration: the direct dependencies in POM order come first, then the other artifacts in
+     * resolution order. Artifacts are matched on groupId and artifactId so that classifier translated artifacts keep
+     * the rank of the dependency they come from. The ranks are worked out once so that comparisons don't allocate.
+     * 
+     * @param artList the artifacts to rank.
+     * @return the rank of each artifact, by identity.
+     */
+    private Map getDeclarationRanks( List artList )
+    {
+        Map keyRanks = new HashMap();
+        int rank = 0;
+        for ( Iterator i = project.getDependencies().iterator(); i.hasNext(); )
+        {
+            Dependency dependency = (Dependency) i.next();
+            String key = dependency.getGroupId() + ":" + dependency.getArtifactId();
+            if ( !keyRanks.containsKey( key ) )
             {
-                sb.append( isPathSepSet ? this.pathSeparator : File.pathSeparator );
-                appendArtifactPath( (Artifact) i.next(), sb );
+                keyRanks.put( key, new Integer( rank++ ) );
             }
         }
+        for ( Iterator i = project.getArtifacts().iterator(); i.hasNext(); )
+        {
+            Artifact artifact = (Artifact) i.next();
+            String key = artifact.getGroupId() + ":" + artifact.getArtifactId();
+            if ( !keyRanks.containsKey( key ) )
+            {
+                keyRanks.put( key, new Integer( rank++ ) );
+            }
+        }
+
+        Map ranks = new IdentityHashMap();
+        Integer last = new Integer( Integer.MAX_VALUE );
+        for ( Iterator i = artList.iterator(); i.hasNext(); )
+        {
+            Artifact artifact = (Artifact) i.next();
+            Integer artifactRank = (Integer) keyRanks.get( artifact.getGroupId() + ":" + artifact.getArtifactId() );
+            ranks.put( artifact, artifactRank == null ? last : artifactRank );
+        }
+        return ranks;
+    }
+
+    /**
+     * Orders artifacts by declaration rank, using the coordinates to break ties.
+     */
+    private static class DeclarationComparator
+        implements Comparator
+    {
+        private final Map ranks;
 
-        String cpString = sb.toString();
+        private final Comparator coordinates;
 
-        // if file separator is set, I need to replace the default one from all
-        // the file paths that were pulled from the artifacts
-        if ( isFileSepSet )
+        DeclarationComparator( Map theRanks, Comparator theCoordinates )
         {
-            String separator = File.separator;
+            this.ranks = theRanks;
+            this.coordinates = theCoordinates;
+        }
 
-            // if the file sep is "\" then I need to escape it for the regex
-            if ( File.separator.equals( "\\" ) )
+        public int compare( Object arg1, Object arg2 )
+        {
+            int rank1 = ( (Integer) ranks.get( arg1 ) ).intValue();
+            int rank2 = ( (Integer) ranks.get( arg2 ) ).intValue();
+            if ( rank1 != rank2 )
             {
-                separator = "\\\\";
+                return rank1 < rank2 ? -1 : 1;
             }
+            return coordinates.compare( arg1, arg2 );
+        }
+    }
 
-            cpString = cpString.replaceAll( separator, fileSeparator );
+    /**
+     * Writes one of the text formats.
+     * 
+     * @param artList the artifacts, in classpath order.
+     * @param format the output format, other than <code>manifest-jar</code>.
+     * @param w the writer to write to.
+     * @throws IOException if the output can't be written.
+     */
+    private void writeText( List artList, String format, Writer w )
+        throws IOException
+    {
+        if ( FORMAT_LIST.equals( format ) )
+        {
+            writeList( artList, w );
+        }
+        else if ( FORMAT_ARGFILE.equals( format ) )
+        {
+            writeArgFile( artList, w );
         }
+        else
+        {
+            writeClasspath( artList, w );
+        }
+    }
 
+    /**
+     * Writes the classpath entry by entry, with the separators and filtering prefix applied, so the whole classpath is
+     * never held in memory.
+     * 
+     * @param artList the artifacts, in classpath order.
+     * @param w the writer to write to.
+     * @throws IOException if the classpath can't be written.
+     */
+    private void writeClasspath( List artList, Writer w )
+        throws IOException
+    {
         //make the string valid for filtering
-        if (outputFilterFile)
+        if ( outputFilterFile )
         {
-            cpString = "classpath="+ cpString;
+            w.write( "classpath=" );
         }
-        
-        if ( outputFile == null )
+
+        writeEntries( artList, w, isPathSepSet ? this.pathSeparator : File.pathSeparator, false );
+    }
+
+    /**
+     * Writes a JDK argument file. The classpath is quoted, so backslashes and quotes in it are escaped.
+     * 
+     * @param artList the artifacts, in classpath order.
+     * @param w the writer to write to.
+     * @throws IOException if the file can't be written.
+     */
+    private void writeArgFile( List artList, Writer w )
+        throws IOException
+    {
+        w.write( "-classpath\n\"" );
+        writeEntries( artList, w, isPathSepSet ? this.pathSeparator : File.pathSeparator, true );
+        w.write( "\"\n" );
+    }
+
+    /**
+     * Writes one entry per line.
+     * 
+     * @param artList the artifacts, in classpath order.
+     * @param w the writer to write to.
+     * @throws IOException if the list can't be written.
+     */
+    private void writeList( List artList, Writer w )
+        throws IOException
+    {
+        if ( !artList.isEmpty() )
         {
-            getLog().info( "Dependencies classpath:\n" + cpString );
+            writeEntries( artList, w, "\n", false );
+            w.write( '\n' );
         }
-        else
+    }
+
+    private void writeEntries( List artList, Writer w, String separator, boolean quote )
+        throws IOException
+    {
+        StringBuffer sb = new StringBuffer();
+        for ( Iterator i = artList.iterator(); i.hasNext(); )
         {
-            if ( regenerateFile || !isUpdToDate( cpString ) )
+            sb.setLength( 0 );
+            appendArtifactPath( (Artifact) i.next(), sb );
+            String path = sb.toString();
+
+            // if file separator is set, I need to replace the default one in the file path
+            if ( isFileSepSet )
+            {
+                path = StringUtils.replace( path, File.separator, fileSeparator );
+            }
+
+            if ( quote )
             {
-                storeClasspathFile( cpString, outputFile );
+                path = StringUtils.replace( StringUtils.replace( path, "\\", "\\\\" ), "\"", "\\\"" );
+            }
+
+            w.write( path );
+            if ( i.hasNext() )
+            {
+                w.write( separator );
+            }
+        }
+    }
+
+    /**
+     * Writes a jar that only holds a manifest with a <code>Class-Path</code> attribute. Without a prefix the entries
+     * are absolute file URLs, with a prefix they are relative to the jar.
+     * 
+     * @param artList the artifacts, in classpath order.
+     * @param out the stream to write the jar to.
+     * @throws IOException if the jar can't be written.
+     */
+    private void writeManifestJar( List artList, OutputStream out )
+        throws IOException
+    {
+        StringBuffer classPath = new StringBuffer();
+        for ( Iterator i = artList.iterator(); i.hasNext(); )
+        {
+            Artifact artifact = (Artifact) i.next();
+            if ( classPath.length() > 0 )
+            {
+                classPath.append( ' ' );
+            }
+            if ( prefix == null )
+            {
+                classPath.append( artifact.getFile().getAbsoluteFile().toURI().toURL().toExternalForm() );
             }
             else
             {
-                this.getLog().info( "Skipped writing classpath file '" + outputFile + "'.  No changes found." );
+                String path = prefix + "/" + DependencyUtil.getFormattedFileName( artifact, this.stripVersion );
+                path = StringUtils.replace( path, "\\", "/" );
+                classPath.append( StringUtils.replace( path, " ", "%20" ) );
+            }
+        }
+
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put( Attributes.Name.MANIFEST_VERSION, "1.0" );
+        manifest.getMainAttributes().put( Attributes.Name.CLASS_PATH, classPath.toString() );
+
+        JarOutputStream jar = new JarOutputStream( out );
+        try
+        {
+            JarEntry entry = new JarEntry( JarFile.MANIFEST_NAME );
+            entry.setTime( MANIFEST_JAR_TIME );
+            jar.putNextEntry( entry );
+            manifest.write( jar );
+            jar.closeEntry();
+        }
+        finally
+        {
+            jar.close();
+        }
+    }
+
+    /**
+     * Gets the file holding the fingerprint of the last written classpath.
+     * 
+     * @return the fingerprint file, or null if the classpath is only logged or there is no markers directory.
+     */
+    private File getFingerprintFile()
+    {
+        if ( markersDirectory == null || outputFile == null )
+        {
+            return null;
+        }
+
+        String name = outputFile.getName() + "-" + Integer.toHexString( outputFile.getAbsolutePath().hashCode() );
+        return new File( markersDirectory, name + ".classpath-fingerprint" );
+    }
+
+    /**
+     * Computes a digest of everything the classpath string is made of: the artifacts in classpath order with their
+     * files, and the parameters that shape the paths. Equal fingerprints mean equal classpath strings.
+     * 
+     * @param artList the artifacts, in classpath order.
+     * @param format the output format.
+     * @return the hex SHA-1 of the inputs.
+     * @throws MojoExecutionException if SHA-1 is not available.
+     */
+    private String computeFingerprint( List artList, String format )
+        throws MojoExecutionException
+    {
+        MessageDigest digest;
+        try
+        {
+            digest = createDigest();
+        }
+        catch ( IOException e )
+        {
+            throw new MojoExecutionException( e.getMessage(), e );
+        }
+
+        update( digest, "1" );
+        update( digest, format );
+        update( digest, File.separator );
+        update( digest, File.pathSeparator );
+        update( digest, prefix );
+        update( digest, String.valueOf( stripVersion ) );
+        update( digest, isFileSepSet ? fileSeparator : null );
+        update( digest, isPathSepSet ? pathSeparator : null );
+        update( digest, localRepoProperty );
+        update( digest, local == null ? null : local.getBasedir() );
+        update( digest, String.valueOf( outputFilterFile ) );
+        update( digest, String.valueOf( attach ) );
+
+        for ( Iterator i = artList.iterator(); i.hasNext(); )
+        {
+            Artifact artifact = (Artifact) i.next();
+            update( digest, artifact.getId() );
+            update( digest, artifact.getFile() == null ? null : artifact.getFile().getPath() );
+        }
+
+        return DigestIndex.toHex( digest.digest() );
+    }
+
+    private static MessageDigest createDigest()
+        throws IOException
+    {
+        try
+        {
+            return MessageDigest.getInstance( "SHA-1" );
+        }
+        catch ( NoSuchAlgorithmException e )
+        {
+            throw new IOException( "SHA-1 is not available: " + e.getMessage() );
+        }
+    }
+
+    private static void update( MessageDigest digest, String value )
+    {
+        if ( value != null )
+        {
+            try
+            {
+                digest.update( value.getBytes( "UTF-8" ) );
+            }
+            catch ( UnsupportedEncodingException e )
+            {
+                // UTF-8 is always supported
+                throw new IllegalStateException( e.getMessage() );
             }
         }
+        // terminate every value so that adjacent values can't run into each other
+        digest.update( (byte) 0 );
+    }
+
+    /**
+     * Checks the fingerprint stored by the last run against the current one. The outputs must also still have the
+     * length and timestamp they had when they were written, so an edited or deleted file is regenerated.
+     * 
+     * @param fingerprintFile the fingerprint file.
+     * @param fingerprint the current fingerprint.
+     * @return true if the classpath files are current.
+     */
+    private boolean isFingerprintUpToDate( File fingerprintFile, String fingerprint )
+    {
+        if ( !fingerprintFile.isFile() )
+        {
+            return false;
+        }
+
+        try
+        {
+            String stored = FileUtils.fileRead( fingerprintFile.getPath() ).trim();
+            return stored.equals( getFingerprintLine( fingerprint ) );
+        }
+        catch ( IOException ex )
+        {
+            this.getLog().debug( "Unable to read classpath fingerprint '" + fingerprintFile + "': " + ex );
+            return false;
+        }
+    }
+
+    private String getFingerprintLine( String fingerprint )
+    {
+        StringBuffer line = new StringBuffer( fingerprint );
+        appendFileState( outputFile, line );
         if ( attach )
         {
-            attachFile( cpString );
+            appendFileState( getAttachedFile(), line );
+        }
+        return line.toString();
+    }
+
+    private static void appendFileState( File file, StringBuffer line )
+    {
+        line.append( ',' );
+        if ( file.isFile() )
+        {
+            line.append( file.length() ).append( ',' ).append( file.lastModified() );
+        }
+        else
+        {
+            line.append( "missing" );
         }
     }
 
-    protected void attachFile( String cpString )
+    private void storeFingerprint( File fingerprintFile, String fingerprint )
+    {
+        try
+        {
+            fingerprintFile.getParentFile().mkdirs();
+            FileUtils.fileWrite( fingerprintFile.getPath(), getFingerprintLine( fingerprint ) );
+        }
+        catch ( IOException ex )
+        {
+            // only costs a regeneration next time
+            this.getLog().debug( "Unable to write classpath fingerprint '" + fingerprintFile + "': " + ex );
+        }
+    }
+
+    private File getAttachedFile()
+    {
+        return new File( project.getBuild().getDirectory(), "classpath" );
+    }
+
+    protected void attachFile( List artList )
         throws MojoExecutionException
     {
-        File attachedFile = new File( project.getBuild().getDirectory(), "classpath" );
-        storeClasspathFile( cpString, attachedFile );
+        File attachedFile = getAttachedFile();
+        storeClasspathFile( artList, attachedFile, FORMAT_CLASSPATH );
 
         projectHelper.attachArtifact( project, attachedFile, "classpath" );
     }
@@ -296,65 +775,66 @@ public class BuildClasspathMojo
     }
 
     /**
-     * Checks that new classpath differs from that found inside the old classpathFile.
+     * Writes the classpath into that file, in UTF-8 for the text formats. The content goes to a temporary file first
+     * while its digest is computed; if it matches the existing file, the existing file is kept untouched, otherwise it
+     * is replaced.
      * 
-     * @param cpString
-     * @return true if the specified classpath equals to that found inside the file, false otherwise (including when
-     *         file does not exists but new classpath does).
+     * @param artList the artifacts, in classpath order.
+     * @param out the file to write.
+     * @param format the output format.
+     * @throws MojoExecutionException if the file can't be written.
      */
-    private boolean isUpdToDate( String cpString )
-    {
-        try
-        {
-            String oldCp = readClasspathFile();
-            return ( cpString == oldCp || ( cpString != null && cpString.equals( oldCp ) ) );
-        }
-        catch ( Exception ex )
-        {
-            this.getLog().warn( "Error while reading old classpath file '" + outputFile + "' for up-to-date check: " + ex );
-
-            return false;
-        }
-    }
-
-    /**
-     * It stores the specified string into that file.
-     * 
-     * @param cpString the string to be written into the file.
-     * @throws MojoExecutionException
-     */
-    private void storeClasspathFile( String cpString, File out )
+    private void storeClasspathFile( List artList, File out, String format )
         throws MojoExecutionException
     {
-        
         //make sure the parent path exists.
-        out.getParentFile().mkdirs();
-        
+        out.getAbsoluteFile().getParentFile().mkdirs();
+        File tmp = new File( out.getAbsoluteFile().getParentFile(), out.getName() + ".tmp" );
+
         try
         {
-           
-            
-            Writer w = new BufferedWriter( new FileWriter( out ) );
-
-            try
+            MessageDigest sha1 = createDigest();
+            OutputStream os = new BufferedOutputStream( new DigestOutputStream( new FileOutputStream( tmp ), sha1 ) );
+            if ( FORMAT_MANIFEST_JAR.equals( format ) )
             {
-                w.write( cpString );
-
-                getLog().info( "Wrote classpath file '" + out + "'." );
+                writeManifestJar( artList, os );
+            }
+            else
+            {
+                Writer w = new OutputStreamWriter( os, "UTF-8" );
+                try
+                {
+                    writeText( artList, format, w );
+                }
+                finally
+                {
+                    w.close();
+                }
             }
-            catch ( IOException ex )
+
+            String digest = DigestIndex.toHex( sha1.digest() );
+            if ( !regenerateFile && out.isFile() && digest.equals( DigestIndex.computeDigest( out ) ) )
             {
-                throw new MojoExecutionException( "Error while writting to classpath file '" + out + "': " +
-                    ex.toString(), ex );
+                tmp.delete();
+                this.getLog().info( "Skipped writing classpath file '" + out + "'.  No changes found." );
+                return;
             }
-            finally
+
+            if ( !tmp.renameTo( out ) )
             {
-                w.close();
+                // rename can't replace an existing file on all platforms
+                out.delete();
+                if ( !tmp.renameTo( out ) )
+                {
+                    throw new IOException( "Unable to rename " + tmp + " to " + out );
+                }
             }
+            getLog().info( "Wrote classpath file '" + out + "'." );
         }
         catch ( IOException ex )
         {
-            throw new MojoExecutionException( "Error while opening/closing classpath file '" + out + "': " +
+            tmp.delete();
+            throw new MojoExecutionException( "Error while writting to classpath file '" + out + "': " +
                 ex.toString(), ex );
         }
     }
@@ -380,7 +860,7 @@ public class BuildClasspathMojo
             return null;
         }
         StringBuffer sb = new StringBuffer();
-        BufferedReader r = new BufferedReader( new FileReader( outputFile ) );
+        BufferedReader r = new BufferedReader( new InputStreamReader( new FileInputStream( outputFile ), "UTF-8" ) );
 
         try
         {
@@ -399,7 +879,8 @@ public class BuildClasspathMojo
     }
 
     /**
-     * Compares artifacts lexicographically, using pattern [group_id][artifact_id][version].
+     * Compares artifacts lexicographically, by groupId, artifactId, version, type and classifier in turn. The fields
+     * are compared one by one, so no strings are built per comparison.
      * 
      * @param arg1 first object
      * @param arg2 second object
@@ -415,22 +896,28 @@ public class BuildClasspathMojo
             {
                 return 0;
             }
-            else if ( arg1 == null )
-            {
-                return -1;
-            }
-            else if ( arg2 == null )
-            {
-                return +1;
-            }
 
             Artifact art1 = (Artifact) arg1;
             Artifact art2 = (Artifact) arg2;
 
-            String s1 = art1.getGroupId() + art1.getArtifactId() + art1.getVersion();
-            String s2 = art2.getGroupId() + art2.getArtifactId() + art2.getVersion();
-
-            return s1.compareTo( s2 );
+            int result = compareStrings( art1.getGroupId(), art2.getGroupId() );
+            if ( result == 0 )
+            {
+                result = compareStrings( art1.getArtifactId(), art2.getArtifactId() );
+            }
+            if ( result == 0 )
+            {
+                result = compareStrings( art1.getVersion(), art2.getVersion() );
+            }
+            if ( result == 0 )
+            {
+                result = compareStrings( art1.getType(), art2.getType() );
+            }
+            if ( result == 0 )
+            {
+                result = compareStrings( art1.getClassifier(), art2.getClassifier() );
+            }
+            return result;
         }
         else
         {
@@ -438,6 +925,23 @@ public class BuildClasspathMojo
         }
     }
 
+    private static int compareStrings( String s1, String s2 )
+    {
+        if ( s1 == s2 )
+        {
+            return 0;
+        }
+        else if ( s1 == null )
+        {
+            return -1;
+        }
+        else if ( s2 == null )
+        {
+            return +1;
+        }
+        return s1.compareTo( s2 );
+    }
+
     protected ArtifactsFilter getMarkedArtifactFilter()
     {
         return null;
@@ -568,4 +1072,24 @@ public class BuildClasspathMojo
     {
         this.isPathSepSet = isPathSepSet;
     }
+
+    public String getClasspathOrder()
+    {
+        return classpathOrder;
+    }
+
+    public void setClasspathOrder( String classpathOrder )
+    {
+        this.classpathOrder = classpathOrder;
+    }
+
+    public String getOutputFormat()
+    {
+        return outputFormat;
+    }
+
+    public void setOutputFormat( String outputFormat )
+    {
+        this.outputFormat = outputFormat;
+    }
 }
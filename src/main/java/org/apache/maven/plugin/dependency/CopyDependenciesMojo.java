@@ -33,6 +33,7 @@ import org.apache.maven.artifact.repository.layout.DefaultRepositoryLayout;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.dependency.utils.DependencyStatusSets;
 import org.apache.maven.plugin.dependency.utils.DependencyUtil;
+import org.apache.maven.plugin.dependency.utils.ParallelExecutor;
 import org.apache.maven.plugin.dependency.utils.filters.DestFileFilter;
 import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.shared.artifact.filter.collection.ArtifactsFilter;
@@ -62,6 +63,16 @@ public class CopyDependenciesMojo
      */
     protected ArtifactRepositoryFactory repositoryFactory;
 
+    /**
+     * Number of threads used to copy the dependencies (and their poms). A value of zero or less uses one thread per
+     * available processor. Copying into a repository layout is always done serially.
+     *
+     * @since 2.2
+     * @parameter expression="${mdep.threads}" default-value="0"
+     * @optional
+     */
+    protected int threads;
+
     /**
      * Main entry into mojo. Gets the list of dependencies and iterates through
      * calling copyArtifact.
@@ -80,10 +91,20 @@ public class CopyDependenciesMojo
 
     	if ( !useRepositoryLayout )
     	{
+            ParallelExecutor executor = new ParallelExecutor( this.threads, getLog() );
 	        for ( Iterator i = artifacts.iterator(); i.hasNext(); )
 	        {
-	    		copyArtifact( (Artifact) i.next(), this.stripVersion );
+                final Artifact artifact = (Artifact) i.next();
+                executor.add( new ParallelExecutor.Task()
+                {
+                    public void execute( Log log )
+                        throws MojoExecutionException
+                    {
+                        copyArtifact( artifact, stripVersion, log );
+                    }
+                } );
 	    	}
+            executor.execute();
     	}
     	else
     	{
@@ -110,6 +131,8 @@ public class CopyDependenciesMojo
             Artifact artifact = (Artifact) i.next();
             getLog().info( artifact.getFile().getName() + " already exists in destination." );
         }
+
+        saveDigestIndex();
     }
 
     private void installArtifact( Artifact artifact, ArtifactRepository targetRepository) 
@@ -174,6 +197,27 @@ public class CopyDependenciesMojo
     protected void copyArtifact( Artifact artifact, boolean removeVersion )
         throws MojoExecutionException
     {
+        copyArtifact( artifact, removeVersion, getLog() );
+    }
+
+    /**
+     * Copies the Artifact, reporting to the given log. This variant is used by
+     * the worker threads so that their output can be buffered.
+     * 
+     * @param artifact
+     *            representing the object to be copied.
+     * @param removeVersion
+     *            specifies if the version should be removed from the file name
+     *            when copying.
+     * @param log
+     *            the log to report to.
+     * 
+     * @throws MojoExecutionException
+     *             with a message if an error occurs.
+     */
+    protected void copyArtifact( Artifact artifact, boolean removeVersion, Log log )
+        throws MojoExecutionException
+    {
 
         String destFileName = DependencyUtil.getFormattedFileName( artifact, removeVersion );
 
@@ -183,23 +227,27 @@ public class CopyDependenciesMojo
                                                               artifact );
         File destFile = new File( destDir, destFileName );
 
-        copyFile( artifact.getFile(), destFile );
+        copyFile( artifact.getFile(), destFile, log );
         // Copy POM if asked
         if ( isCopyPom() )
         {
             // Create the pom
-            Artifact pomArtifact = getResolvedPomArtifact( artifact );
+            Artifact pomArtifact = getResolvedPomArtifact( artifact, log );
             
             // Copy the pom
             if ( pomArtifact.getFile() != null && pomArtifact.getFile().exists() )
             {
                 File pomDestFile = new File( destDir, DependencyUtil.getFormattedFileName( pomArtifact, removeVersion ) );
-                copyFile( pomArtifact.getFile(), pomDestFile );
+                copyFile( pomArtifact.getFile(), pomDestFile, log );
             }
         }
     }
 
 	protected Artifact getResolvedPomArtifact( Artifact artifact ) {
+		return getResolvedPomArtifact( artifact, getLog() );
+	}
+
+	protected Artifact getResolvedPomArtifact( Artifact artifact, Log log ) {
 		Artifact pomArtifact = this.factory.createArtifact( artifact.getGroupId(), artifact.getArtifactId(),
 		                                                    artifact.getVersion(), "", "pom" );
 		// Resolve the pom artifact using repos
@@ -209,15 +257,18 @@ public class CopyDependenciesMojo
 		}
 		catch ( Exception e )
 		{
-		    getLog().info( e.getMessage() );
+		    log.info( e.getMessage() );
 		}
 		return pomArtifact;
 	}
 
     protected ArtifactsFilter getMarkedArtifactFilter()
     {
-        return new DestFileFilter( this.overWriteReleases, this.overWriteSnapshots, this.overWriteIfNewer,
-                                   this.useSubDirectoryPerArtifact, this.useSubDirectoryPerType,
-                                   this.useRepositoryLayout, this.stripVersion, this.outputDirectory );
+        DestFileFilter filter = new DestFileFilter( this.overWriteReleases, this.overWriteSnapshots,
+                                                    this.overWriteIfNewer, this.useSubDirectoryPerArtifact,
+                                                    this.useSubDirectoryPerType, this.useRepositoryLayout,
+                                                    this.stripVersion, this.outputDirectory );
+        filter.setDigestIndex( getDigestIndex() );
+        return filter;
     }
 }
@@ -20,8 +20,11 @@ package org.apache.maven.plugin.dependency;
  */
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.StringWriter;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
@@ -42,21 +45,25 @@ import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugin.dependency.utils.DependencyUtil;
+import org.apache.maven.plugin.dependency.treeSerializers.BinaryDependencyNodeVisitor;
+import org.apache.maven.plugin.dependency.treeSerializers.DOTDependencyNodeVisitor;
+import org.apache.maven.plugin.dependency.treeSerializers.FilteringTreeDependencyNodeVisitor;
+import org.apache.maven.plugin.dependency.treeSerializers.GraphmlDependencyNodeVisitor;
+import org.apache.maven.plugin.dependency.treeSerializers.PruningDependencyNodeVisitor;
+import org.apache.maven.plugin.dependency.treeSerializers.SubtreeSelector;
+import org.apache.maven.plugin.dependency.treeSerializers.TGFDependencyNodeVisitor;
+import org.apache.maven.plugin.dependency.utils.LogWriter;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.shared.artifact.filter.StrictPatternExcludesArtifactFilter;
 import org.apache.maven.shared.artifact.filter.StrictPatternIncludesArtifactFilter;
 import org.apache.maven.shared.dependency.tree.DependencyNode;
 import org.apache.maven.shared.dependency.tree.DependencyTreeBuilder;
 import org.apache.maven.shared.dependency.tree.DependencyTreeBuilderException;
-import org.apache.maven.shared.dependency.tree.filter.AncestorOrSelfDependencyNodeFilter;
 import org.apache.maven.shared.dependency.tree.filter.AndDependencyNodeFilter;
 import org.apache.maven.shared.dependency.tree.filter.ArtifactDependencyNodeFilter;
 import org.apache.maven.shared.dependency.tree.filter.DependencyNodeFilter;
 import org.apache.maven.shared.dependency.tree.filter.StateDependencyNodeFilter;
-import org.apache.maven.shared.dependency.tree.traversal.BuildingDependencyNodeVisitor;
-import org.apache.maven.shared.dependency.tree.traversal.CollectingDependencyNodeVisitor;
 import org.apache.maven.shared.dependency.tree.traversal.DependencyNodeVisitor;
-import org.apache.maven.shared.dependency.tree.traversal.FilteringDependencyNodeVisitor;
 import org.apache.maven.shared.dependency.tree.traversal.SerializingDependencyNodeVisitor;
 import org.apache.maven.shared.dependency.tree.traversal.SerializingDependencyNodeVisitor.TreeTokens;
 
@@ -163,6 +170,17 @@ public class TreeMojo extends AbstractMojo
      */
     private boolean verbose;
 
+    /**
+     * The format of the serialized dependency tree. Possible values are <code>text</code>, <code>dot</code>,
+     * <code>graphml</code> or <code>tgf</code>. The graph formats are written as the tree is walked and identify the
+     * nodes by their position in the tree, so large trees can be exported with bounded memory.
+     * 
+     * @since 2.2
+     * 
+     * @parameter expression="${outputType}" default-value="text"
+     */
+    private String outputType;
+
     /**
      * The token set name to use when outputting the dependency tree. Possible values are <code>whitespace</code>,
      * <code>standard</code> or <code>extended</code>, which use whitespace, standard or extended ASCII sets
@@ -197,6 +215,17 @@ public class TreeMojo extends AbstractMojo
      */
     private String excludes;
 
+    /**
+     * If specified, the complete dependency tree, including omitted nodes, is also exported to this file in a compact
+     * binary format that can be read back with <code>BinaryDependencyTree</code>. The includes, excludes and verbose
+     * parameters don't apply to the export, the node states are recorded instead.
+     * 
+     * @since 2.2
+     * 
+     * @parameter expression="${binaryOutputFile}"
+     */
+    private File binaryOutputFile;
+
     /**
      * Runtime Information used to check the Maven version
      * @since 2.0
@@ -234,6 +263,13 @@ public class TreeMojo extends AbstractMojo
         }
 
         
+        if ( outputType != null && !"text".equals( outputType ) && !"dot".equals( outputType )
+            && !"graphml".equals( outputType ) && !"tgf".equals( outputType ) )
+        {
+            throw new MojoExecutionException( "Invalid outputType: " + outputType
+                + ", use one of text, dot, graphml or tgf" );
+        }
+
         if (output != null)
         {
             getLog().warn( "The parameter output is deprecated. Use outputFile instead." );
@@ -250,17 +286,27 @@ public class TreeMojo extends AbstractMojo
                 dependencyTreeBuilder.buildDependencyTree( project, localRepository, artifactFactory,
                                                            artifactMetadataSource, artifactFilter, artifactCollector );
 
-            String dependencyTreeString = serialiseDependencyTree( rootNode );
+            // stream the tree to its destination, it is never held as a whole in memory
+            Writer writer = outputFile != null ? DependencyUtil.openWriter( outputFile ) : new LogWriter( getLog() );
+            try
+            {
+                serialiseDependencyTree( rootNode, writer );
+            }
+            finally
+            {
+                writer.close();
+            }
 
             if ( outputFile != null )
             {
-                DependencyUtil.write( dependencyTreeString, outputFile, getLog() );
-
                 getLog().info( "Wrote dependency tree to: " + outputFile );
             }
-            else
+
+            if ( binaryOutputFile != null )
             {
-                DependencyUtil.log( dependencyTreeString, getLog() );
+                writeBinaryDependencyTree( rootNode, binaryOutputFile );
+
+                getLog().info( "Wrote binary dependency tree to: " + binaryOutputFile );
             }
         }
         catch ( DependencyTreeBuilderException exception )
@@ -322,37 +368,92 @@ public class TreeMojo extends AbstractMojo
     }
 
     /**
-     * Serialises the specified dependency tree to a string.
+     * Serialises the specified dependency tree to a writer, node by node.
      * 
      * @param rootNode
      *            the dependency tree root node to serialise
-     * @return the serialised dependency tree
+     * @param writer
+     *            the writer to serialise to
+     * @throws IOException
+     *             if the tree can't be written
      */
-    private String serialiseDependencyTree( DependencyNode rootNode )
+    private void serialiseDependencyTree( DependencyNode rootNode, Writer writer )
+        throws IOException
     {
-        StringWriter writer = new StringWriter();
-        TreeTokens treeTokens = toTreeTokens( tokens );
+        // the serializer prints without reporting errors, keep the print writer to check it afterwards
+        PrintWriter printWriter = new PrintWriter( writer );
 
-        DependencyNodeVisitor visitor = new SerializingDependencyNodeVisitor( writer, treeTokens );
+        DependencyNodeVisitor visitor;
 
-        // TODO: remove the need for this when the serializer can calculate last nodes from visitor calls only
-        visitor = new BuildingDependencyNodeVisitor( visitor );
-
-        DependencyNodeFilter filter = createDependencyNodeFilter();
-
-        if ( filter != null )
+        if ( "dot".equals( outputType ) )
+        {
+            visitor = createGraphVisitor( new DOTDependencyNodeVisitor( printWriter ) );
+        }
+        else if ( "graphml".equals( outputType ) )
+        {
+            visitor = createGraphVisitor( new GraphmlDependencyNodeVisitor( printWriter ) );
+        }
+        else if ( "tgf".equals( outputType ) )
         {
-            CollectingDependencyNodeVisitor collectingVisitor = new CollectingDependencyNodeVisitor();
-            DependencyNodeVisitor firstPassVisitor = new FilteringDependencyNodeVisitor( collectingVisitor, filter );
-            rootNode.accept( firstPassVisitor );
+            visitor = createGraphVisitor( new TGFDependencyNodeVisitor( printWriter ) );
+        }
+        else
+        {
+            TreeTokens treeTokens = toTreeTokens( tokens );
 
-            DependencyNodeFilter secondPassFilter = new AncestorOrSelfDependencyNodeFilter( collectingVisitor.getNodes() );
-            visitor = new FilteringDependencyNodeVisitor( visitor, secondPassFilter );
+            // a single walk draws the accepted nodes and their ancestors
+            visitor = new FilteringTreeDependencyNodeVisitor( printWriter, treeTokens, createDependencyNodeFilter() );
         }
 
         rootNode.accept( visitor );
 
-        return writer.toString();
+        if ( printWriter.checkError() )
+        {
+            throw new IOException( "Error while writing the dependency tree" );
+        }
+    }
+
+    /**
+     * Wraps a graph serializer so it only gets the accepted nodes and their ancestors.
+     * 
+     * @param serializer
+     *            the graph serializer
+     * @return the visitor to walk the tree with
+     */
+    private DependencyNodeVisitor createGraphVisitor( DependencyNodeVisitor serializer )
+    {
+        return new PruningDependencyNodeVisitor( serializer, new SubtreeSelector( createDependencyNodeFilter() ) );
+    }
+
+    /**
+     * Exports the complete dependency tree in the binary format.
+     * 
+     * @param rootNode
+     *            the dependency tree root node to export
+     * @param file
+     *            the file to write
+     * @throws IOException
+     *             if the file can't be written
+     */
+    private void writeBinaryDependencyTree( DependencyNode rootNode, File file )
+        throws IOException
+    {
+        file.getAbsoluteFile().getParentFile().mkdirs();
+
+        OutputStream out = new FileOutputStream( file );
+        try
+        {
+            BinaryDependencyNodeVisitor visitor = new BinaryDependencyNodeVisitor( out );
+            rootNode.accept( visitor );
+            if ( visitor.getFailure() != null )
+            {
+                throw visitor.getFailure();
+            }
+        }
+        finally
+        {
+            out.close();
+        }
     }
 
     /**
@@ -20,15 +20,24 @@ package org.apache.maven.plugin.dependency;
  */
 
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.dependency.utils.DependencyStatusSets;
 import org.apache.maven.plugin.dependency.utils.DependencyUtil;
+import org.apache.maven.plugin.dependency.utils.OverlapDetector;
+import org.apache.maven.plugin.dependency.utils.ParallelExecutor;
+import org.apache.maven.plugin.dependency.utils.ZipUnpacker;
 import org.apache.maven.plugin.dependency.utils.filters.MarkerFileFilter;
 import org.apache.maven.plugin.dependency.utils.markers.DefaultFileMarkerHandler;
+import org.apache.maven.plugin.dependency.utils.markers.ManifestMarkerHandler;
+import org.apache.maven.plugin.dependency.utils.markers.MarkerHandler;
+import org.apache.maven.plugin.dependency.utils.markers.MarkerManifest;
 import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.shared.artifact.filter.collection.ArtifactsFilter;
 import org.codehaus.plexus.archiver.manager.ArchiverManager;
@@ -62,6 +71,16 @@ public class UnpackDependenciesMojo
      * @parameter expression="${mdep.unpack.excludes}"
      */
     private String excludes;
+
+    /**
+     * Number of threads used to unpack the dependencies. Archives that would write the same files are still unpacked
+     * one after the other, in dependency order. A value of zero or less uses one thread per available processor.
+     *
+     * @since 2.2
+     * @parameter expression="${mdep.threads}" default-value="0"
+     * @optional
+     */
+    protected int threads;
     
     /**
      * Main entry into mojo. This method gets the dependencies and iterates
@@ -80,17 +99,57 @@ public class UnpackDependenciesMojo
         DependencyStatusSets dss = getDependencySets( this.failOnMissingClassifierArtifact );
         Set artifacts = dss.getResolvedDependencies();
 
-        for ( Iterator i = artifacts.iterator(); i.hasNext(); )
+        final List toUnpack = new ArrayList( artifacts );
+        final List archives = new ArrayList();
+        final List destDirs = new ArrayList();
+        for ( Iterator i = toUnpack.iterator(); i.hasNext(); )
         {
             Artifact artifact = (Artifact) i.next();
-            File destDir;
-            destDir = DependencyUtil.getFormattedOutputDirectory( useSubDirectoryPerType, useSubDirectoryPerArtifact,
-                                                                  useRepositoryLayout, stripVersion, outputDirectory,
-                                                                  artifact );
-            unpack( artifact.getFile(), destDir, getIncludes(), getExcludes() );
-            DefaultFileMarkerHandler handler = new DefaultFileMarkerHandler( artifact, this.markersDirectory );
-            handler.setMarker();
+            archives.add( artifact.getFile() );
+            destDirs.add( DependencyUtil.getFormattedOutputDirectory( useSubDirectoryPerType,
+                                                                      useSubDirectoryPerArtifact, useRepositoryLayout,
+                                                                      stripVersion, outputDirectory, artifact ) );
+        }
+
+        ParallelExecutor executor = new ParallelExecutor( this.threads, getLog() );
+        if ( executor.getThreads() > 1 && toUnpack.size() > 1 )
+        {
+            // archives writing or deleting the same files must keep their order
+            List previousEntries = incrementalUnpack ? readPreviousEntries( toUnpack, destDirs ) : null;
+            for ( Iterator i = OverlapDetector.groupOverlapping( archives, destDirs, previousEntries ).iterator();
+                  i.hasNext(); )
+            {
+                final List group = (List) i.next();
+                executor.add( new ParallelExecutor.Task()
+                {
+                    public void execute( Log log )
+                        throws MojoExecutionException
+                    {
+                        for ( Iterator g = group.iterator(); g.hasNext(); )
+                        {
+                            int index = ( (Integer) g.next() ).intValue();
+                            unpackArtifact( (Artifact) toUnpack.get( index ), (File) destDirs.get( index ), log );
+                        }
+                    }
+                } );
+            }
+        }
+        else
+        {
+            for ( int i = 0; i < toUnpack.size(); i++ )
+            {
+                final int index = i;
+                executor.add( new ParallelExecutor.Task()
+                {
+                    public void execute( Log log )
+                        throws MojoExecutionException
+                    {
+                        unpackArtifact( (Artifact) toUnpack.get( index ), (File) destDirs.get( index ), log );
+                    }
+                } );
+            }
         }
+        executor.execute();
         
         artifacts = dss.getSkippedDependencies();
         for ( Iterator i = artifacts.iterator(); i.hasNext(); )
@@ -98,12 +157,73 @@ public class UnpackDependenciesMojo
             Artifact artifact = (Artifact) i.next();
             getLog().info( artifact.getFile().getName() + " already exists in destination." );
         }
+
+        saveMarkerManifest();
+    }
+
+    /**
+     * Reads the entries each artifact was last unpacked with incrementally, as their files may be deleted.
+     *
+     * @param artifacts the artifacts to unpack.
+     * @param destDirs the directory each artifact is unpacked to.
+     * @return the entry names of each artifact.
+     * @throws MojoExecutionException if a state file can't be read.
+     */
+    private List readPreviousEntries( List artifacts, List destDirs )
+        throws MojoExecutionException
+    {
+        List previousEntries = new ArrayList( artifacts.size() );
+        for ( int i = 0; i < artifacts.size(); i++ )
+        {
+            File stateFile = getUnpackStateFile( this.markersDirectory, (Artifact) artifacts.get( i ),
+                                                 (File) destDirs.get( i ), getIncludes(), getExcludes() );
+            try
+            {
+                previousEntries.add( ZipUnpacker.readEntryNames( stateFile ) );
+            }
+            catch ( IOException e )
+            {
+                throw new MojoExecutionException( "Unable to read " + stateFile, e );
+            }
+        }
+        return previousEntries;
+    }
+
+    /**
+     * Unpacks an artifact and sets its marker once it has been extracted completely.
+     *
+     * @param artifact the artifact to unpack.
+     * @param destDir the directory to unpack to.
+     * @param log the log to report to.
+     * @throws MojoExecutionException if the artifact can't be unpacked.
+     */
+    private void unpackArtifact( Artifact artifact, File destDir, Log log )
+        throws MojoExecutionException
+    {
+        unpack( artifact.getFile(), destDir, getIncludes(), getExcludes(),
+                getUnpackStateFile( this.markersDirectory, artifact, destDir, getIncludes(), getExcludes() ), log );
+        MarkerHandler handler = createMarkerHandler();
+        handler.setArtifact( artifact );
+        handler.setMarker();
     }
 
     protected ArtifactsFilter getMarkedArtifactFilter()
     {
         return new MarkerFileFilter( this.overWriteReleases, this.overWriteSnapshots, this.overWriteIfNewer,
-                                     new DefaultFileMarkerHandler( this.markersDirectory ) );
+                                     createMarkerHandler() );
+    }
+
+    /**
+     * @return a handler for the marker manifest if it is enabled, for marker files otherwise.
+     */
+    private MarkerHandler createMarkerHandler()
+    {
+        MarkerManifest manifest = getMarkerManifest( this.markersDirectory );
+        if ( manifest != null )
+        {
+            return new ManifestMarkerHandler( manifest );
+        }
+        return new DefaultFileMarkerHandler( this.markersDirectory );
     }
     
     /**
@@ -0,0 +1,253 @@
+package org.apache.maven.plugin.dependency.analyzer;
+
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.plugin.dependency.utils.DigestIndex;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.dependency.analyzer.ProjectDependencyAnalysis;
+
+/**
+ * Dependency analyses shared by the goals of a build session, so that analyze, analyze-report and clean-dep run on
+ * the same module analyze it only once.
+ * <p>
+ * An analysis is reused as long as its inputs are unchanged: the path, length and last modified time of every class
+ * file in the output directories, and of every resolved artifact, and the declared dependencies. Checking them only
+ * needs a directory walk. One cache exists per session object and goes away with it.
+ * </p>
+ *
+ * @version $Id$
+ * @since 2.2
+ */
+public class AnalysisCache
+{
+    private static final Map SESSIONS = new WeakHashMap();
+
+    /**
+     * project key -> Entry
+     */
+    private final Map analyses = new HashMap();
+
+    /**
+     * Gets the cache of a build session.
+     *
+     * @param session the session, compared by identity.
+     * @return the cache, created on first use.
+     */
+    public static AnalysisCache getInstance( Object session )
+    {
+        synchronized ( SESSIONS )
+        {
+            AnalysisCache cache = (AnalysisCache) SESSIONS.get( session );
+            if ( cache == null )
+            {
+                cache = new AnalysisCache();
+                SESSIONS.put( session, cache );
+            }
+            return cache;
+        }
+    }
+
+    /**
+     * Gets the analysis of a project made by an earlier goal of the session, if its inputs are unchanged.
+     *
+     * @param project the project.
+     * @return the analysis, or null if the project has to be analyzed. Its sets must not be modified.
+     */
+    public ProjectDependencyAnalysis get( MavenProject project )
+    {
+        String key = getKey( project );
+        String fingerprint = computeFingerprint( project );
+
+        synchronized ( this )
+        {
+            Entry entry = (Entry) analyses.get( key );
+            if ( entry != null && entry.fingerprint.equals( fingerprint ) )
+            {
+                return entry.analysis;
+            }
+            // remember the inputs checked, the analysis is about to be made from them
+            analyses.put( key, new Entry( fingerprint, null ) );
+            return null;
+        }
+    }
+
+    /**
+     * Shares the analysis of a project with the later goals of the session.
+     *
+     * @param project the analyzed project.
+     * @param analysis the analysis.
+     * @return the shared analysis, with sets that can't be modified.
+     */
+    public ProjectDependencyAnalysis put( MavenProject project, ProjectDependencyAnalysis analysis )
+    {
+        ProjectDependencyAnalysis shared =
+            new ProjectDependencyAnalysis( Collections.unmodifiableSet( analysis.getUsedDeclaredArtifacts() ),
+                                           Collections.unmodifiableSet( analysis.getUsedUndeclaredArtifacts() ),
+                                           Collections.unmodifiableSet( analysis.getUnusedDeclaredArtifacts() ) );
+
+        String key = getKey( project );
+        synchronized ( this )
+        {
+            Entry entry = (Entry) analyses.get( key );
+            String fingerprint =
+                entry != null && entry.analysis == null ? entry.fingerprint : computeFingerprint( project );
+            analyses.put( key, new Entry( fingerprint, shared ) );
+        }
+        return shared;
+    }
+
+    private static String getKey( MavenProject project )
+    {
+        return project.getId() + "@" + project.getBasedir();
+    }
+
+    /**
+     * Works out a digest of everything an analysis depends on, without reading any file.
+     *
+     * @param project the project.
+     * @return the lower case hex SHA-1 of the inputs.
+     */
+    static String computeFingerprint( MavenProject project )
+    {
+        MessageDigest sha1;
+        try
+        {
+            sha1 = MessageDigest.getInstance( "SHA-1" );
+        }
+        catch ( NoSuchAlgorithmException e )
+        {
+            throw new IllegalStateException( "SHA-1 is not available: " + e.getMessage() );
+        }
+
+        StringBuffer inputs = new StringBuffer();
+        appendClassFiles( sha1, inputs, new File( project.getBuild().getOutputDirectory() ) );
+        inputs.append( '\n' );
+        appendClassFiles( sha1, inputs, new File( project.getBuild().getTestOutputDirectory() ) );
+        inputs.append( '\n' );
+
+        for ( Iterator i = project.getArtifacts().iterator(); i.hasNext(); )
+        {
+            Artifact artifact = (Artifact) i.next();
+            inputs.append( artifact.getId() ).append( ':' ).append( artifact.getScope() );
+            appendFile( inputs, artifact.getFile() );
+            inputs.append( '\n' );
+        }
+
+        List declared = new ArrayList();
+        for ( Iterator i = project.getDependencyArtifacts().iterator(); i.hasNext(); )
+        {
+            declared.add( ( (Artifact) i.next() ).getId() );
+        }
+        Collections.sort( declared );
+        inputs.append( declared );
+
+        update( sha1, inputs );
+        return DigestIndex.toHex( sha1.digest() );
+    }
+
+    /**
+     * Moves the buffered inputs into the digest.
+     *
+     * @param sha1 the digest.
+     * @param inputs the buffer, emptied.
+     */
+    private static void update( MessageDigest sha1, StringBuffer inputs )
+    {
+        try
+        {
+            sha1.update( inputs.toString().getBytes( "UTF-8" ) );
+        }
+        catch ( UnsupportedEncodingException e )
+        {
+            throw new IllegalStateException( "UTF-8 is not available" );
+        }
+        inputs.setLength( 0 );
+    }
+
+    private static void appendClassFiles( MessageDigest sha1, StringBuffer inputs, File directory )
+    {
+        File[] files = directory.listFiles();
+        if ( files == null )
+        {
+            return;
+        }
+
+        Arrays.sort( files );
+        for ( int i = 0; i < files.length; i++ )
+        {
+            if ( files[i].isDirectory() )
+            {
+                appendClassFiles( sha1, inputs, files[i] );
+            }
+            else if ( files[i].getName().endsWith( ".class" ) )
+            {
+                appendFile( inputs, files[i] );
+                if ( inputs.length() > 8192 )
+                {
+                    // keep the buffer small for large output directories
+                    update( sha1, inputs );
+                }
+            }
+        }
+    }
+
+    private static void appendFile( StringBuffer inputs, File file )
+    {
+        if ( file != null )
+        {
+            inputs.append( '|' ).append( file.getPath() ).append( ',' ).append( file.length() ).append( ',' );
+            inputs.append( file.lastModified() );
+        }
+    }
+
+    /**
+     * An analysis and the fingerprint of its inputs.
+     */
+    private static class Entry
+    {
+        final String fingerprint;
+
+        /**
+         * The analysis, or null while it is being made.
+         */
+        final ProjectDependencyAnalysis analysis;
+
+        Entry( String theFingerprint, ProjectDependencyAnalysis theAnalysis )
+        {
+            this.fingerprint = theFingerprint;
+            this.analysis = theAnalysis;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package org.apache.maven.plugin.dependency.analyzer;
+
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.shared.dependency.analyzer.ProjectDependencyAnalysis;
+
+/**
+ * Works out which artifacts a project uses with integer ids instead of sets of class names.
+ * <p>
+ * The classes referenced by the project are interned first, each getting an id. Only these classes matter, so the
+ * class names of the dependencies are just looked up and never stored. The artifacts are added in classpath order: a
+ * bitset of the ids claimed by earlier artifacts gives each class to the first artifact containing it, and an artifact
+ * is used if it gets at least one id. The used undeclared and unused declared artifacts are then bitwise operations on
+ * bitsets indexed by classpath position.
+ * </p>
+ *
+ * @version $Id$
+ * @since 2.2
+ */
+public class ArtifactUsageIndex
+{
+    /**
+     * class name -> Integer id, for the referenced classes only.
+     */
+    private final Map classIds = new HashMap();
+
+    /**
+     * The artifacts, in classpath order.
+     */
+    private final List artifacts = new ArrayList();
+
+    /**
+     * artifact -> Integer classpath position, an artifact equal to an earlier one shares its position.
+     */
+    private final Map positions = new HashMap();
+
+    /**
+     * The ids of classes contained by an artifact added so far.
+     */
+    private final BitSet claimed = new BitSet();
+
+    /**
+     * The classpath positions of the used artifacts.
+     */
+    private final BitSet used = new BitSet();
+
+    private long dependencyClasses;
+
+    private long referencedDependencyClasses;
+
+    /**
+     * Interns classes referenced by the project. All referenced classes must be added before the first artifact.
+     *
+     * @param classNames the referenced class names.
+     */
+    public void addReferencedClasses( Set classNames )
+    {
+        if ( !artifacts.isEmpty() )
+        {
+            throw new IllegalStateException( "Referenced classes must be added before the artifacts" );
+        }
+
+        for ( Iterator i = classNames.iterator(); i.hasNext(); )
+        {
+            Object className = i.next();
+            if ( !classIds.containsKey( className ) )
+            {
+                classIds.put( className, new Integer( classIds.size() ) );
+            }
+        }
+    }
+
+    /**
+     * Adds the next artifact of the classpath.
+     *
+     * @param artifact the artifact.
+     * @param classNames the classes it contains, or null if it has none.
+     */
+    public void addArtifact( Artifact artifact, String[] classNames )
+    {
+        int position;
+        Integer existing = (Integer) positions.get( artifact );
+        if ( existing != null )
+        {
+            position = existing.intValue();
+        }
+        else
+        {
+            position = artifacts.size();
+            artifacts.add( artifact );
+            positions.put( artifact, new Integer( position ) );
+        }
+
+        if ( classNames == null )
+        {
+            return;
+        }
+
+        dependencyClasses += classNames.length;
+        for ( int i = 0; i < classNames.length; i++ )
+        {
+            Integer id = (Integer) classIds.get( classNames[i] );
+            if ( id != null )
+            {
+                referencedDependencyClasses++;
+                if ( !claimed.get( id.intValue() ) )
+                {
+                    claimed.set( id.intValue() );
+                    used.set( position );
+                }
+            }
+        }
+    }
+
+    /**
+     * Compares the used artifacts with the declared ones. Artifacts are matched with <code>equals</code>, like the
+     * default analyzer does, so a declared dependency resolved to another version is unused declared while the
+     * resolved artifact is used undeclared.
+     *
+     * @param declaredArtifacts the project's declared dependencies.
+     * @return the analysis.
+     */
+    public ProjectDependencyAnalysis analyze( Set declaredArtifacts )
+    {
+        BitSet declared = new BitSet();
+        Set usedDeclared = new HashSet();
+        Set unusedDeclared = new HashSet();
+        for ( Iterator i = declaredArtifacts.iterator(); i.hasNext(); )
+        {
+            Artifact artifact = (Artifact) i.next();
+            Integer position = (Integer) positions.get( artifact );
+            if ( position == null )
+            {
+                unusedDeclared.add( artifact );
+                continue;
+            }
+
+            int index = position.intValue();
+            declared.set( index );
+            if ( used.get( index ) )
+            {
+                usedDeclared.add( artifact );
+            }
+            else
+            {
+                unusedDeclared.add( artifact );
+            }
+        }
+
+        BitSet usedUndeclaredPositions = (BitSet) used.clone();
+        usedUndeclaredPositions.andNot( declared );
+        Set usedUndeclared = new HashSet();
+        for ( int i = usedUndeclaredPositions.nextSetBit( 0 ); i >= 0; i = usedUndeclaredPositions.nextSetBit( i + 1 ) )
+        {
+            usedUndeclared.add( artifacts.get( i ) );
+        }
+
+        return new ProjectDependencyAnalysis( usedDeclared, usedUndeclared, unusedDeclared );
+    }
+
+    /**
+     * @return the number of distinct classes referenced by the project.
+     */
+    public int getReferencedClassCount()
+    {
+        return classIds.size();
+    }
+
+    /**
+     * @return the number of classes in the dependencies, including the ones that are not referenced.
+     */
+    public long getDependencyClassCount()
+    {
+        return dependencyClasses;
+    }
+
+    /**
+     * @return a summary of the sizes of the tables, for the build log.
+     */
+    public String toString()
+    {
+        long bitsetBytes = ( claimed.size() + used.size() ) / 8;
+        return classIds.size() + " referenced classes interned, " + referencedDependencyClasses + " of the "
+            + dependencyClasses + " classes in " + artifacts.size() + " dependencies referenced, " + bitsetBytes
+            + " bytes of bitsets";
+    }
+}
@@ -0,0 +1,279 @@
+package org.apache.maven.plugin.dependency.analyzer;
+
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import org.apache.maven.plugin.dependency.utils.DigestIndex;
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * Persistent cache of the class names contained in jar files, keyed by the SHA-1 of the jar. As the key is the
+ * content, entries never go stale and can be shared by every project using the same local repository: a jar is only
+ * scanned the first time it is seen.
+ * <p>
+ * Each jar gets a file <code>&lt;sha1 prefix&gt;/&lt;sha1&gt;.idx</code> holding its sorted class names, each stored
+ * as the length of the prefix it shares with the previous name and the rest of the name. The digests themselves come
+ * from a {@link DigestIndex}, which mostly reads them from the repository's <code>.sha1</code> files.
+ * </p>
+ * <p>
+ * The cache is only an optimization: an entry that can't be read is replaced, and an entry that can't be written (for
+ * instance in a read-only repository) is skipped.
+ * </p>
+ *
+ * @version $Id$
+ * @since 2.2
+ */
+public class ClassIndexCache
+{
+    /**
+     * "MDCI", the first bytes of an index file.
+     */
+    static final int MAGIC = 0x4D444349;
+
+    private static final String[] EMPTY = new String[0];
+
+    private final File directory;
+
+    private final DigestIndex digests;
+
+    /**
+     * Constructor.
+     *
+     * @param theDirectory the directory the class indexes are kept in.
+     * @param theDigests the index giving the SHA-1 of the jars.
+     */
+    public ClassIndexCache( File theDirectory, DigestIndex theDigests )
+    {
+        this.directory = theDirectory;
+        this.digests = theDigests;
+    }
+
+    /**
+     * @return the directory the class indexes are kept in.
+     */
+    public File getDirectory()
+    {
+        return this.directory;
+    }
+
+    /**
+     * Gets the names of the classes in a jar, from the cache or by scanning the jar.
+     *
+     * @param jar the jar file.
+     * @return the fully qualified class names, sorted.
+     * @throws IOException if the jar can't be read.
+     */
+    public String[] getClassNames( File jar )
+        throws IOException
+    {
+        String digest = digests.getDigest( jar );
+        if ( digest == null )
+        {
+            throw new IOException( "File " + jar + " does not exist" );
+        }
+
+        File indexFile = getIndexFile( digest );
+        if ( indexFile.isFile() )
+        {
+            try
+            {
+                return readTable( indexFile );
+            }
+            catch ( IOException e )
+            {
+                // truncated or foreign file, scan the jar again and replace it
+            }
+        }
+
+        String[] names = scanJar( jar );
+        try
+        {
+            writeTable( indexFile, names );
+        }
+        catch ( IOException e )
+        {
+            // can't cache it here, the names are still good
+        }
+        return names;
+    }
+
+    /**
+     * Stores the digests worked out for the jars, so later builds don't need to find them again.
+     *
+     * @throws IOException if the digest index can't be written.
+     */
+    public void save()
+        throws IOException
+    {
+        digests.save();
+    }
+
+    File getIndexFile( String digest )
+    {
+        return new File( directory, digest.substring( 0, 2 ) + File.separator + digest + ".idx" );
+    }
+
+    /**
+     * Lists the classes in a jar the way the dependency analyzer's class analyzer does.
+     *
+     * @param jar the jar file.
+     * @return the fully qualified class names, sorted.
+     * @throws IOException if the jar can't be read.
+     */
+    static String[] scanJar( File jar )
+        throws IOException
+    {
+        List names = new ArrayList();
+        JarFile jarFile = new JarFile( jar );
+        try
+        {
+            for ( Enumeration entries = jarFile.entries(); entries.hasMoreElements(); )
+            {
+                JarEntry entry = (JarEntry) entries.nextElement();
+                String name = entry.getName();
+                if ( !entry.isDirectory() && name.endsWith( ".class" ) )
+                {
+                    names.add( name.substring( 0, name.length() - 6 ).replace( '/', '.' ) );
+                }
+            }
+        }
+        finally
+        {
+            jarFile.close();
+        }
+
+        String[] result = (String[]) names.toArray( EMPTY );
+        Arrays.sort( result );
+        return result;
+    }
+
+    /**
+     * Writes a sorted name table. The table goes to a temporary file that is then renamed, so concurrent builds never
+     * see a partial entry.
+     *
+     * @param file the file to write.
+     * @param names the sorted names.
+     * @throws IOException if the file can't be written.
+     */
+    static void writeTable( File file, String[] names )
+        throws IOException
+    {
+        File parent = file.getParentFile();
+        parent.mkdirs();
+        File tmp = File.createTempFile( file.getName(), ".tmp", parent );
+
+        DataOutputStream out = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( tmp ) ) );
+        try
+        {
+            out.writeInt( MAGIC );
+            out.writeInt( names.length );
+            String previous = "";
+            for ( int i = 0; i < names.length; i++ )
+            {
+                int shared = sharedPrefix( previous, names[i] );
+                out.writeShort( shared );
+                out.writeUTF( names[i].substring( shared ) );
+                previous = names[i];
+            }
+        }
+        finally
+        {
+            IOUtil.close( out );
+        }
+
+        if ( !tmp.renameTo( file ) && !file.isFile() )
+        {
+            tmp.delete();
+            throw new IOException( "Unable to create class index " + file );
+        }
+        // another build may have stored the same entry first
+        tmp.delete();
+    }
+
+    /**
+     * Reads a table written by {@link #writeTable(File, String[])}.
+     *
+     * @param file the file to read.
+     * @return the names.
+     * @throws IOException if the file can't be read or is not a class index.
+     */
+    static String[] readTable( File file )
+        throws IOException
+    {
+        DataInputStream in = new DataInputStream( new BufferedInputStream( new FileInputStream( file ) ) );
+        try
+        {
+            if ( in.readInt() != MAGIC )
+            {
+                throw new IOException( file + " is not a class index" );
+            }
+
+            int count = in.readInt();
+            if ( count < 0 )
+            {
+                throw new IOException( file + " is corrupt" );
+            }
+
+            String[] names = new String[count];
+            String previous = "";
+            for ( int i = 0; i < names.length; i++ )
+            {
+                int shared = in.readUnsignedShort();
+                if ( shared > previous.length() )
+                {
+                    throw new IOException( file + " is corrupt" );
+                }
+                names[i] = previous.substring( 0, shared ) + in.readUTF();
+                previous = names[i];
+            }
+            return names;
+        }
+        finally
+        {
+            IOUtil.close( in );
+        }
+    }
+
+    private static int sharedPrefix( String a, String b )
+    {
+        int max = Math.min( Math.min( a.length(), b.length() ), 0xffff );
+        int i = 0;
+        while ( i < max && a.charAt( i ) == b.charAt( i ) )
+        {
+            i++;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,286 @@
+package org.apache.maven.plugin.dependency.analyzer;
+
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.maven.plugin.dependency.utils.DigestIndex;
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * Persistent record of the classes referenced by each class file of a project, keyed by the SHA-1 of the class file,
+ * so an incremental analysis only parses the class files that changed since the last build.
+ * <p>
+ * The digests come from a {@link DigestIndex}, which doesn't read files whose length and last modified time are
+ * unchanged. The references are stored with a table of the distinct class names, which are shared by most class files.
+ * Only the entries used by the last analysis are written back, so deleted classes don't accumulate.
+ * </p>
+ *
+ * @version $Id$
+ * @since 2.2
+ */
+public class ClassReferenceCache
+{
+    /**
+     * "MDCR", the first bytes of the file.
+     */
+    static final int MAGIC = 0x4D444352;
+
+    private final File file;
+
+    private final DigestIndex digests;
+
+    /**
+     * Referenced class names, by class file digest.
+     */
+    private final Map entries = new HashMap();
+
+    /**
+     * The digests used since the cache was loaded.
+     */
+    private final Set used = new HashSet();
+
+    private boolean dirty;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param theFile the file the cache is stored in.
+     * @param theDigests the index giving the SHA-1 of the class files.
+     */
+    public ClassReferenceCache( File theFile, DigestIndex theDigests )
+    {
+        this.file = theFile;
+        this.digests = theDigests;
+    }
+
+    /**
+     * @return the file the cache is stored in.
+     */
+    public File getFile()
+    {
+        return this.file;
+    }
+
+    /**
+     * Loads the entries stored by a previous build, if any.
+     *
+     * @throws IOException if the existing cache or digest index can't be read.
+     */
+    public synchronized void load()
+        throws IOException
+    {
+        digests.load();
+
+        if ( !file.isFile() )
+        {
+            return;
+        }
+
+        DataInputStream in = new DataInputStream( new BufferedInputStream( new FileInputStream( file ) ) );
+        try
+        {
+            if ( in.readInt() != MAGIC )
+            {
+                throw new IOException( file + " is not a class reference cache" );
+            }
+
+            String[] names = new String[checkCount( in.readInt() )];
+            for ( int i = 0; i < names.length; i++ )
+            {
+                names[i] = in.readUTF();
+            }
+
+            int count = checkCount( in.readInt() );
+            for ( int i = 0; i < count; i++ )
+            {
+                String digest = in.readUTF();
+                String[] references = new String[checkCount( in.readInt() )];
+                for ( int j = 0; j < references.length; j++ )
+                {
+                    int index = in.readInt();
+                    if ( index < 0 || index >= names.length )
+                    {
+                        throw new IOException( file + " is corrupt" );
+                    }
+                    references[j] = names[index];
+                }
+                entries.put( digest, references );
+            }
+        }
+        finally
+        {
+            IOUtil.close( in );
+        }
+    }
+
+    private int checkCount( int count )
+        throws IOException
+    {
+        if ( count < 0 )
+        {
+            throw new IOException( file + " is corrupt" );
+        }
+        return count;
+    }
+
+    /**
+     * Gets the digest of a class file.
+     *
+     * @param classFile the class file.
+     * @return the lower case hex SHA-1.
+     * @throws IOException if the file can't be read.
+     */
+    public String getDigest( File classFile )
+        throws IOException
+    {
+        String digest = digests.getDigest( classFile );
+        if ( digest == null )
+        {
+            throw new IOException( "File " + classFile + " does not exist" );
+        }
+        return digest;
+    }
+
+    /**
+     * Gets the classes referenced by a class file, if they are known.
+     *
+     * @param digest the digest of the class file.
+     * @return the referenced class names, or null if the class file has not been analyzed yet.
+     */
+    public synchronized String[] getReferences( String digest )
+    {
+        String[] references = (String[]) entries.get( digest );
+        if ( references != null )
+        {
+            used.add( digest );
+        }
+        return references;
+    }
+
+    /**
+     * Records the classes referenced by a class file.
+     *
+     * @param digest the digest of the class file.
+     * @param references the referenced class names.
+     */
+    public synchronized void putReferences( String digest, String[] references )
+    {
+        entries.put( digest, references );
+        used.add( digest );
+        dirty = true;
+    }
+
+    /**
+     * Writes the entries used since the cache was loaded, if anything changed, and the digest index. The cache is
+     * written to a temporary file first and then renamed, so a failed build never leaves a truncated cache behind.
+     *
+     * @throws IOException if the cache can't be written.
+     */
+    public synchronized void save()
+        throws IOException
+    {
+        digests.save();
+
+        if ( !dirty && used.size() == entries.size() )
+        {
+            return;
+        }
+
+        entries.keySet().retainAll( used );
+
+        Map nameIndexes = new HashMap();
+        String[] names = new String[16];
+        for ( Iterator i = entries.values().iterator(); i.hasNext(); )
+        {
+            String[] references = (String[]) i.next();
+            for ( int j = 0; j < references.length; j++ )
+            {
+                if ( !nameIndexes.containsKey( references[j] ) )
+                {
+                    if ( nameIndexes.size() == names.length )
+                    {
+                        String[] newNames = new String[names.length * 2];
+                        System.arraycopy( names, 0, newNames, 0, names.length );
+                        names = newNames;
+                    }
+                    names[nameIndexes.size()] = references[j];
+                    nameIndexes.put( references[j], new Integer( nameIndexes.size() ) );
+                }
+            }
+        }
+
+        File parent = file.getAbsoluteFile().getParentFile();
+        parent.mkdirs();
+        File tmp = new File( parent, file.getName() + ".tmp" );
+
+        DataOutputStream out = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( tmp ) ) );
+        try
+        {
+            out.writeInt( MAGIC );
+            out.writeInt( nameIndexes.size() );
+            for ( int i = 0; i < nameIndexes.size(); i++ )
+            {
+                out.writeUTF( names[i] );
+            }
+
+            out.writeInt( entries.size() );
+            for ( Iterator i = entries.entrySet().iterator(); i.hasNext(); )
+            {
+                Map.Entry entry = (Map.Entry) i.next();
+                String[] references = (String[]) entry.getValue();
+                out.writeUTF( (String) entry.getKey() );
+                out.writeInt( references.length );
+                for ( int j = 0; j < references.length; j++ )
+                {
+                    out.writeInt( ( (Integer) nameIndexes.get( references[j] ) ).intValue() );
+                }
+            }
+        }
+        finally
+        {
+            IOUtil.close( out );
+        }
+
+        if ( !tmp.renameTo( file ) )
+        {
+            // rename can't replace an existing file on all platforms
+            file.delete();
+            if ( !tmp.renameTo( file ) )
+            {
+                throw new IOException( "Unable to replace class reference cache " + file );
+            }
+        }
+        dirty = false;
+    }
+}
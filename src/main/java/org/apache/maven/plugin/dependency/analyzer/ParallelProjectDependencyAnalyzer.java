@@ -0,0 +1,336 @@
+package org.apache.maven.plugin.dependency.analyzer;
+
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.dependency.utils.ParallelExecutor;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.dependency.analyzer.ClassAnalyzer;
+import org.apache.maven.shared.dependency.analyzer.DependencyAnalyzer;
+import org.apache.maven.shared.dependency.analyzer.ProjectDependencyAnalysis;
+import org.apache.maven.shared.dependency.analyzer.ProjectDependencyAnalyzer;
+import org.apache.maven.shared.dependency.analyzer.ProjectDependencyAnalyzerException;
+import org.apache.maven.shared.dependency.analyzer.asm.DependencyClassFileVisitor;
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * Project dependency analyzer that reads the dependencies and the project's classes on several threads. The result is
+ * the same as the default analyzer's: the classes referenced by the project's main and test classes are mapped to the
+ * artifacts containing them, and those artifacts are compared with the declared dependencies.
+ * <p>
+ * Every dependency is listed by its own task, from a {@link ClassIndexCache} when there is one. The project's class
+ * directories are split into package directories that hold class files, each analyzed with its subpackages by another
+ * task. The results are merged in classpath order once all tasks are done, by an {@link ArtifactUsageIndex}, so the
+ * first artifact on the classpath wins when several contain the same class, whatever order the tasks finished in.
+ * </p>
+ * <p>
+ * With a {@link ClassReferenceCache}, the analysis is incremental: the classes referenced by each class file are
+ * recorded, and only the class files that are new or changed are parsed again. Those are read straight from their
+ * stream with the analyzer library's ASM visitor, as the dependency analyzer only accepts whole directories.
+ * </p>
+ *
+ * @version $Id$
+ * @since 2.2
+ */
+public class ParallelProjectDependencyAnalyzer
+    implements ProjectDependencyAnalyzer
+{
+    private final ClassAnalyzer classAnalyzer;
+
+    private final DependencyAnalyzer dependencyAnalyzer;
+
+    private final ClassIndexCache cache;
+
+    private final int threads;
+
+    private final Log log;
+
+    private ClassReferenceCache references;
+
+    /**
+     * Constructor.
+     *
+     * @param theClassAnalyzer lists the classes of dependencies that are not jar files, such as reactor modules
+     *            resolved to their output directory.
+     * @param theDependencyAnalyzer finds the classes referenced by the project's classes.
+     * @param theCache the class names of the dependency jars, or null to scan the jars.
+     * @param theThreads the maximum number of threads. A value less than one uses one thread per available processor.
+     * @param theLog the log.
+     */
+    public ParallelProjectDependencyAnalyzer( ClassAnalyzer theClassAnalyzer,
+                                              DependencyAnalyzer theDependencyAnalyzer, ClassIndexCache theCache,
+                                              int theThreads, Log theLog )
+    {
+        this.classAnalyzer = theClassAnalyzer;
+        this.dependencyAnalyzer = theDependencyAnalyzer;
+        this.cache = theCache;
+        this.threads = theThreads;
+        this.log = theLog;
+    }
+
+    /**
+     * Makes the analysis incremental.
+     *
+     * @param theReferences the classes referenced by the class files analyzed by earlier builds, or null to parse all
+     *            the class files.
+     */
+    public void setReferenceCache( ClassReferenceCache theReferences )
+    {
+        this.references = theReferences;
+    }
+
+    /*
+     * @see org.apache.maven.shared.dependency.analyzer.ProjectDependencyAnalyzer#analyze(org.apache.maven.project.MavenProject)
+     */
+    public ProjectDependencyAnalysis analyze( MavenProject project )
+        throws ProjectDependencyAnalyzerException
+    {
+        final List artifacts = new ArrayList( project.getArtifacts() );
+        final String[][] artifactClasses = new String[artifacts.size()][];
+
+        final List classDirectories = new ArrayList();
+        collectClassDirectories( new File( project.getBuild().getOutputDirectory() ), classDirectories );
+        collectClassDirectories( new File( project.getBuild().getTestOutputDirectory() ), classDirectories );
+        final Set[] referencedClasses = new Set[classDirectories.size()];
+
+        ParallelExecutor executor = new ParallelExecutor( threads, log );
+        for ( int i = 0; i < artifacts.size(); i++ )
+        {
+            final int index = i;
+            executor.add( new ParallelExecutor.Task()
+            {
+                public void execute( Log taskLog )
+                    throws MojoExecutionException
+                {
+                    Artifact artifact = (Artifact) artifacts.get( index );
+                    try
+                    {
+                        artifactClasses[index] = listClasses( artifact.getFile() );
+                    }
+                    catch ( IOException e )
+                    {
+                        throw new MojoExecutionException( "Unable to read " + artifact.getFile() + ": "
+                            + e.getMessage(), e );
+                    }
+                }
+            } );
+        }
+        for ( int i = 0; i < classDirectories.size(); i++ )
+        {
+            final int index = i;
+            executor.add( new ParallelExecutor.Task()
+            {
+                public void execute( Log taskLog )
+                    throws MojoExecutionException
+                {
+                    File directory = (File) classDirectories.get( index );
+                    try
+                    {
+                        referencedClasses[index] =
+                            references != null ? analyzeIncrementally( directory )
+                                            : dependencyAnalyzer.analyze( directory.toURI().toURL() );
+                    }
+                    catch ( IOException e )
+                    {
+                        throw new MojoExecutionException( "Unable to analyze " + directory + ": " + e.getMessage(),
+                                                          e );
+                    }
+                }
+            } );
+        }
+
+        try
+        {
+            executor.execute();
+
+            if ( cache != null )
+            {
+                cache.save();
+            }
+            if ( references != null )
+            {
+                references.save();
+            }
+        }
+        catch ( MojoExecutionException exception )
+        {
+            throw new ProjectDependencyAnalyzerException( exception.getMessage(), exception );
+        }
+        catch ( IOException exception )
+        {
+            throw new ProjectDependencyAnalyzerException( "Cannot analyze dependencies", exception );
+        }
+
+        ArtifactUsageIndex usage = new ArtifactUsageIndex();
+        for ( int i = 0; i < referencedClasses.length; i++ )
+        {
+            usage.addReferencedClasses( referencedClasses[i] );
+            // the interned names are enough from here on
+            referencedClasses[i] = null;
+        }
+        for ( int i = 0; i < artifactClasses.length; i++ )
+        {
+            usage.addArtifact( (Artifact) artifacts.get( i ), artifactClasses[i] );
+            artifactClasses[i] = null;
+        }
+
+        if ( log.isDebugEnabled() )
+        {
+            log.debug( "Dependency analysis: " + usage );
+        }
+
+        return usage.analyze( project.getDependencyArtifacts() );
+    }
+
+    /**
+     * Lists the classes of a dependency.
+     *
+     * @param file the dependency file, may be null.
+     * @return the class names, or null if the dependency has no classes to list.
+     * @throws IOException if the dependency can't be read.
+     */
+    private String[] listClasses( File file )
+        throws IOException
+    {
+        if ( file == null )
+        {
+            return null;
+        }
+        else if ( file.isFile() && file.getName().endsWith( ".jar" ) )
+        {
+            return cache != null ? cache.getClassNames( file ) : ClassIndexCache.scanJar( file );
+        }
+        else if ( file.isDirectory() )
+        {
+            Set classes = classAnalyzer.analyze( file.toURI().toURL() );
+            return (String[]) classes.toArray( new String[classes.size()] );
+        }
+        return null;
+    }
+
+    /**
+     * Gets the classes referenced by the class files of a directory, parsing only those that are not in the reference
+     * cache.
+     *
+     * @param directory the directory, with its subdirectories.
+     * @return the referenced class names.
+     * @throws IOException if a class file can't be read.
+     */
+    private Set analyzeIncrementally( File directory )
+        throws IOException
+    {
+        Set referencedClasses = new HashSet();
+        List classFiles = FileUtils.getFileNames( directory, "**/*.class", null, false );
+        for ( Iterator i = classFiles.iterator(); i.hasNext(); )
+        {
+            String path = (String) i.next();
+            File classFile = new File( directory, path );
+            String digest = references.getDigest( classFile );
+            String[] classReferences = references.getReferences( digest );
+            if ( classReferences == null )
+            {
+                String className = path.substring( 0, path.length() - ".class".length() );
+                className = className.replace( File.separatorChar, '.' );
+                Set found;
+                InputStream in = new FileInputStream( classFile );
+                try
+                {
+                    found = parseClass( className, in );
+                }
+                finally
+                {
+                    IOUtil.close( in );
+                }
+
+                classReferences = (String[]) found.toArray( new String[found.size()] );
+                references.putReferences( digest, classReferences );
+            }
+            referencedClasses.addAll( Arrays.asList( classReferences ) );
+        }
+        return referencedClasses;
+    }
+
+    /**
+     * Finds the classes referenced by a single class file.
+     *
+     * @param className the name of the class, relative to the directory it was found in.
+     * @param in the class file content.
+     * @return the referenced class names.
+     * @throws IOException if the class file can't be read.
+     */
+    protected Set parseClass( String className, InputStream in )
+        throws IOException
+    {
+        DependencyClassFileVisitor visitor = new DependencyClassFileVisitor();
+        visitor.visitClass( className, in );
+        return visitor.getDependencies();
+    }
+
+    /**
+     * Splits a class directory into units of work: the highest directories that directly hold class files. Each one is
+     * analyzed with all its subdirectories, which is enough to keep the threads busy as packages with sources are
+     * rarely nested deeply into each other.
+     *
+     * @param directory the directory to split.
+     * @param units the list to add the units to.
+     */
+    static void collectClassDirectories( File directory, List units )
+    {
+        File[] files = directory.listFiles();
+        if ( files == null )
+        {
+            return;
+        }
+
+        List subdirectories = new ArrayList();
+        for ( int i = 0; i < files.length; i++ )
+        {
+            if ( files[i].isDirectory() )
+            {
+                subdirectories.add( files[i] );
+            }
+            else if ( files[i].getName().endsWith( ".class" ) )
+            {
+                units.add( directory );
+                return;
+            }
+        }
+
+        for ( Iterator i = subdirectories.iterator(); i.hasNext(); )
+        {
+            collectClassDirectories( (File) i.next(), units );
+        }
+    }
+}
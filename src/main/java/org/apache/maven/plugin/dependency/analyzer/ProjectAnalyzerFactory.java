@@ -0,0 +1,207 @@
+package org.apache.maven.plugin.dependency.analyzer;
+
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.plugin.dependency.utils.DigestIndex;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.dependency.analyzer.ClassAnalyzer;
+import org.apache.maven.shared.dependency.analyzer.DependencyAnalyzer;
+import org.apache.maven.shared.dependency.analyzer.ProjectDependencyAnalysis;
+import org.apache.maven.shared.dependency.analyzer.ProjectDependencyAnalyzerException;
+
+/**
+ * Sets up the {@link ParallelProjectDependencyAnalyzer} the way the analyze, analyze-report and clean-dep goals
+ * configure it, and shares its analyses between the goals of a session through the {@link AnalysisCache}.
+ * <p>
+ * The class names of the dependency jars are cached in the class index directory, which defaults to
+ * <code>.cache/maven-dependency-plugin/class-index</code> in the local repository. The digests of the jars, and in
+ * incremental mode the references of the project's classes, are kept in the markers directory of the project.
+ * </p>
+ *
+ * @version $Id$
+ * @since 2.2
+ */
+public class ProjectAnalyzerFactory
+{
+    private final ClassAnalyzer classAnalyzer;
+
+    private final DependencyAnalyzer dependencyAnalyzer;
+
+    private final Log log;
+
+    private File classIndexDirectory;
+
+    private ArtifactRepository localRepository;
+
+    private int threads;
+
+    private boolean incremental;
+
+    private Object session;
+
+    /**
+     * Constructor.
+     *
+     * @param theClassAnalyzer lists the classes of dependencies that are not jar files.
+     * @param theDependencyAnalyzer finds the classes referenced by the project's classes.
+     * @param theLog the log.
+     */
+    public ProjectAnalyzerFactory( ClassAnalyzer theClassAnalyzer, DependencyAnalyzer theDependencyAnalyzer,
+                                   Log theLog )
+    {
+        this.classAnalyzer = theClassAnalyzer;
+        this.dependencyAnalyzer = theDependencyAnalyzer;
+        this.log = theLog;
+    }
+
+    /**
+     * @param theClassIndexDirectory the directory the class names of the dependency jars are cached in, or null for
+     *            the default one of the local repository.
+     */
+    public void setClassIndexDirectory( File theClassIndexDirectory )
+    {
+        this.classIndexDirectory = theClassIndexDirectory;
+    }
+
+    /**
+     * @param theLocalRepository the local repository, home of the default class index directory. Without it and
+     *            without a class index directory, the jars are scanned on every build.
+     */
+    public void setLocalRepository( ArtifactRepository theLocalRepository )
+    {
+        this.localRepository = theLocalRepository;
+    }
+
+    /**
+     * @param theThreads the maximum number of threads. A value less than one uses one thread per available processor.
+     */
+    public void setThreads( int theThreads )
+    {
+        this.threads = theThreads;
+    }
+
+    /**
+     * @param theIncremental true to only parse the class files that changed since the last analysis.
+     */
+    public void setIncremental( boolean theIncremental )
+    {
+        this.incremental = theIncremental;
+    }
+
+    /**
+     * @param theSession the build session to share the analyses in, or null to always analyze the project.
+     */
+    public void setSession( Object theSession )
+    {
+        this.session = theSession;
+    }
+
+    /**
+     * Analyzes a project, or reuses the analysis made by an earlier goal of the session.
+     *
+     * @param project the project to analyze.
+     * @return the analysis. Its sets must not be modified.
+     * @throws ProjectDependencyAnalyzerException if the project can't be analyzed.
+     */
+    public ProjectDependencyAnalysis analyze( MavenProject project )
+        throws ProjectDependencyAnalyzerException
+    {
+        if ( session == null )
+        {
+            return createAnalyzer( project ).analyze( project );
+        }
+
+        AnalysisCache cache = AnalysisCache.getInstance( session );
+        ProjectDependencyAnalysis analysis = cache.get( project );
+        if ( analysis != null )
+        {
+            log.debug( "Reusing the dependency analysis of an earlier goal" );
+            return analysis;
+        }
+        return cache.put( project, createAnalyzer( project ).analyze( project ) );
+    }
+
+    /**
+     * Creates an analyzer for a project, loading the caches it uses. A cache that can't be read is started again.
+     *
+     * @param project the project to analyze.
+     * @return the analyzer.
+     */
+    public ParallelProjectDependencyAnalyzer createAnalyzer( MavenProject project )
+    {
+        File markersDirectory = new File( project.getBuild().getDirectory(), "dependency-maven-plugin-markers" );
+
+        ClassIndexCache cache = null;
+        File indexDirectory = getClassIndexDirectory();
+        if ( indexDirectory != null )
+        {
+            DigestIndex digests = new DigestIndex( new File( markersDirectory, "class-index-digests.properties" ) );
+            try
+            {
+                digests.load();
+            }
+            catch ( IOException e )
+            {
+                log.warn( "Unable to read digest index " + digests.getIndexFile() + ", starting from scratch: " + e );
+            }
+            cache = new ClassIndexCache( indexDirectory, digests );
+        }
+
+        ParallelProjectDependencyAnalyzer analyzer =
+            new ParallelProjectDependencyAnalyzer( classAnalyzer, dependencyAnalyzer, cache, threads, log );
+
+        if ( incremental )
+        {
+            ClassReferenceCache references =
+                new ClassReferenceCache( new File( markersDirectory, "class-references.dat" ),
+                                         new DigestIndex( new File( markersDirectory, "class-digests.properties" ) ) );
+            try
+            {
+                references.load();
+            }
+            catch ( IOException e )
+            {
+                log.warn( "Unable to read class references " + references.getFile() + ", starting from scratch: " + e );
+            }
+            analyzer.setReferenceCache( references );
+        }
+
+        return analyzer;
+    }
+
+    /**
+     * @return the class index directory to use, or null if there is none.
+     */
+    File getClassIndexDirectory()
+    {
+        if ( classIndexDirectory != null || localRepository == null )
+        {
+            return classIndexDirectory;
+        }
+        return new File( localRepository.getBasedir(), ".cache" + File.separator + "maven-dependency-plugin"
+            + File.separator + "class-index" );
+    }
+}
@@ -80,6 +80,8 @@ public class CopyMojo
                 this.getLog().info( artifactItem + " already exists in " + artifactItem.getOutputDirectory() );
             }
         }
+
+        saveDigestIndex();
     }
 
     /**
@@ -104,9 +106,10 @@ public class CopyMojo
 
     protected ArtifactItemFilter getMarkedArtifactFilter( ArtifactItem item )
     {
-        ArtifactItemFilter destinationNameOverrideFilter = new DestFileFilter( this.isOverWriteReleases(), this
+        DestFileFilter destinationNameOverrideFilter = new DestFileFilter( this.isOverWriteReleases(), this
             .isOverWriteSnapshots(), this.isOverWriteIfNewer(), false, false, false, this.stripVersion, item
             .getOutputDirectory() );
+        destinationNameOverrideFilter.setDigestIndex( getDigestIndex() );
         return destinationNameOverrideFilter;
     }
 
@@ -28,7 +28,9 @@ import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.dependency.utils.DependencyUtil;
 import org.apache.maven.plugin.dependency.utils.filters.ArtifactItemFilter;
 import org.apache.maven.plugin.dependency.utils.filters.MarkerFileFilter;
+import org.apache.maven.plugin.dependency.utils.markers.ManifestMarkerHandler;
 import org.apache.maven.plugin.dependency.utils.markers.MarkerHandler;
+import org.apache.maven.plugin.dependency.utils.markers.MarkerManifest;
 import org.apache.maven.plugin.dependency.utils.markers.UnpackFileMarkerHandler;
 import org.apache.maven.plugin.logging.Log;
 import org.codehaus.plexus.archiver.manager.ArchiverManager;
@@ -99,6 +101,8 @@ public final class UnpackMojo
                 this.getLog().info( artifactItem.getArtifact().getFile().getName() + " already unpacked." );
             }
         }
+
+        saveMarkerManifest();
     }
 
     /**
@@ -117,21 +121,39 @@ public final class UnpackMojo
     private void unpackArtifact( ArtifactItem artifactItem )
         throws MojoExecutionException
     {
-        MarkerHandler handler = new UnpackFileMarkerHandler( artifactItem, this.markersDirectory );
+        MarkerHandler handler = createMarkerHandler( artifactItem );
         
-        unpack( artifactItem.getArtifact().getFile(), artifactItem.getOutputDirectory(), artifactItem.getIncludes(), artifactItem.getExcludes() );
+        File stateFile = getUnpackStateFile( this.markersDirectory, artifactItem.getArtifact(),
+                                             artifactItem.getOutputDirectory(), artifactItem.getIncludes(),
+                                             artifactItem.getExcludes() );
+        unpack( artifactItem.getArtifact().getFile(), artifactItem.getOutputDirectory(), artifactItem.getIncludes(),
+                artifactItem.getExcludes(), stateFile, getLog() );
         handler.setMarker();
 
     }
 
     ArtifactItemFilter getMarkedArtifactFilter( ArtifactItem item )
     {
-        MarkerHandler handler = new UnpackFileMarkerHandler( item, this.markersDirectory );
+        MarkerHandler handler = createMarkerHandler( item );
 
         return new MarkerFileFilter( this.isOverWriteReleases(), this.isOverWriteSnapshots(),
                                      this.isOverWriteIfNewer(), handler );
     }
     
+    /**
+     * @param item the item to get a handler for.
+     * @return a handler for the marker manifest if it is enabled, for marker files otherwise.
+     */
+    private MarkerHandler createMarkerHandler( ArtifactItem item )
+    {
+        MarkerManifest manifest = getMarkerManifest( this.markersDirectory );
+        if ( manifest != null )
+        {
+            return new ManifestMarkerHandler( item, manifest );
+        }
+        return new UnpackFileMarkerHandler( item, this.markersDirectory );
+    }
+
     protected ArrayList getProcessedArtifactItems(boolean removeVersion)
     	throws MojoExecutionException 
     {
@@ -35,6 +35,22 @@ public abstract class AbstractSerializingVisitor
      */
     protected final PrintWriter writer;
 
+    /**
+     * The ids of the nodes on the current path. Ids are numbered in visiting order, so they are unique within a
+     * serialization and the same tree always gets the same ids.
+     */
+    private int[] path = new int[16];
+
+    /**
+     * The number of nodes on the current path.
+     */
+    private int depth;
+
+    /**
+     * The id of the next visited node.
+     */
+    private int nextId;
+
     /**
      * Constructor.
      * <p>
@@ -54,4 +70,53 @@ public abstract class AbstractSerializingVisitor
             this.writer = new PrintWriter( writer, true );
         }
     }
+
+    /**
+     * Gives the next id to a node that is being visited and makes it the current node.
+     *
+     * @return the id of the node.
+     */
+    protected int enterNode()
+    {
+        if ( depth == path.length )
+        {
+            int[] newPath = new int[path.length * 2];
+            System.arraycopy( path, 0, newPath, 0, path.length );
+            path = newPath;
+        }
+        path[depth++] = nextId;
+        return nextId++;
+    }
+
+    /**
+     * Makes the parent of the current node the current node again, at the end of its visit.
+     */
+    protected void leaveNode()
+    {
+        depth--;
+    }
+
+    /**
+     * @return the id of the current node.
+     */
+    protected int getNodeId()
+    {
+        return path[depth - 1];
+    }
+
+    /**
+     * @return the id of the parent of the current node, or <code>-1</code> for the first visited node.
+     */
+    protected int getParentId()
+    {
+        return depth > 1 ? path[depth - 2] : -1;
+    }
+
+    /**
+     * @return true if the current node is the first visited node, the root of the serialized tree.
+     */
+    protected boolean isRootNode()
+    {
+        return depth == 1;
+    }
 }
@@ -0,0 +1,249 @@
+package org.apache.maven.plugin.dependency.treeSerializers;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.shared.dependency.tree.DependencyNode;
+import org.apache.maven.shared.dependency.tree.traversal.DependencyNodeVisitor;
+
+/**
+ * A dependency node visitor that exports the visited tree in a compact binary, column oriented format, read back by
+ * {@link BinaryDependencyTree}.
+ * <p>
+ * All numbers are big endian. The layout is:
+ * </p>
+ * <ol>
+ * <li>the magic number <code>MDTB</code> and a format version (int, short);</li>
+ * <li>the string table: a count (int) followed by the strings (as <code>DataOutput.writeUTF</code>). Each groupId,
+ * artifactId, version, type and classifier is stored once;</li>
+ * <li>the node count (int);</li>
+ * <li>one int column per node for the parent index (<code>-1</code> for the root), then for the groupId, artifactId,
+ * version, type and classifier string indexes (<code>-1</code> when there is no classifier);</li>
+ * <li>one byte column for the scope and one for the node state.</li>
+ * </ol>
+ * Nodes are stored in visiting order, so a parent always comes before its children. The file is written when the root
+ * node has been visited completely.
+ *
+ * @version $Id$
+ * @since 2.2
+ */
+public class BinaryDependencyNodeVisitor
+    implements DependencyNodeVisitor
+{
+    /**
+     * The magic number at the start of the file.
+     */
+    public static final int MAGIC = 0x4D445442;
+
+    /**
+     * The format version written.
+     */
+    public static final short VERSION = 1;
+
+    /**
+     * The scopes, indexed by their code. Code 0 is for nodes without scope.
+     */
+    static final String[] SCOPES =
+        { null, Artifact.SCOPE_COMPILE, Artifact.SCOPE_PROVIDED, Artifact.SCOPE_RUNTIME, Artifact.SCOPE_TEST,
+            Artifact.SCOPE_SYSTEM };
+
+    /**
+     * Number of int columns per node.
+     */
+    static final int INT_COLUMNS = 6;
+
+    private final OutputStream out;
+
+    private final Map stringIndexes = new HashMap();
+
+    private final List strings = new ArrayList();
+
+    /**
+     * The int columns, node after node.
+     */
+    private int[] columns = new int[INT_COLUMNS * 64];
+
+    private byte[] scopes = new byte[64];
+
+    private byte[] states = new byte[64];
+
+    private int nodeCount;
+
+    /**
+     * The indexes of the nodes on the current path.
+     */
+    private int[] path = new int[16];
+
+    private int depth;
+
+    private IOException failure;
+
+    /**
+     * Constructor.
+     *
+     * @param theOut the stream to write to. It is flushed but not closed.
+     */
+    public BinaryDependencyNodeVisitor( OutputStream theOut )
+    {
+        this.out = theOut;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public boolean visit( DependencyNode node )
+    {
+        if ( nodeCount == scopes.length )
+        {
+            grow();
+        }
+        if ( depth == path.length )
+        {
+            int[] newPath = new int[path.length * 2];
+            System.arraycopy( path, 0, newPath, 0, path.length );
+            path = newPath;
+        }
+
+        Artifact artifact = node.getArtifact();
+        int offset = nodeCount * INT_COLUMNS;
+        columns[offset] = depth == 0 ? -1 : path[depth - 1];
+        columns[offset + 1] = intern( artifact.getGroupId() );
+        columns[offset + 2] = intern( artifact.getArtifactId() );
+        columns[offset + 3] = intern( artifact.getVersion() );
+        columns[offset + 4] = intern( artifact.getType() );
+        columns[offset + 5] = intern( artifact.getClassifier() );
+        scopes[nodeCount] = getScopeCode( artifact.getScope() );
+        states[nodeCount] = (byte) node.getState();
+
+        path[depth++] = nodeCount++;
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public boolean endVisit( DependencyNode node )
+    {
+        depth--;
+        if ( depth == 0 )
+        {
+            try
+            {
+                write();
+            }
+            catch ( IOException e )
+            {
+                failure = e;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the error raised while writing the export, or null if it was written.
+     */
+    public IOException getFailure()
+    {
+        return failure;
+    }
+
+    private void grow()
+    {
+        int capacity = scopes.length * 2;
+
+        int[] newColumns = new int[capacity * INT_COLUMNS];
+        System.arraycopy( columns, 0, newColumns, 0, columns.length );
+        columns = newColumns;
+
+        byte[] newScopes = new byte[capacity];
+        System.arraycopy( scopes, 0, newScopes, 0, scopes.length );
+        scopes = newScopes;
+
+        byte[] newStates = new byte[capacity];
+        System.arraycopy( states, 0, newStates, 0, states.length );
+        states = newStates;
+    }
+
+    private int intern( String value )
+    {
+        if ( value == null )
+        {
+            return -1;
+        }
+
+        Integer index = (Integer) stringIndexes.get( value );
+        if ( index == null )
+        {
+            index = new Integer( strings.size() );
+            stringIndexes.put( value, index );
+            strings.add( value );
+        }
+        return index.intValue();
+    }
+
+    private static byte getScopeCode( String scope )
+    {
+        for ( byte i = 1; i < SCOPES.length; i++ )
+        {
+            if ( SCOPES[i].equals( scope ) )
+            {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private void write()
+        throws IOException
+    {
+        DataOutputStream data = new DataOutputStream( new BufferedOutputStream( out, 65536 ) );
+
+        data.writeInt( MAGIC );
+        data.writeShort( VERSION );
+
+        data.writeInt( strings.size() );
+        for ( int i = 0; i < strings.size(); i++ )
+        {
+            data.writeUTF( (String) strings.get( i ) );
+        }
+
+        data.writeInt( nodeCount );
+        for ( int column = 0; column < INT_COLUMNS; column++ )
+        {
+            for ( int node = 0; node < nodeCount; node++ )
+            {
+                data.writeInt( columns[node * INT_COLUMNS + column] );
+            }
+        }
+        data.write( scopes, 0, nodeCount );
+        data.write( states, 0, nodeCount );
+
+        data.flush();
+    }
+}
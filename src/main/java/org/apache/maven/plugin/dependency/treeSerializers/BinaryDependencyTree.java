@@ -0,0 +1,274 @@
+package org.apache.maven.plugin.dependency.treeSerializers;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * Reads a dependency tree exported by {@link BinaryDependencyNodeVisitor}. The file is memory mapped; the string table
+ * is decoded when the tree is opened, the node columns are read from the mapping on demand.
+ * <p>
+ * Nodes are identified by their index, from <code>0</code> (the root) to <code>getNodeCount() - 1</code>, in the
+ * order they were visited, so a parent index is always lower than the indexes of its children.
+ * </p>
+ *
+ * @version $Id$
+ * @since 2.2
+ */
+public class BinaryDependencyTree
+{
+    private final ByteBuffer buffer;
+
+    private final String[] strings;
+
+    private final int nodeCount;
+
+    private final int columnsOffset;
+
+    private final int scopesOffset;
+
+    private final int statesOffset;
+
+    /**
+     * Opens an exported tree.
+     *
+     * @param file the file written by {@link BinaryDependencyNodeVisitor}.
+     * @throws IOException if the file can't be read or is not a binary tree export.
+     */
+    public BinaryDependencyTree( File file )
+        throws IOException
+    {
+        FileInputStream in = new FileInputStream( file );
+        try
+        {
+            FileChannel channel = in.getChannel();
+            this.buffer = channel.map( FileChannel.MapMode.READ_ONLY, 0, channel.size() );
+        }
+        finally
+        {
+            // the mapping stays valid after the channel is closed
+            IOUtil.close( in );
+        }
+
+        try
+        {
+            if ( buffer.getInt() != BinaryDependencyNodeVisitor.MAGIC )
+            {
+                throw new IOException( file + " is not a binary dependency tree" );
+            }
+            short version = buffer.getShort();
+            if ( version != BinaryDependencyNodeVisitor.VERSION )
+            {
+                throw new IOException( "Unsupported binary dependency tree version " + version + " in " + file );
+            }
+
+            strings = new String[buffer.getInt()];
+            for ( int i = 0; i < strings.length; i++ )
+            {
+                strings[i] = readUTF( buffer );
+            }
+
+            nodeCount = buffer.getInt();
+            columnsOffset = buffer.position();
+            scopesOffset = columnsOffset + nodeCount * BinaryDependencyNodeVisitor.INT_COLUMNS * 4;
+            statesOffset = scopesOffset + nodeCount;
+            if ( statesOffset + nodeCount > buffer.limit() )
+            {
+                throw new IOException( "Truncated binary dependency tree " + file );
+            }
+        }
+        catch ( RuntimeException e )
+        {
+            // buffer underflow or negative sizes
+            throw new IOException( "Corrupt binary dependency tree " + file + ": " + e );
+        }
+    }
+
+    /**
+     * Decodes a string written by <code>DataOutput.writeUTF</code>.
+     */
+    private static String readUTF( ByteBuffer buffer )
+        throws UTFDataFormatException
+    {
+        int length = buffer.getShort() & 0xffff;
+        char[] chars = new char[length];
+        int count = 0;
+        int end = buffer.position() + length;
+        while ( buffer.position() < end )
+        {
+            int b = buffer.get() & 0xff;
+            if ( b < 0x80 )
+            {
+                chars[count++] = (char) b;
+            }
+            else if ( ( b & 0xe0 ) == 0xc0 )
+            {
+                chars[count++] = (char) ( ( ( b & 0x1f ) << 6 ) | ( buffer.get() & 0x3f ) );
+            }
+            else if ( ( b & 0xf0 ) == 0xe0 )
+            {
+                int b2 = buffer.get() & 0x3f;
+                chars[count++] = (char) ( ( ( b & 0x0f ) << 12 ) | ( b2 << 6 ) | ( buffer.get() & 0x3f ) );
+            }
+            else
+            {
+                throw new UTFDataFormatException( "Malformed string in binary dependency tree" );
+            }
+        }
+        return new String( chars, 0, count );
+    }
+
+    /**
+     * @return the number of nodes in the tree.
+     */
+    public int getNodeCount()
+    {
+        return nodeCount;
+    }
+
+    /**
+     * @return the number of distinct strings in the tree.
+     */
+    public int getStringCount()
+    {
+        return strings.length;
+    }
+
+    private void checkNode( int node )
+    {
+        if ( node < 0 || node >= nodeCount )
+        {
+            throw new IndexOutOfBoundsException( "Node " + node + " of " + nodeCount );
+        }
+    }
+
+    private int getColumn( int column, int node )
+    {
+        checkNode( node );
+        return buffer.getInt( columnsOffset + ( column * nodeCount + node ) * 4 );
+    }
+
+    private String getString( int column, int node )
+    {
+        int index = getColumn( column, node );
+        return index < 0 ? null : strings[index];
+    }
+
+    /**
+     * @param node the node index.
+     * @return the index of the parent node, or <code>-1</code> for the root.
+     */
+    public int getParent( int node )
+    {
+        return getColumn( 0, node );
+    }
+
+    /**
+     * @param node the node index.
+     * @return the groupId of the node's artifact.
+     */
+    public String getGroupId( int node )
+    {
+        return getString( 1, node );
+    }
+
+    /**
+     * @param node the node index.
+     * @return the artifactId of the node's artifact.
+     */
+    public String getArtifactId( int node )
+    {
+        return getString( 2, node );
+    }
+
+    /**
+     * @param node the node index.
+     * @return the version of the node's artifact.
+     */
+    public String getVersion( int node )
+    {
+        return getString( 3, node );
+    }
+
+    /**
+     * @param node the node index.
+     * @return the type of the node's artifact.
+     */
+    public String getType( int node )
+    {
+        return getString( 4, node );
+    }
+
+    /**
+     * @param node the node index.
+     * @return the classifier of the node's artifact, or null if it has none.
+     */
+    public String getClassifier( int node )
+    {
+        return getString( 5, node );
+    }
+
+    /**
+     * @param node the node index.
+     * @return the scope of the node's artifact, or null if it has none.
+     */
+    public String getScope( int node )
+    {
+        checkNode( node );
+        int code = buffer.get( scopesOffset + node );
+        return code > 0 && code < BinaryDependencyNodeVisitor.SCOPES.length ? BinaryDependencyNodeVisitor.SCOPES[code]
+                        : null;
+    }
+
+    /**
+     * @param node the node index.
+     * @return the node state, one of the <code>DependencyNode</code> state constants.
+     */
+    public int getState( int node )
+    {
+        checkNode( node );
+        return buffer.get( statesOffset + node );
+    }
+
+    /**
+     * @param node the node index.
+     * @return the node's coordinates as <code>groupId:artifactId:type[:classifier]:version</code>.
+     */
+    public String getId( int node )
+    {
+        StringBuffer id = new StringBuffer();
+        id.append( getGroupId( node ) ).append( ':' ).append( getArtifactId( node ) ).append( ':' );
+        id.append( getType( node ) ).append( ':' );
+        String classifier = getClassifier( node );
+        if ( classifier != null )
+        {
+            id.append( classifier ).append( ':' );
+        }
+        id.append( getVersion( node ) );
+        return id.toString();
+    }
+}
@@ -23,12 +23,14 @@ import org.apache.maven.shared.dependency.tree.traversal.DependencyNodeVisitor;
 import org.apache.maven.shared.dependency.tree.DependencyNode;
 
 import java.io.Writer;
-import java.util.List;
-import java.util.Iterator;
 
 /**
  * A dependency node visitor that serializes visited nodes to DOT format
  * http://en.wikipedia.org/wiki/DOT_language
+ * <p>
+ * Each node is declared with a numeric id, given in visiting order, and labelled with its coordinates, so different
+ * nodes for the same artifact stay apart. Nodes and edges are written as they are visited.
+ * </p>
  *
  * @author <a href="mailto:pi.songs@gmail.com">Pi Song</a>
  * @since 2.1
@@ -52,24 +54,31 @@ public class DOTDependencyNodeVisitor extends AbstractSerializingVisitor
      */
     public boolean visit( DependencyNode node )
     {
-        if ( node.getParent() == null || node.getParent() == node )
+        int id = enterNode();
+        String label = escape( node.toNodeString() );
+
+        if ( isRootNode() )
         {
-            writer.write( "digraph \"" + node.toNodeString() + "\" { \n" );
+            writer.write( "digraph \"" );
+            writer.write( label );
+            writer.write( "\" { \n" );
         }
 
-        // Generate "currentNode -> Child" lines
-
-        List children = node.getChildren() ;
+        // declare the node
+        writer.write( "\t" );
+        writer.print( id );
+        writer.write( " [label=\"" );
+        writer.write( label );
+        writer.println( "\"] ; " );
 
-        for ( Iterator it = children.iterator () ; it.hasNext (); )
+        // and the "parent -> node" edge
+        if ( !isRootNode() )
         {
-            StringBuffer sb = new StringBuffer() ;
-            sb.append( "\t\"" ) ;
-            sb.append(node.toNodeString()) ;
-            sb.append( "\" -> \"" ) ;
-            sb.append( ((DependencyNode)it.next()).toNodeString() ) ;
-            sb.append( "\" ; " ) ;
-            writer.println( sb.toString() ) ;
+            writer.write( "\t" );
+            writer.print( getParentId() );
+            writer.write( " -> " );
+            writer.print( id );
+            writer.println( " ; " );
         }
 
         return true;
@@ -80,11 +89,23 @@ public class DOTDependencyNodeVisitor extends AbstractSerializingVisitor
      */
     public boolean endVisit( DependencyNode node )
     {
-        if ( node.getParent() == null || node.getParent() == node )
+        if ( isRootNode() )
         {
             writer.write( " } " );
         }
+        leaveNode();
         return true;
     }
 
+    /**
+     * Escapes the quotes of a DOT string.
+     *
+     * @param value the string to escape.
+     * @return the escaped string.
+     */
+    private static String escape( String value )
+    {
+        return value.indexOf( '"' ) < 0 ? value : value.replaceAll( "\"", "\\\\\"" );
+    }
+
 }
@@ -0,0 +1,146 @@
+package org.apache.maven.plugin.dependency.treeSerializers;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.maven.shared.dependency.tree.DependencyNode;
+import org.apache.maven.shared.dependency.tree.filter.DependencyNodeFilter;
+import org.apache.maven.shared.dependency.tree.traversal.DependencyNodeVisitor;
+import org.apache.maven.shared.dependency.tree.traversal.SerializingDependencyNodeVisitor.TreeTokens;
+
+/**
+ * A dependency node visitor that serializes the tree as text, like <code>SerializingDependencyNodeVisitor</code>,
+ * keeping only the nodes accepted by a filter and their ancestors.
+ * <p>
+ * The tree is rendered during a single walk of the original nodes: subtrees without any accepted node are skipped, and
+ * only the frames of the current path are kept. Whether a node is the last one drawn under its parent is worked out
+ * when the parent is visited, by looking for the last child selected by a {@link SubtreeSelector}, which caches the
+ * look-ahead until the child is visited. This replaces collecting the accepted nodes, filtering their ancestors in a
+ * second walk and building a filtered copy of the tree.
+ * </p>
+ *
+ * @version $Id$
+ * @since 2.2
+ */
+public class FilteringTreeDependencyNodeVisitor extends AbstractSerializingVisitor
+                                                implements DependencyNodeVisitor
+{
+    /**
+     * A node of the current path that has been written.
+     */
+    private static final class Frame
+    {
+        private final DependencyNode node;
+
+        private final boolean last;
+
+        private DependencyNode lastChild;
+
+        private Frame( DependencyNode node, boolean last )
+        {
+            this.node = node;
+            this.last = last;
+        }
+    }
+
+    /**
+     * The tokens to draw the tree with.
+     */
+    private final TreeTokens tokens;
+
+    /**
+     * Selects the nodes to draw.
+     */
+    private final SubtreeSelector selector;
+
+    /**
+     * The written nodes from the root to the current node.
+     */
+    private final List path = new ArrayList();
+
+    /**
+     * Constructor.
+     *
+     * @param writer the writer to write to.
+     * @param tokens the tokens to draw the tree with.
+     * @param filter the nodes to keep with their ancestors, or null to keep every node.
+     */
+    public FilteringTreeDependencyNodeVisitor( Writer writer, TreeTokens tokens, DependencyNodeFilter filter )
+    {
+        super( writer );
+        this.tokens = tokens;
+        this.selector = new SubtreeSelector( filter );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public boolean visit( DependencyNode node )
+    {
+        Frame parent = path.isEmpty() ? null : (Frame) path.get( path.size() - 1 );
+
+        if ( !selector.release( node ) )
+        {
+            // nothing to draw in this subtree
+            return false;
+        }
+
+        boolean last = parent == null || parent.lastChild == node;
+
+        for ( int i = 1; i < path.size(); i++ )
+        {
+            writer.write( tokens.getFillIndent( ( (Frame) path.get( i ) ).last ) );
+        }
+        if ( parent != null )
+        {
+            writer.write( tokens.getNodeIndent( last ) );
+        }
+        writer.println( node.toNodeString() );
+
+        Frame frame = new Frame( node, last );
+        for ( Iterator i = node.getChildren().iterator(); i.hasNext(); )
+        {
+            DependencyNode child = (DependencyNode) i.next();
+            if ( selector.isSelected( child ) )
+            {
+                frame.lastChild = child;
+            }
+        }
+        path.add( frame );
+
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public boolean endVisit( DependencyNode node )
+    {
+        if ( !path.isEmpty() && ( (Frame) path.get( path.size() - 1 ) ).node == node )
+        {
+            path.remove( path.size() - 1 );
+        }
+        return true;
+    }
+}
@@ -27,6 +27,9 @@ import org.apache.maven.shared.dependency.tree.traversal.DependencyNodeVisitor;
 /**
  * A dependency node visitor that serializes visited nodes to a writer using the graphml format.
  * {@link http://graphml.graphdrawing.org/}
+ * <p>
+ * Node ids are numbered in visiting order, nodes and edges are written as they are visited.
+ * </p>
  *
  * @author <a href="mailto:jerome.creignou@gmail.com">Jerome Creignou</a>
  * @since 2.1
@@ -68,22 +71,27 @@ public class GraphmlDependencyNodeVisitor extends AbstractSerializingVisitor
      */
     public boolean endVisit( DependencyNode node )
     {
-        if ( node.getParent() == null || node.getParent() == node )
+        if ( isRootNode() )
         {
             writer.write( GRAPHML_FOOTER );
         }
         else
         {
-            DependencyNode p = node.getParent();
-            writer.print( "<edge source=\"" + generateId( p ) + "\" target=\"" + generateId( node ) + "\">" );
+            writer.write( "<edge source=\"" );
+            writer.print( getParentId() );
+            writer.write( "\" target=\"" );
+            writer.print( getNodeId() );
+            writer.write( "\">" );
             if ( node.getArtifact().getScope() != null )
             {
                 // add Edge label
-                writer.print( "<data key=\"d1\"><y:PolyLineEdge><y:EdgeLabel>" + node.getArtifact().getScope()
-                    + "</y:EdgeLabel></y:PolyLineEdge></data>" );
+                writer.write( "<data key=\"d1\"><y:PolyLineEdge><y:EdgeLabel>" );
+                writer.write( node.getArtifact().getScope() );
+                writer.write( "</y:EdgeLabel></y:PolyLineEdge></data>" );
             }
             writer.println( "</edge>" );
         }
+        leaveNode();
         return true;
     }
 
@@ -92,30 +100,20 @@ public class GraphmlDependencyNodeVisitor extends AbstractSerializingVisitor
      */
     public boolean visit( DependencyNode node )
     {
-        if ( node.getParent() == null || node.getParent() == node )
+        int id = enterNode();
+        if ( isRootNode() )
         {
             writer.write( GRAPHML_HEADER );
         }
         // write node
-        writer.print( "<node id=\"" + generateId( node ) + "\">" );
+        writer.write( "<node id=\"" );
+        writer.print( id );
+        writer.write( "\">" );
         // add node label
-        writer.print( "<data key=\"d0\"><y:ShapeNode><y:NodeLabel>" + node.toNodeString()
-            + "</y:NodeLabel></y:ShapeNode></data>" );
+        writer.write( "<data key=\"d0\"><y:ShapeNode><y:NodeLabel>" );
+        writer.write( node.toNodeString() );
+        writer.write( "</y:NodeLabel></y:ShapeNode></data>" );
         writer.println( "</node>" );
         return true;
     }
-
-    /**
-     * Generate a unique id from a DependencyNode.
-     * <p>
-     * Current implementation is rather simple and uses hashcode.
-     * </p>
-     *
-     * @param node the DependencyNode to use.
-     * @return the unique id.
-     */
-    private static String generateId( DependencyNode node )
-    {
-        return String.valueOf( node.hashCode() );
-    }
 }
@@ -0,0 +1,81 @@
+package org.apache.maven.plugin.dependency.treeSerializers;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.shared.dependency.tree.DependencyNode;
+import org.apache.maven.shared.dependency.tree.traversal.DependencyNodeVisitor;
+
+/**
+ * A dependency node visitor that passes the nodes selected by a {@link SubtreeSelector} on to another visitor and
+ * skips the other subtrees without walking them.
+ *
+ * @version $Id$
+ * @since 2.2
+ */
+public class PruningDependencyNodeVisitor
+    implements DependencyNodeVisitor
+{
+    private final DependencyNodeVisitor visitor;
+
+    private final SubtreeSelector selector;
+
+    /**
+     * The node whose subtree is being skipped, its end visit is not passed on.
+     */
+    private DependencyNode pruned;
+
+    /**
+     * Constructor.
+     *
+     * @param visitor the visitor to pass the selected nodes to.
+     * @param selector the selector.
+     */
+    public PruningDependencyNodeVisitor( DependencyNodeVisitor visitor, SubtreeSelector selector )
+    {
+        this.visitor = visitor;
+        this.selector = selector;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public boolean visit( DependencyNode node )
+    {
+        if ( !selector.release( node ) )
+        {
+            pruned = node;
+            return false;
+        }
+        return visitor.visit( node );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public boolean endVisit( DependencyNode node )
+    {
+        if ( node == pruned )
+        {
+            pruned = null;
+            return true;
+        }
+        return visitor.endVisit( node );
+    }
+}
@@ -0,0 +1,100 @@
+package org.apache.maven.plugin.dependency.treeSerializers;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.apache.maven.shared.dependency.tree.DependencyNode;
+import org.apache.maven.shared.dependency.tree.filter.DependencyNodeFilter;
+
+/**
+ * Selects the nodes accepted by a filter together with their ancestors, without collecting the accepted nodes first: a
+ * node is selected if it or one of its descendants is accepted. The descendants are only searched for nodes the
+ * filter rejects, and the result is cached until {@link #release(DependencyNode)} is called, so a subtree is searched
+ * once however often it is asked about.
+ *
+ * @version $Id$
+ * @since 2.2
+ */
+public class SubtreeSelector
+{
+    /**
+     * The filter, null to select every node.
+     */
+    private final DependencyNodeFilter filter;
+
+    /**
+     * Results for rejected nodes that have not been released yet.
+     */
+    private final Map cache = new IdentityHashMap();
+
+    /**
+     * Constructor.
+     *
+     * @param filter the nodes to select with their ancestors, or null to select every node.
+     */
+    public SubtreeSelector( DependencyNodeFilter filter )
+    {
+        this.filter = filter;
+    }
+
+    /**
+     * Checks whether a node or one of its descendants is accepted by the filter.
+     *
+     * @param node the node to check.
+     * @return true if the node is selected.
+     */
+    public boolean isSelected( DependencyNode node )
+    {
+        if ( filter == null || filter.accept( node ) )
+        {
+            return true;
+        }
+
+        Boolean cached = (Boolean) cache.get( node );
+        if ( cached != null )
+        {
+            return cached.booleanValue();
+        }
+
+        boolean selected = false;
+        for ( Iterator i = node.getChildren().iterator(); i.hasNext() && !selected; )
+        {
+            selected = isSelected( (DependencyNode) i.next() );
+        }
+
+        cache.put( node, Boolean.valueOf( selected ) );
+        return selected;
+    }
+
+    /**
+     * Checks whether a node is selected and forgets the cached result, for callers that won't ask about the node again.
+     *
+     * @param node the node to check.
+     * @return true if the node is selected.
+     */
+    public boolean release( DependencyNode node )
+    {
+        Boolean cached = (Boolean) cache.remove( node );
+        return cached != null ? cached.booleanValue() : isSelected( node );
+    }
+}
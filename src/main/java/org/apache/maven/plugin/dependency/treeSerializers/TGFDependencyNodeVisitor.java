@@ -20,9 +20,6 @@ package org.apache.maven.plugin.dependency.treeSerializers ;
  */
 
 import java.io.Writer;
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
 
 import org.apache.maven.shared.dependency.tree.DependencyNode;
 import org.apache.maven.shared.dependency.tree.traversal.DependencyNodeVisitor;
@@ -31,6 +28,10 @@ import org.apache.maven.shared.dependency.tree.traversal.DependencyNodeVisitor;
  * A dependency node visitor that serializes visited nodes to a writer using the TGF format.
  *
  * http://en.wikipedia.org/wiki/Trivial_Graph_Format
+ * <p>
+ * Node ids are numbered in visiting order and nodes are written as they are visited. TGF lists the edges after all
+ * nodes, so they are kept as pairs of ids until the end of the visit.
+ * </p>
  *
  * @author <a href="mailto:jerome.creignou@gmail.com">Jerome Creignou</a>
  * @since 2.1
@@ -40,62 +41,24 @@ public class TGFDependencyNodeVisitor extends AbstractSerializingVisitor
 {
 
     /**
-     * Utiity class to write an Edge.
-     *
-     * @author <a href="mailto:jerome.creignou@gmail.com">Jerome Creignou</a>
+     * Edge starts, by edge.
      */
-    final static class EdgeAppender
-    {
-        /**
-         * Edge start.
-         */
-        private DependencyNode from;
-
-        /**
-         * Edge end.
-         */
-        private DependencyNode to;
-
-        /**
-         * Edge label. (optional)
-         */
-        private String label;
-
-        /**
-         * Build a new EdgeAppender.
-         *
-         * @param from edge start.
-         * @param to edge end
-         * @param label optional label.
-         */
-        public EdgeAppender( DependencyNode from, DependencyNode to, String label )
-        {
-            super();
-            this.from = from;
-            this.to = to;
-            this.label = label;
-        }
+    private int[] edgeFrom = new int[64];
 
-        /**
-         * build a string representing the edge.
-         */
-        public String toString()
-        {
-            StringBuffer result = new StringBuffer( generateId( from ) );
-            result.append( ' ' ).append( generateId( to ) );
-            if ( label != null )
-            {
-                result.append( ' ' ).append( label );
-            }
-            return result.toString();
-        }
+    /**
+     * Edge ends, by edge.
+     */
+    private int[] edgeTo = new int[64];
 
-    }
+    /**
+     * Edge labels, the scope of the edge end. (optional)
+     */
+    private String[] edgeLabel = new String[64];
 
     /**
-     * List of edges.
+     * Number of edges.
      */
-    private List edges = new ArrayList();
+    private int edgeCount;
 
     /**
      * Constructor.
@@ -112,21 +75,29 @@ public class TGFDependencyNodeVisitor extends AbstractSerializingVisitor
      */
     public boolean endVisit( DependencyNode node )
     {
-        if ( node.getParent() == null || node.getParent() == node )
+        if ( isRootNode() )
         {
             // dump edges on last node endVisit
             writer.println( "#" );
-            for ( Iterator iterator = edges.iterator(); iterator.hasNext(); )
+            for ( int i = 0; i < edgeCount; i++ )
             {
-                writer.println( iterator.next().toString() );
+                writer.print( edgeFrom[i] );
+                writer.write( ' ' );
+                writer.print( edgeTo[i] );
+                if ( edgeLabel[i] != null )
+                {
+                    writer.write( ' ' );
+                    writer.write( edgeLabel[i] );
+                }
+                writer.println();
             }
         }
         else
         {
-            DependencyNode p = node.getParent();
             // using scope as edge label.
-            edges.add( new EdgeAppender( p, node, node.getArtifact().getScope() ) );
+            addEdge( getParentId(), getNodeId(), node.getArtifact().getScope() );
         }
+        leaveNode();
         return true;
     }
 
@@ -136,23 +107,33 @@ public class TGFDependencyNodeVisitor extends AbstractSerializingVisitor
     public boolean visit( DependencyNode node )
     {
         // write node
-        writer.write( generateId( node ) );
-        writer.write( " " );
+        writer.print( enterNode() );
+        writer.write( ' ' );
         writer.println( node.toNodeString() );
         return true;
     }
 
-    /**
-     * Generate a unique id from a DependencyNode.
-     * <p>
-     * Current implementation is rather simple and uses hashcode.
-     * </p>
-     *
-     * @param node the DependencyNode to use.
-     * @return the unique id.
-     */
-    private static String generateId( DependencyNode node )
+    private void addEdge( int from, int to, String label )
     {
-        return String.valueOf( node.hashCode() );
+        if ( edgeCount == edgeFrom.length )
+        {
+            int size = edgeCount * 2;
+
+            int[] newFrom = new int[size];
+            System.arraycopy( edgeFrom, 0, newFrom, 0, edgeCount );
+            edgeFrom = newFrom;
+
+            int[] newTo = new int[size];
+            System.arraycopy( edgeTo, 0, newTo, 0, edgeCount );
+            edgeTo = newTo;
+
+            String[] newLabel = new String[size];
+            System.arraycopy( edgeLabel, 0, newLabel, 0, edgeCount );
+            edgeLabel = newLabel;
+        }
+        edgeFrom[edgeCount] = from;
+        edgeTo[edgeCount] = to;
+        edgeLabel[edgeCount] = label;
+        edgeCount++;
     }
 }
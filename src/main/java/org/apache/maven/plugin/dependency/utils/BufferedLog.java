@@ -0,0 +1,236 @@
+package org.apache.maven.plugin.dependency.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Log that records messages in memory so they can be replayed later, in order, to another log. Used by work running
+ * on a {@link ParallelExecutor} so that the build output stays in the same order as a serial run.
+ *
+ * @version $Id$
+ */
+public class BufferedLog
+    implements Log
+{
+    private static final int DEBUG = 0;
+
+    private static final int INFO = 1;
+
+    private static final int WARN = 2;
+
+    private static final int ERROR = 3;
+
+    private final Log target;
+
+    private final List entries = new ArrayList();
+
+    /**
+     * @param theTarget the log that will receive the messages on replay. Its level settings are honoured when
+     *            buffering.
+     */
+    public BufferedLog( Log theTarget )
+    {
+        this.target = theTarget;
+    }
+
+    /**
+     * Writes all buffered messages to the target log and clears the buffer.
+     */
+    public synchronized void flush()
+    {
+        for ( Iterator i = entries.iterator(); i.hasNext(); )
+        {
+            Entry entry = (Entry) i.next();
+            entry.replay( target );
+        }
+        entries.clear();
+    }
+
+    private synchronized void add( int level, CharSequence content, Throwable error )
+    {
+        entries.add( new Entry( level, content == null ? null : content.toString(), error ) );
+    }
+
+    public boolean isDebugEnabled()
+    {
+        return target.isDebugEnabled();
+    }
+
+    public void debug( CharSequence content )
+    {
+        add( DEBUG, content, null );
+    }
+
+    public void debug( CharSequence content, Throwable error )
+    {
+        add( DEBUG, content, error );
+    }
+
+    public void debug( Throwable error )
+    {
+        add( DEBUG, null, error );
+    }
+
+    public boolean isInfoEnabled()
+    {
+        return target.isInfoEnabled();
+    }
+
+    public void info( CharSequence content )
+    {
+        add( INFO, content, null );
+    }
+
+    public void info( CharSequence content, Throwable error )
+    {
+        add( INFO, content, error );
+    }
+
+    public void info( Throwable error )
+    {
+        add( INFO, null, error );
+    }
+
+    public boolean isWarnEnabled()
+    {
+        return target.isWarnEnabled();
+    }
+
+    public void warn( CharSequence content )
+    {
+        add( WARN, content, null );
+    }
+
+    public void warn( CharSequence content, Throwable error )
+    {
+        add( WARN, content, error );
+    }
+
+    public void warn( Throwable error )
+    {
+        add( WARN, null, error );
+    }
+
+    public boolean isErrorEnabled()
+    {
+        return target.isErrorEnabled();
+    }
+
+    public void error( CharSequence content )
+    {
+        add( ERROR, content, null );
+    }
+
+    public void error( CharSequence content, Throwable error )
+    {
+        add( ERROR, content, error );
+    }
+
+    public void error( Throwable error )
+    {
+        add( ERROR, null, error );
+    }
+
+    /**
+     * A single buffered log message.
+     */
+    private static final class Entry
+    {
+        private final int level;
+
+        private final String content;
+
+        private final Throwable error;
+
+        Entry( int theLevel, String theContent, Throwable theError )
+        {
+            this.level = theLevel;
+            this.content = theContent;
+            this.error = theError;
+        }
+
+        void replay( Log log )
+        {
+            switch ( level )
+            {
+                case DEBUG:
+                    if ( content == null )
+                    {
+                        log.debug( error );
+                    }
+                    else if ( error == null )
+                    {
+                        log.debug( content );
+                    }
+                    else
+                    {
+                        log.debug( content, error );
+                    }
+                    break;
+                case INFO:
+                    if ( content == null )
+                    {
+                        log.info( error );
+                    }
+                    else if ( error == null )
+                    {
+                        log.info( content );
+                    }
+                    else
+                    {
+                        log.info( content, error );
+                    }
+                    break;
+                case WARN:
+                    if ( content == null )
+                    {
+                        log.warn( error );
+                    }
+                    else if ( error == null )
+                    {
+                        log.warn( content );
+                    }
+                    else
+                    {
+                        log.warn( content, error );
+                    }
+                    break;
+                default:
+                    if ( content == null )
+                    {
+                        log.error( error );
+                    }
+                    else if ( error == null )
+                    {
+                        log.error( content );
+                    }
+                    else
+                    {
+                        log.error( content, error );
+                    }
+            }
+        }
+    }
+}
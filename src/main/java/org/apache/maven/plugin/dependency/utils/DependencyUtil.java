@@ -20,10 +20,12 @@ package org.apache.maven.plugin.dependency.utils;
  */
 
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.StringReader;
+import java.io.Writer;
 
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.plugin.logging.Log;
@@ -205,6 +207,23 @@ public final class DependencyUtil
         }
     }
     
+    /**
+     * Opens a buffered writer on the specified file, creating the parent directories, for output that is produced
+     * piece by piece rather than as one string.
+     * 
+     * @param file
+     *            the file to write to
+     * @return the writer, to be closed by the caller
+     * @throws IOException
+     *             if the file can't be opened
+     */
+    public static Writer openWriter( File file ) throws IOException
+    {
+        file.getAbsoluteFile().getParentFile().mkdirs();
+
+        return new BufferedWriter( new FileWriter( file ), 65536 );
+    }
+
     /**
      * Writes the specified string to the log at info level.
      * 
@@ -0,0 +1,288 @@
+package org.apache.maven.plugin.dependency.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Properties;
+
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * Persistent index of SHA-1 digests, keyed by absolute file path. An entry is only trusted while the file keeps the
+ * length and last modified time it had when the digest was recorded, otherwise the digest is worked out again: from the
+ * repository's <code>.sha1</code> sidecar file when there is one, or by reading the file.
+ * <p>
+ * Copying code records the source digest against the destination file, so a later build can tell that an unchanged
+ * destination is still current without reading it, and a destination whose timestamp was touched is read only once.
+ * </p>
+ *
+ * @version $Id$
+ */
+public class DigestIndex
+{
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final File indexFile;
+
+    private final Properties entries = new Properties();
+
+    private boolean dirty;
+
+    /**
+     * Creates an empty index.
+     *
+     * @param theIndexFile the file the index is stored in.
+     */
+    public DigestIndex( File theIndexFile )
+    {
+        this.indexFile = theIndexFile;
+    }
+
+    /**
+     * Loads the entries stored by a previous build, if any.
+     *
+     * @throws IOException if the existing index can't be read.
+     */
+    public synchronized void load()
+        throws IOException
+    {
+        if ( indexFile.isFile() )
+        {
+            InputStream in = new FileInputStream( indexFile );
+            try
+            {
+                entries.load( in );
+            }
+            finally
+            {
+                IOUtil.close( in );
+            }
+        }
+    }
+
+    /**
+     * @return the file the index is stored in.
+     */
+    public File getIndexFile()
+    {
+        return this.indexFile;
+    }
+
+    /**
+     * Gets the SHA-1 of a file, using the index, the sidecar file or the content, in that order.
+     *
+     * @param file the file to get the digest for.
+     * @return the lower case hex digest, or null if the file doesn't exist.
+     * @throws IOException if the file can't be read.
+     */
+    public String getDigest( File file )
+        throws IOException
+    {
+        if ( !file.isFile() )
+        {
+            return null;
+        }
+
+        String digest = lookup( file );
+        if ( digest == null )
+        {
+            digest = readSidecar( file );
+            if ( digest == null )
+            {
+                digest = computeDigest( file );
+            }
+            record( file, digest );
+        }
+        return digest;
+    }
+
+    /**
+     * Records the digest of a file, typically the source digest after a copy.
+     *
+     * @param file the file the digest belongs to, in its current state.
+     * @param digest the lower case hex SHA-1.
+     */
+    public synchronized void record( File file, String digest )
+    {
+        entries.setProperty( file.getAbsolutePath(), file.length() + "," + file.lastModified() + "," + digest );
+        dirty = true;
+    }
+
+    /**
+     * Writes the index if it changed. The index is written to a temporary file first and then renamed, so a failed
+     * build never leaves a truncated index behind.
+     *
+     * @throws IOException if the index can't be written.
+     */
+    public synchronized void save()
+        throws IOException
+    {
+        if ( !dirty )
+        {
+            return;
+        }
+
+        File parent = indexFile.getAbsoluteFile().getParentFile();
+        parent.mkdirs();
+        File tmp = new File( parent, indexFile.getName() + ".tmp" );
+
+        OutputStream out = new FileOutputStream( tmp );
+        try
+        {
+            entries.store( out, "SHA-1 digests used by the maven-dependency-plugin up-to-date checks" );
+        }
+        finally
+        {
+            IOUtil.close( out );
+        }
+
+        if ( !tmp.renameTo( indexFile ) )
+        {
+            // rename can't replace an existing file on all platforms
+            indexFile.delete();
+            if ( !tmp.renameTo( indexFile ) )
+            {
+                throw new IOException( "Unable to replace digest index " + indexFile );
+            }
+        }
+        dirty = false;
+    }
+
+    private synchronized String lookup( File file )
+    {
+        String entry = entries.getProperty( file.getAbsolutePath() );
+        if ( entry == null )
+        {
+            return null;
+        }
+
+        String prefix = file.length() + "," + file.lastModified() + ",";
+        return entry.startsWith( prefix ) ? entry.substring( prefix.length() ) : null;
+    }
+
+    /**
+     * Reads the digest published next to a repository file, if it is newer than the file itself.
+     *
+     * @param file the repository file.
+     * @return the digest, or null if there is no usable sidecar.
+     */
+    private static String readSidecar( File file )
+    {
+        File sidecar = new File( file.getPath() + ".sha1" );
+        if ( !sidecar.isFile() || sidecar.lastModified() < file.lastModified() )
+        {
+            return null;
+        }
+
+        try
+        {
+            String content = FileUtils.fileRead( sidecar.getPath() ).trim();
+            // some repositories append the file name after the digest
+            int end = 0;
+            while ( end < content.length() && !Character.isWhitespace( content.charAt( end ) ) )
+            {
+                end++;
+            }
+            String digest = content.substring( 0, end ).toLowerCase();
+            return isDigest( digest ) ? digest : null;
+        }
+        catch ( IOException e )
+        {
+            return null;
+        }
+    }
+
+    private static boolean isDigest( String value )
+    {
+        if ( value.length() != 40 )
+        {
+            return false;
+        }
+        for ( int i = 0; i < value.length(); i++ )
+        {
+            if ( Character.digit( value.charAt( i ), 16 ) < 0 )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads a file and computes its SHA-1.
+     *
+     * @param file the file to read.
+     * @return the lower case hex digest.
+     * @throws IOException if the file can't be read.
+     */
+    public static String computeDigest( File file )
+        throws IOException
+    {
+        MessageDigest sha1;
+        try
+        {
+            sha1 = MessageDigest.getInstance( "SHA-1" );
+        }
+        catch ( NoSuchAlgorithmException e )
+        {
+            throw new IOException( "SHA-1 is not available: " + e.getMessage() );
+        }
+
+        InputStream in = new FileInputStream( file );
+        try
+        {
+            byte[] buffer = new byte[65536];
+            int read;
+            while ( ( read = in.read( buffer ) ) != -1 )
+            {
+                sha1.update( buffer, 0, read );
+            }
+        }
+        finally
+        {
+            IOUtil.close( in );
+        }
+
+        return toHex( sha1.digest() );
+    }
+
+    /**
+     * @param bytes the bytes to format.
+     * @return the bytes as a lower case hex string.
+     */
+    public static String toHex( byte[] bytes )
+    {
+        char[] hex = new char[bytes.length * 2];
+        for ( int i = 0; i < bytes.length; i++ )
+        {
+            hex[i * 2] = HEX[( bytes[i] >> 4 ) & 0x0f];
+            hex[i * 2 + 1] = HEX[bytes[i] & 0x0f];
+        }
+        return new String( hex );
+    }
+}
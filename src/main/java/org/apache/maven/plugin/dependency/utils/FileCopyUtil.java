@@ -0,0 +1,327 @@
+package org.apache.maven.plugin.dependency.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.channels.FileChannel;
+
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * Utility class with the different strategies used to put an artifact file into its destination.
+ * <ul>
+ * <li><code>copy</code>: streamed copy through plexus-utils (the historical behaviour).</li>
+ * <li><code>transfer</code>: <code>FileChannel.transferTo</code>, letting the kernel move the bytes without going
+ * through heap buffers.</li>
+ * <li><code>link</code>: a hard link to the source file, so nothing is copied at all. Only safe if the destination is
+ * never modified in place, as that would change the file in the local repository too.</li>
+ * <li><code>reflink</code>: the platform's native file copy, which copy-on-write file systems can satisfy by sharing
+ * blocks.</li>
+ * </ul>
+ * The last two need a Java 7 runtime and are looked up reflectively. When they are not available, or the file system
+ * refuses (e.g. linking across devices), the copy falls back to <code>transfer</code>.
+ * <p>
+ * An existing destination is always deleted before it is written: it may be a hard link left by an earlier
+ * <code>link</code> run, and writing through it would truncate the file in the local repository.
+ * </p>
+ *
+ * @version $Id$
+ */
+public final class FileCopyUtil
+{
+    public static final String MODE_COPY = "copy";
+
+    public static final String MODE_TRANSFER = "transfer";
+
+    public static final String MODE_LINK = "link";
+
+    public static final String MODE_REFLINK = "reflink";
+
+    /**
+     * Largest chunk handed to a single transferTo call. Some platforms fail on transfers above 2GB.
+     */
+    private static final long MAX_TRANSFER = 64L * 1024 * 1024;
+
+    private static boolean nioInitialized;
+
+    private static Method toPath;
+
+    private static Method createLink;
+
+    private static Method copy;
+
+    private static Class copyOptionClass;
+
+    private static Object replaceExisting;
+
+    private FileCopyUtil()
+    {
+        // no instances
+    }
+
+    /**
+     * Checks that the mode is one of the known ones.
+     *
+     * @param mode the mode to check.
+     * @return true if the mode is known, or empty (which means the default).
+     */
+    public static boolean isValidMode( String mode )
+    {
+        return mode == null || mode.length() == 0 || MODE_COPY.equals( mode ) || MODE_TRANSFER.equals( mode )
+            || MODE_LINK.equals( mode ) || MODE_REFLINK.equals( mode );
+    }
+
+    /**
+     * Puts the source file at the destination using the given mode, falling back to a channel transfer when the mode
+     * can't be honoured.
+     *
+     * @param source the file to copy.
+     * @param destFile the destination file. Parent directories are created if needed.
+     * @param mode one of the <code>MODE_</code> constants. Empty means <code>transfer</code>.
+     * @param log used to report fallbacks at debug level.
+     * @throws IOException if the file can't be copied.
+     */
+    public static void copyFile( File source, File destFile, String mode, Log log )
+        throws IOException
+    {
+        if ( !source.exists() )
+        {
+            throw new IOException( "File " + source + " does not exist" );
+        }
+        if ( source.getCanonicalFile().equals( destFile.getCanonicalFile() ) )
+        {
+            // already in place, deleting the destination would lose the file
+            return;
+        }
+        deleteExisting( destFile );
+
+        if ( MODE_COPY.equals( mode ) )
+        {
+            FileUtils.copyFile( source, destFile );
+            return;
+        }
+
+        File parent = destFile.getParentFile();
+        if ( parent != null )
+        {
+            parent.mkdirs();
+        }
+
+        if ( MODE_LINK.equals( mode ) )
+        {
+            if ( link( source, destFile ) )
+            {
+                return;
+            }
+            log.debug( "Unable to link " + destFile + " to " + source + ", copying instead." );
+        }
+        else if ( MODE_REFLINK.equals( mode ) )
+        {
+            if ( nativeCopy( source, destFile ) )
+            {
+                return;
+            }
+            log.debug( "Native copy of " + source + " not available, copying instead." );
+        }
+
+        transfer( source, destFile );
+    }
+
+    /**
+     * Copies a file with <code>FileChannel.transferTo</code>.
+     *
+     * @param source the file to copy.
+     * @param destFile the destination file, replaced if it exists.
+     * @throws IOException if the file can't be copied completely.
+     */
+    public static void transfer( File source, File destFile )
+        throws IOException
+    {
+        if ( !source.exists() )
+        {
+            throw new IOException( "File " + source + " does not exist" );
+        }
+        deleteExisting( destFile );
+
+        FileInputStream in = null;
+        FileOutputStream out = null;
+        try
+        {
+            in = new FileInputStream( source );
+            out = new FileOutputStream( destFile );
+
+            FileChannel inChannel = in.getChannel();
+            FileChannel outChannel = out.getChannel();
+
+            long size = inChannel.size();
+            long position = 0;
+            while ( position < size )
+            {
+                long count = inChannel.transferTo( position, Math.min( size - position, MAX_TRANSFER ), outChannel );
+                if ( count <= 0 )
+                {
+                    break;
+                }
+                position += count;
+            }
+
+            if ( position != size )
+            {
+                throw new IOException( "Failed to copy full contents from " + source + " to " + destFile );
+            }
+        }
+        finally
+        {
+            IOUtil.close( in );
+            IOUtil.close( out );
+        }
+    }
+
+    /**
+     * Removes the destination so it is written as a new file, never through a link to another file.
+     *
+     * @param destFile the destination file.
+     * @throws IOException if the destination exists and can't be deleted.
+     */
+    private static void deleteExisting( File destFile )
+        throws IOException
+    {
+        if ( destFile.exists() && !destFile.delete() )
+        {
+            throw new IOException( "Unable to replace " + destFile );
+        }
+    }
+
+    /**
+     * Replaces the destination with a hard link to the source.
+     *
+     * @param source the existing file.
+     * @param destFile the link to create. An existing file is removed first.
+     * @return true if the link was created, false if links are not supported here.
+     */
+    public static boolean link( File source, File destFile )
+    {
+        if ( !initNio() || createLink == null )
+        {
+            return false;
+        }
+
+        if ( destFile.exists() && !destFile.delete() )
+        {
+            return false;
+        }
+
+        try
+        {
+            createLink.invoke( null, new Object[] { toPath( destFile ), toPath( source ) } );
+            return true;
+        }
+        catch ( InvocationTargetException e )
+        {
+            // not supported by the file system, or across file systems
+            return false;
+        }
+        catch ( IllegalAccessException e )
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Copies the file with the runtime's native implementation, replacing the destination.
+     *
+     * @param source the file to copy.
+     * @param destFile the destination file.
+     * @return true if the file was copied, false if no native copy is available.
+     */
+    public static boolean nativeCopy( File source, File destFile )
+    {
+        if ( !initNio() || copy == null )
+        {
+            return false;
+        }
+
+        try
+        {
+            Object options = Array.newInstance( copyOptionClass, 1 );
+            Array.set( options, 0, replaceExisting );
+            copy.invoke( null, new Object[] { toPath( source ), toPath( destFile ), options } );
+            return true;
+        }
+        catch ( InvocationTargetException e )
+        {
+            return false;
+        }
+        catch ( IllegalAccessException e )
+        {
+            return false;
+        }
+    }
+
+    private static Object toPath( File file )
+        throws IllegalAccessException, InvocationTargetException
+    {
+        return toPath.invoke( file, new Object[0] );
+    }
+
+    /**
+     * Looks up the java.nio.file methods once.
+     *
+     * @return true if running on Java 7 or later.
+     */
+    private static synchronized boolean initNio()
+    {
+        if ( !nioInitialized )
+        {
+            nioInitialized = true;
+            try
+            {
+                Class pathClass = Class.forName( "java.nio.file.Path" );
+                Class filesClass = Class.forName( "java.nio.file.Files" );
+                copyOptionClass = Class.forName( "java.nio.file.CopyOption" );
+                Class optionArrayClass = Array.newInstance( copyOptionClass, 0 ).getClass();
+
+                toPath = File.class.getMethod( "toPath", new Class[0] );
+                createLink = filesClass.getMethod( "createLink", new Class[] { pathClass, pathClass } );
+                copy = filesClass.getMethod( "copy", new Class[] { pathClass, pathClass, optionArrayClass } );
+                replaceExisting =
+                    Class.forName( "java.nio.file.StandardCopyOption" ).getField( "REPLACE_EXISTING" ).get( null );
+            }
+            catch ( Exception e )
+            {
+                // older runtime
+                toPath = null;
+                createLink = null;
+                copy = null;
+                copyOptionClass = null;
+                replaceExisting = null;
+            }
+        }
+        return toPath != null;
+    }
+}
@@ -0,0 +1,111 @@
+package org.apache.maven.plugin.dependency.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.Writer;
+
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * A writer that sends each line it receives to the log at info level, as soon as the line is complete. Only the
+ * current line is held in memory. Lines end with <code>\n</code>, <code>\r</code> or <code>\r\n</code>, as for
+ * {@link java.io.BufferedReader#readLine()}; a last line without terminator is logged on close.
+ *
+ * @version $Id$
+ */
+public class LogWriter
+    extends Writer
+{
+    private final Log log;
+
+    private final StringBuffer line = new StringBuffer();
+
+    private boolean pending;
+
+    private boolean afterCarriageReturn;
+
+    /**
+     * @param theLog the log to write to.
+     */
+    public LogWriter( Log theLog )
+    {
+        this.log = theLog;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see java.io.Writer#write(char[], int, int)
+     */
+    public void write( char[] cbuf, int off, int len )
+    {
+        for ( int i = off; i < off + len; i++ )
+        {
+            char c = cbuf[i];
+            if ( c == '\n' && afterCarriageReturn )
+            {
+                // second half of \r\n
+                afterCarriageReturn = false;
+                continue;
+            }
+
+            afterCarriageReturn = c == '\r';
+            if ( c == '\n' || c == '\r' )
+            {
+                emit();
+            }
+            else
+            {
+                line.append( c );
+                pending = true;
+            }
+        }
+    }
+
+    private void emit()
+    {
+        log.info( line.toString() );
+        line.setLength( 0 );
+        pending = false;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see java.io.Writer#flush()
+     */
+    public void flush()
+    {
+        // lines are logged as soon as they are complete
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see java.io.Writer#close()
+     */
+    public void close()
+    {
+        if ( pending )
+        {
+            emit();
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package org.apache.maven.plugin.dependency.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Splits a list of archives to unpack into groups that can be unpacked concurrently.
+ * <p>
+ * Two archives overlap when their destination directories are the same or nested and they contain a file that would
+ * end up at the same path, as found in their zip central directories. Overlapping archives end up in the same group,
+ * in their original order, so the file that wins is the same as with a serial unpack. Archives that can't be read as
+ * zip files are assumed to overlap with every archive unpacked into a related directory. For incremental unpacks the
+ * entries recorded by the previous unpack count too, as their files may be deleted.
+ * </p>
+ *
+ * @version $Id$
+ */
+public final class OverlapDetector
+{
+    private OverlapDetector()
+    {
+        // no instances
+    }
+
+    /**
+     * Groups the archives by overlap.
+     *
+     * @param archives the archive files, in unpack order.
+     * @param destinations the destination directory of each archive.
+     * @return a list of groups, each a list of <code>Integer</code> indexes into <code>archives</code> in ascending
+     *         order. Groups are ordered by their first index.
+     */
+    public static List groupOverlapping( List archives, List destinations )
+    {
+        return groupOverlapping( archives, destinations, null );
+    }
+
+    /**
+     * Groups the archives by overlap, including the entries recorded by their previous unpack.
+     *
+     * @param archives the archive files, in unpack order.
+     * @param destinations the destination directory of each archive.
+     * @param previousEntries the <code>Collection</code> of entry names each archive was last unpacked with, or null
+     *            for an archive without one. May be null.
+     * @return a list of groups, each a list of <code>Integer</code> indexes into <code>archives</code> in ascending
+     *         order. Groups are ordered by their first index.
+     */
+    public static List groupOverlapping( List archives, List destinations, List previousEntries )
+    {
+        int size = archives.size();
+        int[] parent = new int[size];
+        String[] paths = new String[size];
+        for ( int i = 0; i < size; i++ )
+        {
+            parent[i] = i;
+            paths[i] = ( (File) destinations.get( i ) ).getAbsolutePath().replace( '\\', '/' ) + "/";
+        }
+
+        // only archives going into related directories need their entries read
+        boolean[] related = new boolean[size];
+        for ( int i = 0; i < size; i++ )
+        {
+            for ( int j = i + 1; j < size; j++ )
+            {
+                if ( paths[i].startsWith( paths[j] ) || paths[j].startsWith( paths[i] ) )
+                {
+                    related[i] = true;
+                    related[j] = true;
+                }
+            }
+        }
+
+        // target path -> index of the last archive writing it
+        Map owners = new HashMap();
+        List unreadable = new ArrayList();
+        for ( int i = 0; i < size; i++ )
+        {
+            if ( !related[i] )
+            {
+                continue;
+            }
+
+            List entries = listFiles( (File) archives.get( i ) );
+            if ( entries == null )
+            {
+                unreadable.add( new Integer( i ) );
+                continue;
+            }
+            if ( previousEntries != null && previousEntries.get( i ) != null )
+            {
+                entries.addAll( (Collection) previousEntries.get( i ) );
+            }
+
+            for ( int e = 0; e < entries.size(); e++ )
+            {
+                Integer previous = (Integer) owners.put( paths[i] + entries.get( e ), new Integer( i ) );
+                if ( previous != null )
+                {
+                    union( parent, previous.intValue(), i );
+                }
+            }
+        }
+
+        for ( int u = 0; u < unreadable.size(); u++ )
+        {
+            int i = ( (Integer) unreadable.get( u ) ).intValue();
+            for ( int j = 0; j < size; j++ )
+            {
+                if ( j != i && ( paths[i].startsWith( paths[j] ) || paths[j].startsWith( paths[i] ) ) )
+                {
+                    union( parent, i, j );
+                }
+            }
+        }
+
+        List groups = new ArrayList();
+        Map groupByRoot = new HashMap();
+        for ( int i = 0; i < size; i++ )
+        {
+            Integer root = new Integer( find( parent, i ) );
+            List group = (List) groupByRoot.get( root );
+            if ( group == null )
+            {
+                group = new ArrayList();
+                groupByRoot.put( root, group );
+                groups.add( group );
+            }
+            group.add( new Integer( i ) );
+        }
+        return groups;
+    }
+
+    /**
+     * Lists the file entries of a zip archive from its central directory.
+     *
+     * @param archive the archive.
+     * @return the entry names, or null if the archive is not a readable zip file.
+     */
+    private static List listFiles( File archive )
+    {
+        ZipFile zip = null;
+        try
+        {
+            zip = new ZipFile( archive );
+            List names = new ArrayList( zip.size() );
+            for ( Enumeration e = zip.entries(); e.hasMoreElements(); )
+            {
+                ZipEntry entry = (ZipEntry) e.nextElement();
+                // directories can be created by several archives without harm
+                if ( !entry.isDirectory() )
+                {
+                    names.add( entry.getName() );
+                }
+            }
+            return names;
+        }
+        catch ( IOException e )
+        {
+            return null;
+        }
+        finally
+        {
+            if ( zip != null )
+            {
+                try
+                {
+                    zip.close();
+                }
+                catch ( IOException e )
+                {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    private static int find( int[] parent, int i )
+    {
+        while ( parent[i] != i )
+        {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private static void union( int[] parent, int a, int b )
+    {
+        int rootA = find( parent, a );
+        int rootB = find( parent, b );
+        // any root will do, groups are rebuilt in index order
+        if ( rootA < rootB )
+        {
+            parent[rootB] = rootA;
+        }
+        else if ( rootB < rootA )
+        {
+            parent[rootA] = rootB;
+        }
+    }
+}
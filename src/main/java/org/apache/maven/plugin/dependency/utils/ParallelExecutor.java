@@ -0,0 +1,267 @@
+package org.apache.maven.plugin.dependency.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Runs a list of tasks on a bounded number of worker threads.
+ * <p>
+ * Each task logs into its own {@link BufferedLog}; the buffers are written to the real log in submission order as
+ * soon as every earlier task has finished, so the output reads the same as a serial run. After the first failure no
+ * further tasks are started, the running ones are allowed to finish and all failures are reported together. An
+ * {@link Error} thrown by a task is rethrown on the calling thread once the workers are done.
+ * </p>
+ *
+ * @version $Id$
+ */
+public class ParallelExecutor
+{
+    /**
+     * A unit of work run by the executor.
+     */
+    public interface Task
+    {
+        /**
+         * @param log the log to write to. Messages are buffered until the task's turn comes.
+         * @throws MojoExecutionException if the task fails.
+         */
+        void execute( Log log )
+            throws MojoExecutionException;
+    }
+
+    private final int threads;
+
+    private final Log log;
+
+    private final List tasks = new ArrayList();
+
+    private final List failures = new ArrayList();
+
+    private Error error;
+
+    private BufferedLog[] logs;
+
+    private boolean[] finished;
+
+    private int nextTask;
+
+    private int nextFlush;
+
+    /**
+     * @param theThreads the maximum number of worker threads. A value less than one uses one thread per available
+     *            processor.
+     * @param theLog the log the task output is written to.
+     */
+    public ParallelExecutor( int theThreads, Log theLog )
+    {
+        this.threads = theThreads < 1 ? Runtime.getRuntime().availableProcessors() : theThreads;
+        this.log = theLog;
+    }
+
+    /**
+     * @return the number of worker threads this executor will use at most.
+     */
+    public int getThreads()
+    {
+        return this.threads;
+    }
+
+    /**
+     * Queues a task. Tasks are started in the order they are added.
+     *
+     * @param task the task to add.
+     */
+    public void add( Task task )
+    {
+        tasks.add( task );
+    }
+
+    /**
+     * Runs all queued tasks and waits for them to complete.
+     *
+     * @throws MojoExecutionException if one or more tasks failed.
+     */
+    public void execute()
+        throws MojoExecutionException
+    {
+        int count = Math.min( threads, tasks.size() );
+
+        if ( count <= 1 )
+        {
+            // nothing to gain from a thread, keep the serial semantics
+            for ( Iterator i = tasks.iterator(); i.hasNext(); )
+            {
+                ( (Task) i.next() ).execute( log );
+            }
+            tasks.clear();
+            return;
+        }
+
+        logs = new BufferedLog[tasks.size()];
+        finished = new boolean[tasks.size()];
+        for ( int i = 0; i < logs.length; i++ )
+        {
+            logs[i] = new BufferedLog( log );
+        }
+
+        Thread[] workers = new Thread[count];
+        for ( int i = 0; i < count; i++ )
+        {
+            workers[i] = new Thread( new Worker(), "dependency-worker-" + i );
+            workers[i].setDaemon( true );
+            workers[i].start();
+        }
+
+        try
+        {
+            for ( int i = 0; i < count; i++ )
+            {
+                workers[i].join();
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            synchronized ( this )
+            {
+                failures.add( new MojoExecutionException( "Interrupted while waiting for worker threads", e ) );
+            }
+            Thread.currentThread().interrupt();
+        }
+
+        synchronized ( this )
+        {
+            // tasks that never ran after a failure leave a gap, write out whatever completed behind it
+            for ( ; nextFlush < logs.length; nextFlush++ )
+            {
+                logs[nextFlush].flush();
+            }
+            tasks.clear();
+            logs = null;
+            finished = null;
+            nextTask = 0;
+            nextFlush = 0;
+        }
+
+        if ( error != null )
+        {
+            Error e = error;
+            error = null;
+            failures.clear();
+            throw e;
+        }
+        checkFailures();
+    }
+
+    private void checkFailures()
+        throws MojoExecutionException
+    {
+        if ( failures.isEmpty() )
+        {
+            return;
+        }
+
+        MojoExecutionException first = (MojoExecutionException) failures.get( 0 );
+        if ( failures.size() == 1 )
+        {
+            failures.clear();
+            throw first;
+        }
+
+        StringBuffer message = new StringBuffer();
+        message.append( failures.size() ).append( " tasks failed:" );
+        for ( Iterator i = failures.iterator(); i.hasNext(); )
+        {
+            message.append( "\n  " ).append( ( (Exception) i.next() ).getMessage() );
+        }
+        failures.clear();
+        throw new MojoExecutionException( message.toString(), first );
+    }
+
+    private synchronized int takeTask()
+    {
+        if ( !failures.isEmpty() || nextTask >= tasks.size() )
+        {
+            return -1;
+        }
+        return nextTask++;
+    }
+
+    private synchronized void fatal( Error e )
+    {
+        if ( error == null )
+        {
+            error = e;
+        }
+    }
+
+    private synchronized void complete( int index, MojoExecutionException failure )
+    {
+        if ( failure != null )
+        {
+            failures.add( failure );
+        }
+        finished[index] = true;
+        while ( nextFlush < finished.length && finished[nextFlush] )
+        {
+            logs[nextFlush].flush();
+            nextFlush++;
+        }
+    }
+
+    /**
+     * Pulls tasks until the queue is empty or a task has failed.
+     */
+    private class Worker
+        implements Runnable
+    {
+        public void run()
+        {
+            int index;
+            while ( ( index = takeTask() ) >= 0 )
+            {
+                MojoExecutionException failure = null;
+                try
+                {
+                    ( (Task) tasks.get( index ) ).execute( logs[index] );
+                }
+                catch ( MojoExecutionException e )
+                {
+                    failure = e;
+                }
+                catch ( Error e )
+                {
+                    fatal( e );
+                    failure = new MojoExecutionException( e.toString(), e );
+                }
+                catch ( Throwable e )
+                {
+                    failure = new MojoExecutionException( e.toString(), e );
+                }
+                complete( index, failure );
+            }
+        }
+    }
+}
@@ -0,0 +1,503 @@
+package org.apache.maven.plugin.dependency.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.plexus.util.IOUtil;
+import org.codehaus.plexus.util.SelectorUtils;
+import org.codehaus.plexus.util.StringUtils;
+
+/**
+ * Unpacks selected entries of a zip archive. The entry names are matched against the include and exclude patterns
+ * using the zip central directory only, and just the selected entries are inflated, so extracting a few resources from
+ * a large archive doesn't read the rest of it. Patterns are matched the same way as by the plexus
+ * <code>IncludeExcludeFileSelector</code>: excludes override includes, and a pattern ending with a separator matches
+ * everything below it.
+ * <p>
+ * For incremental unpacks the CRC and size of the extracted entries are recorded in a state file, so the next unpack
+ * of the same archive only writes the entries that changed and removes the ones that disappeared. A removed entry's
+ * file is kept if another state file in the same directory records it for the same location, since another archive
+ * unpacked there wrote it too.
+ * </p>
+ *
+ * @version $Id$
+ */
+public final class ZipUnpacker
+{
+    /**
+     * The extension of state files, the ones sharing a directory are checked before deleting a removed entry.
+     */
+    public static final String STATE_FILE_EXTENSION = ".entries";
+
+    private static final String LOCATION_HEADER = "# location: ";
+
+    private ZipUnpacker()
+    {
+        // no instances
+    }
+
+    /**
+     * Checks for the zip local file header signature, without opening the archive.
+     *
+     * @param file the file to check.
+     * @return true if the file looks like a zip archive.
+     */
+    public static boolean isZipFile( File file )
+    {
+        if ( !file.isFile() || file.length() < 4 )
+        {
+            return false;
+        }
+
+        InputStream in = null;
+        try
+        {
+            in = new FileInputStream( file );
+            byte[] header = new byte[4];
+            if ( in.read( header ) != 4 )
+            {
+                return false;
+            }
+            // local file header, or end of central directory for an empty archive
+            return header[0] == 'P' && header[1] == 'K' && ( ( header[2] == 3 && header[3] == 4 )
+                || ( header[2] == 5 && header[3] == 6 ) );
+        }
+        catch ( IOException e )
+        {
+            return false;
+        }
+        finally
+        {
+            IOUtil.close( in );
+        }
+    }
+
+    /**
+     * Unpacks the entries selected by the patterns.
+     *
+     * @param file the zip archive.
+     * @param location the directory to unpack to.
+     * @param includes comma separated list of patterns to include, empty for all.
+     * @param excludes comma separated list of patterns to exclude, empty for none.
+     * @return the number of files extracted.
+     * @throws IOException if the archive can't be read or a file can't be written.
+     */
+    public static int unpack( File file, File location, String includes, String excludes )
+        throws IOException
+    {
+        String[] includePatterns = parsePatterns( includes );
+        String[] excludePatterns = parsePatterns( excludes );
+        String root = location.getCanonicalPath() + File.separator;
+
+        int count = 0;
+        ZipFile zip = new ZipFile( file );
+        try
+        {
+            for ( Enumeration e = zip.entries(); e.hasMoreElements(); )
+            {
+                ZipEntry entry = (ZipEntry) e.nextElement();
+                if ( !isSelected( entry.getName(), includePatterns, excludePatterns ) )
+                {
+                    continue;
+                }
+
+                File target = new File( location, entry.getName() );
+                if ( !target.getCanonicalPath().startsWith( root ) )
+                {
+                    throw new IOException( "Entry " + entry.getName() + " of " + file + " is outside of " + location );
+                }
+
+                if ( entry.isDirectory() )
+                {
+                    target.mkdirs();
+                }
+                else
+                {
+                    extract( zip, entry, target );
+                    count++;
+                }
+            }
+        }
+        finally
+        {
+            try
+            {
+                zip.close();
+            }
+            catch ( IOException e )
+            {
+                // ignore
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Unpacks the entries selected by the patterns, only writing the ones that changed since the last unpack recorded
+     * in the state file, and deleting the files of entries that are gone unless another state file next to it claims
+     * them for the same location. An entry is unchanged when its CRC and size are the ones recorded and its file is
+     * still there with that size. The state file is rewritten afterwards.
+     *
+     * @param file the zip archive.
+     * @param location the directory to unpack to.
+     * @param includes comma separated list of patterns to include, empty for all.
+     * @param excludes comma separated list of patterns to exclude, empty for none.
+     * @param stateFile the file the extracted entries are recorded in.
+     * @param log used to report what was done at debug level.
+     * @return the number of files written.
+     * @throws IOException if the archive can't be read or a file can't be written.
+     */
+    public static int unpackIncremental( File file, File location, String includes, String excludes,
+                                         File stateFile, Log log )
+        throws IOException
+    {
+        String[] includePatterns = parsePatterns( includes );
+        String[] excludePatterns = parsePatterns( excludes );
+        String root = location.getCanonicalPath() + File.separator;
+        Map previous = readState( stateFile );
+        Map current = new LinkedHashMap();
+
+        int written = 0;
+        ZipFile zip = new ZipFile( file );
+        try
+        {
+            for ( Enumeration e = zip.entries(); e.hasMoreElements(); )
+            {
+                ZipEntry entry = (ZipEntry) e.nextElement();
+                if ( !isSelected( entry.getName(), includePatterns, excludePatterns ) )
+                {
+                    continue;
+                }
+
+                File target = new File( location, entry.getName() );
+                if ( !target.getCanonicalPath().startsWith( root ) )
+                {
+                    throw new IOException( "Entry " + entry.getName() + " of " + file + " is outside of " + location );
+                }
+
+                if ( entry.isDirectory() )
+                {
+                    target.mkdirs();
+                    continue;
+                }
+
+                String state = entry.getCrc() + "," + entry.getSize();
+                current.put( entry.getName(), state );
+                if ( entry.getCrc() == -1 || entry.getSize() == -1 || !state.equals( previous.get( entry.getName() ) )
+                    || !target.isFile() || target.length() != entry.getSize() )
+                {
+                    extract( zip, entry, target );
+                    written++;
+                }
+            }
+        }
+        finally
+        {
+            try
+            {
+                zip.close();
+            }
+            catch ( IOException e )
+            {
+                // ignore
+            }
+        }
+
+        int deleted = 0;
+        Set claimed = null;
+        for ( Iterator i = previous.keySet().iterator(); i.hasNext(); )
+        {
+            String name = (String) i.next();
+            if ( current.containsKey( name ) )
+            {
+                continue;
+            }
+
+            if ( claimed == null )
+            {
+                claimed = readClaimedEntries( stateFile, root );
+            }
+            if ( claimed.contains( name ) )
+            {
+                log.debug( "Keeping " + name + ", it is also unpacked from another archive." );
+            }
+            else if ( new File( location, name ).delete() )
+            {
+                deleted++;
+            }
+        }
+
+        writeState( stateFile, root, current );
+
+        if ( log.isDebugEnabled() )
+        {
+            log.debug( "Unpacked " + file.getName() + " incrementally: " + written + " written, "
+                + ( current.size() - written ) + " unchanged, " + deleted + " deleted." );
+        }
+        return written;
+    }
+
+    /**
+     * Reads the names of the entries recorded in a state file.
+     *
+     * @param stateFile the state file.
+     * @return the entry names, empty if there is no state file.
+     * @throws IOException if the state file can't be read.
+     */
+    public static Set readEntryNames( File stateFile )
+        throws IOException
+    {
+        return readState( stateFile ).keySet();
+    }
+
+    /**
+     * @param stateFile the state file.
+     * @return entry name -> "crc,size", empty if there is no state file.
+     */
+    private static Map readState( File stateFile )
+        throws IOException
+    {
+        Map state = new HashMap();
+        readState( stateFile, state );
+        return state;
+    }
+
+    /**
+     * @param stateFile the state file.
+     * @param state the map to add entry name -> "crc,size" to.
+     * @return the location recorded in the state file, or null if it has none.
+     */
+    private static String readState( File stateFile, Map state )
+        throws IOException
+    {
+        if ( !stateFile.isFile() )
+        {
+            return null;
+        }
+
+        String location = null;
+        BufferedReader reader = new BufferedReader( new InputStreamReader( new FileInputStream( stateFile ), "UTF-8" ) );
+        try
+        {
+            String line;
+            while ( ( line = reader.readLine() ) != null )
+            {
+                if ( line.startsWith( LOCATION_HEADER ) )
+                {
+                    location = line.substring( LOCATION_HEADER.length() );
+                    continue;
+                }
+
+                int tab = line.lastIndexOf( '\t' );
+                if ( tab > 0 && !line.startsWith( "#" ) )
+                {
+                    state.put( line.substring( 0, tab ), line.substring( tab + 1 ) );
+                }
+            }
+        }
+        finally
+        {
+            IOUtil.close( reader );
+        }
+        return location;
+    }
+
+    /**
+     * Collects the entries the other state files in the directory of a state file record for the same location. A
+     * state file without a location claims its entries for every location, as it was written before locations were
+     * recorded.
+     *
+     * @param stateFile the state file of the archive being unpacked.
+     * @param root the canonical location, ending with a separator.
+     * @return the claimed entry names.
+     */
+    private static Set readClaimedEntries( File stateFile, String root )
+        throws IOException
+    {
+        Set claimed = new HashSet();
+        File[] siblings = stateFile.getAbsoluteFile().getParentFile().listFiles();
+        for ( int i = 0; siblings != null && i < siblings.length; i++ )
+        {
+            File sibling = siblings[i];
+            if ( !sibling.getName().endsWith( STATE_FILE_EXTENSION ) || sibling.getName().equals( stateFile.getName() ) )
+            {
+                continue;
+            }
+
+            Map state = new HashMap();
+            String location = readState( sibling, state );
+            if ( location == null || location.equals( root ) )
+            {
+                claimed.addAll( state.keySet() );
+            }
+        }
+        return claimed;
+    }
+
+    private static void writeState( File stateFile, String root, Map state )
+        throws IOException
+    {
+        File parent = stateFile.getAbsoluteFile().getParentFile();
+        parent.mkdirs();
+        File tmp = new File( parent, stateFile.getName() + ".tmp" );
+
+        Writer writer = new OutputStreamWriter( new FileOutputStream( tmp ), "UTF-8" );
+        try
+        {
+            writer.write( "# entries extracted by the maven-dependency-plugin: name<TAB>crc,size\n" );
+            writer.write( LOCATION_HEADER + root + "\n" );
+            for ( Iterator i = state.entrySet().iterator(); i.hasNext(); )
+            {
+                Map.Entry entry = (Map.Entry) i.next();
+                writer.write( entry.getKey() + "\t" + entry.getValue() + "\n" );
+            }
+        }
+        finally
+        {
+            IOUtil.close( writer );
+        }
+
+        stateFile.delete();
+        if ( !tmp.renameTo( stateFile ) )
+        {
+            throw new IOException( "Unable to write " + stateFile );
+        }
+    }
+
+    /**
+     * Writes a single entry to its target file, keeping the entry's timestamp.
+     *
+     * @param zip the open archive.
+     * @param entry the entry to extract.
+     * @param target the file to write.
+     * @throws IOException if the entry can't be extracted.
+     */
+    static void extract( ZipFile zip, ZipEntry entry, File target )
+        throws IOException
+    {
+        File parent = target.getParentFile();
+        if ( parent != null )
+        {
+            parent.mkdirs();
+        }
+
+        InputStream in = null;
+        OutputStream out = null;
+        try
+        {
+            in = zip.getInputStream( entry );
+            out = new FileOutputStream( target );
+            byte[] buffer = new byte[65536];
+            int read;
+            while ( ( read = in.read( buffer ) ) != -1 )
+            {
+                out.write( buffer, 0, read );
+            }
+        }
+        finally
+        {
+            IOUtil.close( in );
+            IOUtil.close( out );
+        }
+
+        if ( entry.getTime() > 0 )
+        {
+            target.setLastModified( entry.getTime() );
+        }
+    }
+
+    /**
+     * @param name the entry name, with '/' separators.
+     * @param includes the include patterns, empty for all.
+     * @param excludes the exclude patterns.
+     * @return true if the entry is included and not excluded.
+     */
+    static boolean isSelected( String name, String[] includes, String[] excludes )
+    {
+        String path = name.replace( '/', File.separatorChar );
+        if ( path.endsWith( File.separator ) )
+        {
+            path = path.substring( 0, path.length() - 1 );
+        }
+
+        boolean included = includes.length == 0;
+        for ( int i = 0; !included && i < includes.length; i++ )
+        {
+            included = SelectorUtils.matchPath( includes[i], path, true );
+        }
+        if ( !included )
+        {
+            return false;
+        }
+
+        for ( int i = 0; i < excludes.length; i++ )
+        {
+            if ( SelectorUtils.matchPath( excludes[i], path, true ) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param patterns comma separated list of patterns, may be empty.
+     * @return the patterns, using the platform separator.
+     */
+    static String[] parsePatterns( String patterns )
+    {
+        if ( StringUtils.isEmpty( patterns ) )
+        {
+            return new String[0];
+        }
+
+        String[] result = patterns.split( "," );
+        for ( int i = 0; i < result.length; i++ )
+        {
+            String pattern = result[i].trim().replace( '/', File.separatorChar ).replace( '\\', File.separatorChar );
+            if ( pattern.endsWith( File.separator ) )
+            {
+                pattern += "**";
+            }
+            result[i] = pattern;
+        }
+        return result;
+    }
+}
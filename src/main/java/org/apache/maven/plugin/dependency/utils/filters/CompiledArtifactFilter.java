@@ -0,0 +1,271 @@
+package org.apache.maven.plugin.dependency.utils.filters;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.resolver.filter.ScopeArtifactFilter;
+import org.apache.maven.shared.artifact.filter.collection.AbstractArtifactsFilter;
+import org.apache.maven.shared.artifact.filter.collection.ArtifactFilterException;
+import org.codehaus.plexus.util.StringUtils;
+
+/**
+ * The transitivity, scope, type, classifier, groupId and artifactId filters of the dependency goals fused into one
+ * predicate. The parameters are parsed once, when the filter is built, into lookup sets, and {@link #filter(Set)}
+ * makes a single pass over the artifacts without intermediate collections. The result is the same as applying
+ * <code>TransitivityFilter</code>, <code>ScopeFilter</code>, <code>TypeFilter</code>, <code>ClassifierFilter</code>,
+ * <code>GroupIdFilter</code> and <code>ArtifactIdFilter</code> one after the other, except that groupIds and
+ * artifactIds may also be given as globs or regular expressions.
+ *
+ * @version $Id$
+ */
+public class CompiledArtifactFilter
+    extends AbstractArtifactsFilter
+{
+    private final Set directDependencies;
+
+    /**
+     * Scope filter for the multi-scope include and exclude values, null if not needed.
+     */
+    private ScopeArtifactFilter scopeFilter;
+
+    /**
+     * The single scope to include or exclude for provided and system, null if not needed.
+     */
+    private String singleScope;
+
+    private boolean excludeScope;
+
+    private final Set includeTypes;
+
+    private final Set excludeTypes;
+
+    private final Set includeClassifiers;
+
+    private final Set excludeClassifiers;
+
+    private final IdMatcher includeGroupIds;
+
+    private final IdMatcher excludeGroupIds;
+
+    private final IdMatcher includeArtifactIds;
+
+    private final IdMatcher excludeArtifactIds;
+
+    /**
+     * Builds the filter.
+     *
+     * @param theDirectDependencies the direct dependencies of the project, only used if transitive dependencies are
+     *            excluded.
+     * @param excludeTransitive keep only the direct dependencies.
+     * @param includeScope the scope to include, as for <code>ScopeFilter</code>.
+     * @param theExcludeScope the scope to exclude, only used without <code>includeScope</code>.
+     * @param includeTypes comma separated types to include.
+     * @param excludeTypes comma separated types to exclude.
+     * @param includeClassifiers comma separated classifiers to include.
+     * @param excludeClassifiers comma separated classifiers to exclude.
+     * @param includeGroupIds comma separated groupId prefixes or patterns to include, see {@link IdMatcher}.
+     * @param excludeGroupIds comma separated groupId prefixes or patterns to exclude.
+     * @param includeArtifactIds comma separated artifactIds or patterns to include.
+     * @param excludeArtifactIds comma separated artifactIds or patterns to exclude.
+     * @throws ArtifactFilterException if a scope or a regular expression is invalid.
+     */
+    public CompiledArtifactFilter( Set theDirectDependencies, boolean excludeTransitive, String includeScope,
+                                   String theExcludeScope, String includeTypes, String excludeTypes,
+                                   String includeClassifiers, String excludeClassifiers, String includeGroupIds,
+                                   String excludeGroupIds, String includeArtifactIds, String excludeArtifactIds )
+        throws ArtifactFilterException
+    {
+        this.directDependencies =
+            excludeTransitive ? new HashSet( theDirectDependencies == null ? new HashSet() : theDirectDependencies )
+                            : null;
+
+        compileScope( includeScope, theExcludeScope );
+
+        this.includeTypes = toSet( includeTypes );
+        this.excludeTypes = toSet( excludeTypes );
+        this.includeClassifiers = toSet( includeClassifiers );
+        this.excludeClassifiers = toSet( excludeClassifiers );
+        this.includeGroupIds = new IdMatcher( "includeGroupIds", includeGroupIds, true );
+        this.excludeGroupIds = new IdMatcher( "excludeGroupIds", excludeGroupIds, true );
+        this.includeArtifactIds = new IdMatcher( "includeArtifactIds", includeArtifactIds, false );
+        this.excludeArtifactIds = new IdMatcher( "excludeArtifactIds", excludeArtifactIds, false );
+    }
+
+    private void compileScope( String includeScope, String theExcludeScope )
+        throws ArtifactFilterException
+    {
+        if ( StringUtils.isNotEmpty( includeScope ) )
+        {
+            if ( !isValidScope( includeScope ) )
+            {
+                throw new ArtifactFilterException( "Invalid Scope in includeScope: " + includeScope );
+            }
+
+            if ( Artifact.SCOPE_PROVIDED.equals( includeScope ) || Artifact.SCOPE_SYSTEM.equals( includeScope ) )
+            {
+                singleScope = includeScope;
+            }
+            else
+            {
+                scopeFilter = new ScopeArtifactFilter( includeScope );
+            }
+        }
+        else if ( StringUtils.isNotEmpty( theExcludeScope ) )
+        {
+            if ( !isValidScope( theExcludeScope ) )
+            {
+                throw new ArtifactFilterException( "Invalid Scope in excludeScope: " + theExcludeScope );
+            }
+
+            if ( Artifact.SCOPE_TEST.equals( theExcludeScope ) )
+            {
+                throw new ArtifactFilterException( " Can't exclude Test scope, this will exclude everything." );
+            }
+
+            excludeScope = true;
+            if ( Artifact.SCOPE_PROVIDED.equals( theExcludeScope ) || Artifact.SCOPE_SYSTEM.equals( theExcludeScope ) )
+            {
+                singleScope = theExcludeScope;
+            }
+            else
+            {
+                scopeFilter = new ScopeArtifactFilter( theExcludeScope );
+            }
+        }
+    }
+
+    private static boolean isValidScope( String scope )
+    {
+        return Artifact.SCOPE_COMPILE.equals( scope ) || Artifact.SCOPE_TEST.equals( scope )
+            || Artifact.SCOPE_PROVIDED.equals( scope ) || Artifact.SCOPE_RUNTIME.equals( scope )
+            || Artifact.SCOPE_SYSTEM.equals( scope );
+    }
+
+    private static String[] split( String value )
+    {
+        if ( StringUtils.isEmpty( value ) )
+        {
+            return new String[0];
+        }
+        String[] values = StringUtils.split( value, "," );
+        for ( int i = 0; i < values.length; i++ )
+        {
+            values[i] = values[i].intern();
+        }
+        return values;
+    }
+
+    private static Set toSet( String value )
+    {
+        String[] values = split( value );
+        if ( values.length == 0 )
+        {
+            return null;
+        }
+
+        Set set = new HashSet();
+        for ( int i = 0; i < values.length; i++ )
+        {
+            set.add( values[i] );
+        }
+        return set;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see org.apache.maven.shared.artifact.filter.collection.ArtifactsFilter#filter(java.util.Set)
+     */
+    public Set filter( Set artifacts )
+    {
+        Set result = new HashSet();
+        for ( Iterator i = artifacts.iterator(); i.hasNext(); )
+        {
+            Artifact artifact = (Artifact) i.next();
+            if ( isIncluded( artifact ) )
+            {
+                result.add( artifact );
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param artifact the artifact to test.
+     * @return true if the artifact passes all the criteria.
+     */
+    public boolean isIncluded( Artifact artifact )
+    {
+        if ( directDependencies != null && !directDependencies.contains( artifact ) )
+        {
+            return false;
+        }
+
+        if ( !isScopeIncluded( artifact ) )
+        {
+            return false;
+        }
+
+        return isFeatureIncluded( artifact.getType(), includeTypes, excludeTypes )
+            && isFeatureIncluded( artifact.getClassifier(), includeClassifiers, excludeClassifiers )
+            && isIdIncluded( artifact.getGroupId(), includeGroupIds, excludeGroupIds )
+            && isIdIncluded( artifact.getArtifactId(), includeArtifactIds, excludeArtifactIds );
+    }
+
+    private boolean isScopeIncluded( Artifact artifact )
+    {
+        boolean matches;
+        if ( singleScope != null )
+        {
+            matches = singleScope.equals( artifact.getScope() );
+        }
+        else if ( scopeFilter != null )
+        {
+            matches = scopeFilter.include( artifact );
+        }
+        else
+        {
+            return true;
+        }
+        return excludeScope ? !matches : matches;
+    }
+
+    private static boolean isFeatureIncluded( String feature, Set includes, Set excludes )
+    {
+        if ( includes != null && !includes.contains( feature ) )
+        {
+            return false;
+        }
+        return excludes == null || !excludes.contains( feature );
+    }
+
+    private static boolean isIdIncluded( String id, IdMatcher includes, IdMatcher excludes )
+    {
+        if ( !includes.isEmpty() && !includes.matches( id ) )
+        {
+            return false;
+        }
+        return excludes.isEmpty() || !excludes.matches( id );
+    }
+}
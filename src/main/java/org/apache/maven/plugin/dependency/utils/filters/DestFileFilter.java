@@ -24,6 +24,7 @@ package org.apache.maven.plugin.dependency.utils.filters;
  */
 
 import java.io.File;
+import java.io.IOException;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
@@ -31,6 +32,7 @@ import java.util.Set;
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.plugin.dependency.fromConfiguration.ArtifactItem;
 import org.apache.maven.plugin.dependency.utils.DependencyUtil;
+import org.apache.maven.plugin.dependency.utils.DigestIndex;
 import org.apache.maven.shared.artifact.filter.collection.AbstractArtifactsFilter;
 import org.apache.maven.shared.artifact.filter.collection.ArtifactFilterException;
 import org.codehaus.plexus.util.StringUtils;
@@ -60,6 +62,12 @@ public class DestFileFilter
 
     File outputFileDirectory;
 
+    /**
+     * When set, an existing destination is compared to the source by content
+     * digest instead of by timestamp.
+     */
+    DigestIndex digestIndex;
+
     public DestFileFilter( File outputFileDirectory )
     {
         this.outputFileDirectory = outputFileDirectory;
@@ -247,7 +255,28 @@ public class DestFileFilter
         this.useRepositoryLayout = useRepositoryLayout;
     }
 
+    /**
+     * 
+     * @return Returns the digestIndex, or null if timestamps are used
+     */
+    public DigestIndex getDigestIndex()
+    {
+        return digestIndex;
+    }
+
+    /**
+     * 
+     * @param digestIndex
+     *            the index used to compare file contents, or null to compare
+     *            timestamps
+     */
+    public void setDigestIndex( DigestIndex digestIndex )
+    {
+        this.digestIndex = digestIndex;
+    }
+
     public boolean isArtifactIncluded( ArtifactItem item )
+        throws ArtifactFilterException
     {
         boolean overWrite = false;
         boolean result = false;
@@ -277,12 +306,33 @@ public class DestFileFilter
             destFile = new File( destFolder, item.getDestFileName() );
         }
 
-        if ( overWrite
-            || ( !destFile.exists() || ( overWriteIfNewer && artifact.getFile().lastModified() > destFile
-                .lastModified() ) ) )
+        if ( overWrite || !destFile.exists() )
+        {
+            result = true;
+        }
+        else if ( digestIndex != null )
+        {
+            result = !isSameContent( artifact.getFile(), destFile );
+        }
+        else if ( overWriteIfNewer && artifact.getFile().lastModified() > destFile.lastModified() )
         {
             result = true;
         }
         return result;
     }
+
+    private boolean isSameContent( File source, File destFile )
+        throws ArtifactFilterException
+    {
+        try
+        {
+            String sourceDigest = digestIndex.getDigest( source );
+            return sourceDigest != null && sourceDigest.equals( digestIndex.getDigest( destFile ) );
+        }
+        catch ( IOException e )
+        {
+            throw new ArtifactFilterException( "Unable to compare " + source + " with " + destFile + ": "
+                + e.getMessage(), e );
+        }
+    }
 }
@@ -0,0 +1,323 @@
+package org.apache.maven.plugin.dependency.utils.filters;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.apache.maven.shared.artifact.filter.collection.ArtifactFilterException;
+import org.codehaus.plexus.util.StringUtils;
+
+/**
+ * Matches ids against a comma separated list of patterns, compiled once. Each entry is one of:
+ * <ul>
+ * <li>a plain id, matched as a prefix (groupIds) or exactly (artifactIds), as the filters always did;</li>
+ * <li>a glob containing <code>*</code> (any characters) or <code>?</code> (one character), matched against the whole
+ * id;</li>
+ * <li>a regular expression prefixed with <code>regex:</code>, matched against the whole id. As the list is comma
+ * separated, the expression itself can't contain a comma.</li>
+ * </ul>
+ * Plain prefixes are stored in a character trie and plain ids in a hash set, so those cost one walk over the id however
+ * many of them are configured. Globs are filed in a second trie under their literal part before the first wildcard,
+ * and only the globs whose literal part starts the id are tried. Regular expressions are compiled and tried one by
+ * one, so their cost grows with their number.
+ *
+ * @version $Id$
+ */
+public class IdMatcher
+{
+    public static final String REGEX_PREFIX = "regex:";
+
+    /**
+     * A trie node. Children are kept in small parallel arrays as the fan-out of ids is low.
+     */
+    private static class Node
+    {
+        char[] keys = new char[0];
+
+        Node[] children = new Node[0];
+
+        boolean terminal;
+
+        /**
+         * Globs whose literal part ends at this node.
+         */
+        Pattern[] globs = new Pattern[0];
+
+        Node child( char c )
+        {
+            for ( int i = 0; i < keys.length; i++ )
+            {
+                if ( keys[i] == c )
+                {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        Node addChild( char c )
+        {
+            Node node = child( c );
+            if ( node == null )
+            {
+                node = new Node();
+
+                char[] newKeys = new char[keys.length + 1];
+                System.arraycopy( keys, 0, newKeys, 0, keys.length );
+                newKeys[keys.length] = c;
+                keys = newKeys;
+
+                Node[] newChildren = new Node[children.length + 1];
+                System.arraycopy( children, 0, newChildren, 0, children.length );
+                newChildren[children.length] = node;
+                children = newChildren;
+            }
+            return node;
+        }
+
+        void addGlob( Pattern glob )
+        {
+            Pattern[] newGlobs = new Pattern[globs.length + 1];
+            System.arraycopy( globs, 0, newGlobs, 0, globs.length );
+            newGlobs[globs.length] = glob;
+            globs = newGlobs;
+        }
+
+        boolean matchesGlob( String id )
+        {
+            for ( int i = 0; i < globs.length; i++ )
+            {
+                if ( globs[i].matcher( id ).matches() )
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private final boolean prefixMatch;
+
+    private Node prefixes;
+
+    private Set ids;
+
+    private Node globs;
+
+    private Pattern[] regexes;
+
+    /**
+     * Compiles the patterns.
+     *
+     * @param name the parameter the patterns come from, used in error messages.
+     * @param patterns the comma separated patterns, may be empty.
+     * @param thePrefixMatch true if plain entries match as a prefix, false if they must match exactly.
+     * @throws ArtifactFilterException if a regular expression is invalid.
+     */
+    public IdMatcher( String name, String patterns, boolean thePrefixMatch )
+        throws ArtifactFilterException
+    {
+        this.prefixMatch = thePrefixMatch;
+
+        if ( StringUtils.isEmpty( patterns ) )
+        {
+            return;
+        }
+
+        List regexList = new ArrayList();
+        String[] entries = StringUtils.split( patterns, "," );
+        for ( int i = 0; i < entries.length; i++ )
+        {
+            String entry = entries[i];
+            if ( entry.startsWith( REGEX_PREFIX ) )
+            {
+                try
+                {
+                    regexList.add( Pattern.compile( entry.substring( REGEX_PREFIX.length() ) ) );
+                }
+                catch ( PatternSyntaxException e )
+                {
+                    throw new ArtifactFilterException( "Invalid pattern in " + name + ": " + entry, e );
+                }
+            }
+            else if ( entry.indexOf( '*' ) >= 0 || entry.indexOf( '?' ) >= 0 )
+            {
+                addGlob( entry );
+            }
+            else
+            {
+                addId( entry );
+            }
+        }
+
+        if ( !regexList.isEmpty() )
+        {
+            regexes = (Pattern[]) regexList.toArray( new Pattern[regexList.size()] );
+        }
+    }
+
+    private void addGlob( String glob )
+    {
+        if ( globs == null )
+        {
+            globs = new Node();
+        }
+        Node node = globs;
+        for ( int i = 0; i < glob.length(); i++ )
+        {
+            char c = glob.charAt( i );
+            if ( c == '*' || c == '?' )
+            {
+                break;
+            }
+            node = node.addChild( c );
+        }
+        node.addGlob( Pattern.compile( globToRegex( glob ) ) );
+    }
+
+    private void addId( String id )
+    {
+        if ( prefixMatch )
+        {
+            if ( prefixes == null )
+            {
+                prefixes = new Node();
+            }
+            Node node = prefixes;
+            for ( int i = 0; i < id.length(); i++ )
+            {
+                node = node.addChild( id.charAt( i ) );
+            }
+            node.terminal = true;
+        }
+        else
+        {
+            if ( ids == null )
+            {
+                ids = new HashSet();
+            }
+            ids.add( id );
+        }
+    }
+
+    /**
+     * Translates a glob into a regular expression.
+     *
+     * @param glob the glob.
+     * @return the equivalent regular expression.
+     */
+    static String globToRegex( String glob )
+    {
+        StringBuffer regex = new StringBuffer( glob.length() + 8 );
+        for ( int i = 0; i < glob.length(); i++ )
+        {
+            char c = glob.charAt( i );
+            if ( c == '*' )
+            {
+                regex.append( ".*" );
+            }
+            else if ( c == '?' )
+            {
+                regex.append( '.' );
+            }
+            else if ( Character.isLetterOrDigit( c ) || c == '-' || c == '_' )
+            {
+                regex.append( c );
+            }
+            else
+            {
+                regex.append( '\\' ).append( c );
+            }
+        }
+        return regex.toString();
+    }
+
+    /**
+     * @return true if no patterns were configured.
+     */
+    public boolean isEmpty()
+    {
+        return prefixes == null && ids == null && globs == null && regexes == null;
+    }
+
+    /**
+     * @param id the id to test.
+     * @return true if one of the patterns matches the id. A null id never matches.
+     */
+    public boolean matches( String id )
+    {
+        if ( id == null )
+        {
+            return false;
+        }
+
+        if ( prefixes != null )
+        {
+            Node node = prefixes;
+            for ( int i = 0; i < id.length() && !node.terminal; i++ )
+            {
+                node = node.child( id.charAt( i ) );
+                if ( node == null )
+                {
+                    break;
+                }
+            }
+            if ( node != null && node.terminal )
+            {
+                return true;
+            }
+        }
+
+        if ( ids != null && ids.contains( id ) )
+        {
+            return true;
+        }
+
+        if ( globs != null )
+        {
+            Node node = globs;
+            for ( int i = 0; node != null; i++ )
+            {
+                if ( node.matchesGlob( id ) )
+                {
+                    return true;
+                }
+                node = i < id.length() ? node.child( id.charAt( i ) ) : null;
+            }
+        }
+
+        if ( regexes != null )
+        {
+            for ( int i = 0; i < regexes.length; i++ )
+            {
+                if ( regexes[i].matcher( id ).matches() )
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,180 @@
+package org.apache.maven.plugin.dependency.utils.markers;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.dependency.fromConfiguration.ArtifactItem;
+import org.codehaus.plexus.util.StringUtils;
+
+/**
+ * Marker handler that keeps its markers in a shared {@link MarkerManifest} instead of one file per artifact. When an
+ * {@link ArtifactItem} with includes or excludes is given, they are part of the key, as with
+ * {@link UnpackFileMarkerHandler}.
+ *
+ * @version $Id$
+ */
+public class ManifestMarkerHandler
+    implements MarkerHandler
+{
+    protected Artifact artifact;
+
+    protected ArtifactItem artifactItem;
+
+    protected MarkerManifest manifest;
+
+    public ManifestMarkerHandler( MarkerManifest theManifest )
+    {
+        this.manifest = theManifest;
+    }
+
+    public ManifestMarkerHandler( Artifact theArtifact, MarkerManifest theManifest )
+    {
+        this( theManifest );
+        setArtifact( theArtifact );
+    }
+
+    public ManifestMarkerHandler( ArtifactItem theArtifactItem, MarkerManifest theManifest )
+    {
+        this( theManifest );
+        setArtifactItem( theArtifactItem );
+    }
+
+    /**
+     * @return the key of the current artifact in the manifest.
+     */
+    protected String getMarkerKey()
+    {
+        String key = this.artifact.getId();
+        if ( this.artifactItem != null )
+        {
+            int includeExcludeHash = 0;
+            if ( StringUtils.isNotEmpty( this.artifactItem.getIncludes() ) )
+            {
+                includeExcludeHash += this.artifactItem.getIncludes().hashCode();
+            }
+            if ( StringUtils.isNotEmpty( this.artifactItem.getExcludes() ) )
+            {
+                includeExcludeHash += this.artifactItem.getExcludes().hashCode();
+            }
+            if ( includeExcludeHash != 0 )
+            {
+                key += ":" + includeExcludeHash;
+            }
+        }
+        return key;
+    }
+
+    public boolean isMarkerSet()
+        throws MojoExecutionException
+    {
+        return manifest.isSet( getMarkerKey() );
+    }
+
+    public boolean isMarkerOlder( Artifact theArtifact )
+        throws MojoExecutionException
+    {
+        String key = getMarkerKey();
+        if ( manifest.isSet( key ) )
+        {
+            return theArtifact.getFile().lastModified() > manifest.getTimestamp( key );
+        }
+        else
+        {
+            // if the marker doesn't exist, we want to copy so assume it is
+            // infinitely older
+            return true;
+        }
+    }
+
+    public void setMarker()
+        throws MojoExecutionException
+    {
+        try
+        {
+            manifest.set( getMarkerKey(), System.currentTimeMillis() );
+        }
+        catch ( IOException e )
+        {
+            throw new MojoExecutionException( "Unable to write marker to " + manifest.getManifestFile(), e );
+        }
+    }
+
+    public boolean clearMarker()
+        throws MojoExecutionException
+    {
+        try
+        {
+            return manifest.clear( getMarkerKey() );
+        }
+        catch ( IOException e )
+        {
+            throw new MojoExecutionException( "Unable to write marker to " + manifest.getManifestFile(), e );
+        }
+    }
+
+    /**
+     * @return Returns the artifact.
+     */
+    public Artifact getArtifact()
+    {
+        return this.artifact;
+    }
+
+    /**
+     * @param theArtifact
+     *            The artifact to set.
+     */
+    public void setArtifact( Artifact theArtifact )
+    {
+        this.artifact = theArtifact;
+    }
+
+    /**
+     * @return Returns the artifactItem.
+     */
+    public ArtifactItem getArtifactItem()
+    {
+        return this.artifactItem;
+    }
+
+    /**
+     * @param theArtifactItem
+     *            The artifactItem to set, which also sets its artifact.
+     */
+    public void setArtifactItem( ArtifactItem theArtifactItem )
+    {
+        this.artifactItem = theArtifactItem;
+        if ( this.artifactItem != null )
+        {
+            setArtifact( this.artifactItem.getArtifact() );
+        }
+    }
+
+    /**
+     * @return Returns the manifest.
+     */
+    public MarkerManifest getManifest()
+    {
+        return this.manifest;
+    }
+}
@@ -0,0 +1,276 @@
+package org.apache.maven.plugin.dependency.utils.markers;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * All the markers of an execution kept in a single file, instead of one file per artifact.
+ * <p>
+ * The file is a log of <code>key&lt;TAB&gt;timestamp</code> lines, where a timestamp of <code>-</code> clears the key
+ * and later lines win. It is read once, in a single channel read, when the manifest is loaded. Markers set afterwards
+ * are appended straight away, so an interrupted build keeps what it finished, and {@link #save()} rewrites the file
+ * with only the live entries.
+ * </p>
+ *
+ * @version $Id$
+ */
+public class MarkerManifest
+{
+    /**
+     * Name of the manifest file inside the markers directory.
+     */
+    public static final String MANIFEST_NAME = "markers.manifest";
+
+    private static final String HEADER = "# maven-dependency-plugin markers";
+
+    private static final Charset UTF_8 = Charset.forName( "UTF-8" );
+
+    private final File manifestFile;
+
+    /**
+     * key -> Long timestamp
+     */
+    private final Map entries = new HashMap();
+
+    private Writer appender;
+
+    private boolean dirty;
+
+    /**
+     * Creates an empty manifest.
+     *
+     * @param theManifestFile the file the manifest is stored in.
+     */
+    public MarkerManifest( File theManifestFile )
+    {
+        this.manifestFile = theManifestFile;
+    }
+
+    /**
+     * @return the file the manifest is stored in.
+     */
+    public File getManifestFile()
+    {
+        return this.manifestFile;
+    }
+
+    /**
+     * Reads the markers stored by previous executions, if any.
+     *
+     * @throws IOException if the existing manifest can't be read.
+     */
+    public synchronized void load()
+        throws IOException
+    {
+        entries.clear();
+        if ( !manifestFile.isFile() || manifestFile.length() == 0 )
+        {
+            return;
+        }
+
+        CharBuffer content;
+        FileInputStream in = new FileInputStream( manifestFile );
+        try
+        {
+            // not mapped: a mapping can't be released on Java 1.4, and a mapped file can't be replaced on Windows
+            FileChannel channel = in.getChannel();
+            ByteBuffer buffer = ByteBuffer.allocate( (int) channel.size() );
+            while ( buffer.hasRemaining() && channel.read( buffer ) != -1 )
+            {
+                // keep reading
+            }
+            buffer.flip();
+            content = UTF_8.decode( buffer );
+        }
+        finally
+        {
+            IOUtil.close( in );
+        }
+
+        int lineStart = 0;
+        int length = content.length();
+        for ( int i = 0; i <= length; i++ )
+        {
+            if ( i == length || content.get( i ) == '\n' )
+            {
+                parseLine( content.subSequence( lineStart, i ).toString() );
+                lineStart = i + 1;
+            }
+        }
+    }
+
+    private void parseLine( String line )
+    {
+        int tab = line.lastIndexOf( '\t' );
+        if ( line.startsWith( "#" ) || tab <= 0 )
+        {
+            return;
+        }
+
+        String key = line.substring( 0, tab );
+        String value = line.substring( tab + 1 ).trim();
+        if ( "-".equals( value ) )
+        {
+            entries.remove( key );
+            return;
+        }
+
+        try
+        {
+            entries.put( key, Long.valueOf( value ) );
+        }
+        catch ( NumberFormatException e )
+        {
+            // a line cut short by an interrupted build, ignore it
+        }
+    }
+
+    /**
+     * @param key the marker key.
+     * @return true if the marker is set.
+     */
+    public synchronized boolean isSet( String key )
+    {
+        return entries.containsKey( key );
+    }
+
+    /**
+     * @param key the marker key.
+     * @return the time the marker was set, or 0 if it isn't.
+     */
+    public synchronized long getTimestamp( String key )
+    {
+        Long timestamp = (Long) entries.get( key );
+        return timestamp == null ? 0 : timestamp.longValue();
+    }
+
+    /**
+     * Sets a marker and appends it to the manifest file.
+     *
+     * @param key the marker key.
+     * @param timestamp the time the marker was set.
+     * @throws IOException if the marker can't be written.
+     */
+    public synchronized void set( String key, long timestamp )
+        throws IOException
+    {
+        entries.put( key, new Long( timestamp ) );
+        append( key, String.valueOf( timestamp ) );
+    }
+
+    /**
+     * Clears a marker.
+     *
+     * @param key the marker key.
+     * @return true if the marker was set.
+     * @throws IOException if the change can't be written.
+     */
+    public synchronized boolean clear( String key )
+        throws IOException
+    {
+        if ( entries.remove( key ) == null )
+        {
+            return false;
+        }
+        append( key, "-" );
+        return true;
+    }
+
+    private void append( String key, String value )
+        throws IOException
+    {
+        if ( appender == null )
+        {
+            boolean exists = manifestFile.isFile();
+            File parent = manifestFile.getAbsoluteFile().getParentFile();
+            parent.mkdirs();
+            appender = new OutputStreamWriter( new FileOutputStream( manifestFile, true ), UTF_8 );
+            if ( !exists )
+            {
+                appender.write( HEADER + "\n" );
+            }
+        }
+        appender.write( key + "\t" + value + "\n" );
+        appender.flush();
+        dirty = true;
+    }
+
+    /**
+     * Rewrites the manifest with only the live markers if it changed. The new content goes to a temporary file that is
+     * then renamed over the manifest, so readers never see a partial file.
+     *
+     * @throws IOException if the manifest can't be written.
+     */
+    public synchronized void save()
+        throws IOException
+    {
+        IOUtil.close( appender );
+        appender = null;
+        if ( !dirty )
+        {
+            return;
+        }
+
+        File parent = manifestFile.getAbsoluteFile().getParentFile();
+        parent.mkdirs();
+        File tmp = new File( parent, manifestFile.getName() + ".tmp" );
+
+        Writer out = new OutputStreamWriter( new FileOutputStream( tmp ), UTF_8 );
+        try
+        {
+            out.write( HEADER + "\n" );
+            for ( Iterator i = entries.entrySet().iterator(); i.hasNext(); )
+            {
+                Map.Entry entry = (Map.Entry) i.next();
+                out.write( entry.getKey() + "\t" + entry.getValue() + "\n" );
+            }
+        }
+        finally
+        {
+            IOUtil.close( out );
+        }
+
+        if ( !tmp.renameTo( manifestFile ) )
+        {
+            // rename can't replace an existing file on all platforms
+            manifestFile.delete();
+            if ( !tmp.renameTo( manifestFile ) )
+            {
+                throw new IOException( "Unable to replace marker manifest " + manifestFile );
+            }
+        }
+        dirty = false;
+    }
+}
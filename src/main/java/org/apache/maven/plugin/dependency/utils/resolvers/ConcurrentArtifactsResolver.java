@@ -0,0 +1,193 @@
+package org.apache.maven.plugin.dependency.utils.resolvers;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.artifact.resolver.ArtifactResolver;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.dependency.utils.ParallelExecutor;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Resolves the artifacts on several threads. Every resolution that may go to the network holds a connection permit,
+ * so no more than <code>maxRemoteResolutions</code> of them run at the same time. The limit is global: the artifact
+ * resolver decides which of the remote repositories it contacts, so a resolution can't be charged to a single one.
+ * Release artifacts already in the local repository don't need a permit.
+ * <p>
+ * Failures are handled as in {@link DefaultArtifactsResolver}: they are logged at debug level and skipped, or, with
+ * <code>stopOnFailure</code>, no further resolution is started and the build fails.
+ * </p>
+ *
+ * @version $Id$
+ */
+public class ConcurrentArtifactsResolver
+    extends DefaultArtifactsResolver
+{
+    int threads;
+
+    /**
+     * Permits for the resolutions that may go to the network, null for no limit.
+     */
+    Permits permits;
+
+    /**
+     * @param theResolver the resolver doing the actual work.
+     * @param theLocal the local repository.
+     * @param theRemoteRepositories the remote repositories.
+     * @param theStopOnFailure fail on the first artifact that can't be resolved.
+     * @param theThreads the number of resolver threads, zero or less for one per available processor.
+     * @param theMaxRemoteResolutions the maximum number of concurrent resolutions that may go to the network, zero or
+     *            less for no limit.
+     */
+    public ConcurrentArtifactsResolver( ArtifactResolver theResolver, ArtifactRepository theLocal,
+                                        List theRemoteRepositories, boolean theStopOnFailure, int theThreads,
+                                        int theMaxRemoteResolutions )
+    {
+        super( theResolver, theLocal, theRemoteRepositories, theStopOnFailure );
+        this.threads = theThreads;
+        this.permits = theMaxRemoteResolutions > 0 ? new Permits( theMaxRemoteResolutions ) : null;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see org.apache.mojo.dependency.utils.resolvers.ArtifactsResolver#resolve(java.util.Set,
+     *      org.apache.maven.plugin.logging.Log)
+     */
+    public Set resolve( Set artifacts, Log log )
+        throws MojoExecutionException
+    {
+        final Set resolvedArtifacts = Collections.synchronizedSet( new HashSet() );
+        ParallelExecutor executor = new ParallelExecutor( this.threads, log );
+        for ( Iterator iter = artifacts.iterator(); iter.hasNext(); )
+        {
+            final Artifact artifact = (Artifact) iter.next();
+            executor.add( new ParallelExecutor.Task()
+            {
+                public void execute( Log taskLog )
+                    throws MojoExecutionException
+                {
+                    if ( resolve( artifact, taskLog ) )
+                    {
+                        resolvedArtifacts.add( artifact );
+                    }
+                }
+            } );
+        }
+        try
+        {
+            executor.execute();
+        }
+        finally
+        {
+            saveNegativeCache( log );
+        }
+        return new HashSet( resolvedArtifacts );
+    }
+
+    protected boolean resolve( Artifact artifact, Log log )
+        throws MojoExecutionException
+    {
+        boolean remote = needsRemoteAccess( artifact );
+        if ( remote )
+        {
+            try
+            {
+                permits.acquire();
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                throw new MojoExecutionException( "Interrupted while waiting for a repository connection", e );
+            }
+        }
+        try
+        {
+            return super.resolve( artifact, log );
+        }
+        finally
+        {
+            if ( remote )
+            {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * @param artifact the artifact to resolve.
+     * @return true if the resolution has to hold a connection permit.
+     */
+    private boolean needsRemoteAccess( Artifact artifact )
+    {
+        if ( permits == null )
+        {
+            // no limit to enforce
+            return false;
+        }
+        if ( negativeCache != null && negativeCache.isMissing( artifact, remoteRepositories ) )
+        {
+            // answered from the cache
+            return false;
+        }
+        if ( artifact.isSnapshot() || local == null )
+        {
+            return true;
+        }
+        return !new File( local.getBasedir(), local.pathOf( artifact ) ).isFile();
+    }
+
+    /**
+     * A counting semaphore.
+     */
+    static class Permits
+    {
+        private int available;
+
+        Permits( int count )
+        {
+            this.available = count;
+        }
+
+        synchronized void acquire()
+            throws InterruptedException
+        {
+            while ( available == 0 )
+            {
+                wait();
+            }
+            available--;
+        }
+
+        synchronized void release()
+        {
+            available++;
+            notify();
+        }
+    }
+}
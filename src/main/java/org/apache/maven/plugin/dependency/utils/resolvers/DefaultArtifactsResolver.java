@@ -24,6 +24,7 @@ package org.apache.maven.plugin.dependency.utils.resolvers;
  * 
  */
 
+import java.io.IOException;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -52,6 +53,10 @@ public class DefaultArtifactsResolver
 
     boolean stopOnFailure;
 
+    NegativeResolutionCache negativeCache;
+
+    ResolutionCache resolutionCache;
+
     public DefaultArtifactsResolver( ArtifactResolver theResolver, ArtifactRepository theLocal,
                                     List theRemoteRepositories, boolean theStopOnFailure )
     {
@@ -76,32 +81,188 @@ public class DefaultArtifactsResolver
         while ( iter.hasNext() )
         {
             Artifact artifact = (Artifact) iter.next();
-            try
+            if ( resolve( artifact, log ) )
             {
-                resolver.resolve( artifact, remoteRepositories, local );
                 resolvedArtifacts.add( artifact );
             }
-            catch ( ArtifactResolutionException ex )
+        }
+        saveNegativeCache( log );
+        return resolvedArtifacts;
+    }
+
+    /**
+     * Resolves a single artifact.
+     * 
+     * @param artifact the artifact to resolve.
+     * @param log the log to report failures to.
+     * @return true if the artifact was resolved.
+     * @throws MojoExecutionException if the artifact can't be resolved and stopOnFailure is set.
+     */
+    protected boolean resolve( Artifact artifact, Log log )
+        throws MojoExecutionException
+    {
+        try
+        {
+            resolveArtifact( artifact );
+            return true;
+        }
+        catch ( ArtifactResolutionException ex )
+        {
+            // an error occurred during resolution, log it an continue
+            log.debug( "error resolving: " + artifact.getId() );
+            log.debug( ex );
+            if ( stopOnFailure )
             {
-                // an error occurred during resolution, log it an continue
-                log.debug( "error resolving: " + artifact.getId() );
-                log.debug( ex );
-                if ( stopOnFailure )
-                {
-                    throw new MojoExecutionException( "error resolving: " + artifact.getId(), ex );
-                }
+                throw new MojoExecutionException( "error resolving: " + artifact.getId(), ex );
+            }
+        }
+        catch ( ArtifactNotFoundException ex )
+        {
+            // not found, log it and continue
+            log.debug( "not found in any repository: " + artifact.getId() );
+            if ( stopOnFailure )
+            {
+                throw new MojoExecutionException( "not found in any repository: " + artifact.getId(), ex );
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Resolves a single artifact, answering from the reactor and negative caches when possible.
+     * 
+     * @param artifact the artifact to resolve.
+     * @throws ArtifactResolutionException if the resolution failed.
+     * @throws ArtifactNotFoundException if the artifact doesn't exist, or is known not to.
+     * @throws MojoExecutionException if interrupted while another thread resolves the same artifact.
+     */
+    private void resolveArtifact( Artifact artifact )
+        throws ArtifactResolutionException, ArtifactNotFoundException, MojoExecutionException
+    {
+        if ( resolutionCache != null )
+        {
+            ResolutionCache.Entry entry;
+            try
+            {
+                entry = resolutionCache.begin( artifact, remoteRepositories );
             }
-            catch ( ArtifactNotFoundException ex )
+            catch ( InterruptedException e )
             {
-                // not found, log it and continue
-                log.debug( "not found in any repository: " + artifact.getId() );
-                if ( stopOnFailure )
+                Thread.currentThread().interrupt();
+                throw new MojoExecutionException( "Interrupted while waiting for the resolution of "
+                    + artifact.getId(), e );
+            }
+
+            if ( entry != null )
+            {
+                // another module of the reactor got there first
+                if ( !entry.isResolved() )
                 {
-                    throw new MojoExecutionException( "not found in any repository: " + artifact.getId(), ex );
+                    throw new ArtifactNotFoundException( "Not found earlier in this build", artifact );
                 }
+                entry.applyTo( artifact );
+                return;
             }
         }
-        return resolvedArtifacts;
+
+        if ( negativeCache != null && negativeCache.isMissing( artifact, remoteRepositories ) )
+        {
+            // keep the recorded time, so the entry still expires
+            if ( resolutionCache != null )
+            {
+                resolutionCache.missing( artifact, remoteRepositories );
+            }
+            throw new ArtifactNotFoundException( "Recorded as missing in " + negativeCache.getCacheFile(), artifact );
+        }
+
+        boolean done = false;
+        try
+        {
+            resolver.resolve( artifact, remoteRepositories, local );
+            if ( negativeCache != null )
+            {
+                negativeCache.remove( artifact, remoteRepositories );
+            }
+            if ( resolutionCache != null )
+            {
+                resolutionCache.resolved( artifact, remoteRepositories );
+            }
+            done = true;
+        }
+        catch ( ArtifactNotFoundException ex )
+        {
+            if ( negativeCache != null )
+            {
+                negativeCache.recordMissing( artifact, remoteRepositories );
+            }
+            if ( resolutionCache != null )
+            {
+                resolutionCache.missing( artifact, remoteRepositories );
+            }
+            done = true;
+            throw ex;
+        }
+        finally
+        {
+            if ( !done && resolutionCache != null )
+            {
+                // let the next module try again
+                resolutionCache.failed( artifact, remoteRepositories );
+            }
+        }
+    }
+
+    /**
+     * @return Returns the reactor wide resolution cache.
+     */
+    public ResolutionCache getResolutionCache()
+    {
+        return this.resolutionCache;
     }
 
+    /**
+     * @param theResolutionCache
+     *            The cache shared by the modules of the build, may be null.
+     */
+    public void setResolutionCache( ResolutionCache theResolutionCache )
+    {
+        this.resolutionCache = theResolutionCache;
+    }
+
+    /**
+     * Writes the negative cache, if any. Failing to do so only costs lookups in the next build, so it is not an error.
+     * 
+     * @param log the log to warn to.
+     */
+    protected void saveNegativeCache( Log log )
+    {
+        if ( negativeCache != null )
+        {
+            try
+            {
+                negativeCache.save();
+            }
+            catch ( IOException e )
+            {
+                log.warn( "Unable to write " + negativeCache.getCacheFile() + ": " + e.getMessage() );
+            }
+        }
+    }
+
+    /**
+     * @return Returns the negative resolution cache.
+     */
+    public NegativeResolutionCache getNegativeCache()
+    {
+        return this.negativeCache;
+    }
+
+    /**
+     * @param theNegativeCache
+     *            The cache of missing artifacts to consult before resolving, may be null.
+     */
+    public void setNegativeCache( NegativeResolutionCache theNegativeCache )
+    {
+        this.negativeCache = theNegativeCache;
+    }
 }
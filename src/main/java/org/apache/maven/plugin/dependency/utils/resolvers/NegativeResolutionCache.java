@@ -0,0 +1,268 @@
+package org.apache.maven.plugin.dependency.utils.resolvers;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * Remembers artifacts that could not be found in a set of remote repositories, so they are not looked up again until
+ * the time to live expires. Typical entries are <code>sources</code> or <code>javadoc</code> classifiers that were never
+ * published.
+ * <p>
+ * Entries are keyed by <code>groupId:artifactId:version:classifier:type</code> and the urls of the repositories that
+ * were searched, and stored in a properties file that is normally shared by every module of a build. Within a JVM all
+ * users of the same file share one instance, which is safe for concurrent use.
+ * </p>
+ *
+ * @version $Id$
+ */
+public class NegativeResolutionCache
+{
+    private static final Map INSTANCES = new HashMap();
+
+    private final File cacheFile;
+
+    private final Properties entries = new Properties();
+
+    private long ttl;
+
+    private boolean dirty;
+
+    /**
+     * Creates an empty cache. {@link #getInstance(File, long)} should be used to share the cache.
+     *
+     * @param theCacheFile the file the cache is stored in.
+     * @param theTtl how long, in milliseconds, an artifact is considered missing.
+     */
+    public NegativeResolutionCache( File theCacheFile, long theTtl )
+    {
+        this.cacheFile = theCacheFile;
+        this.ttl = theTtl;
+    }
+
+    /**
+     * Gets the cache stored in a file, loading it on first use.
+     *
+     * @param cacheFile the file the cache is stored in.
+     * @param ttl how long, in milliseconds, an artifact is considered missing.
+     * @return the shared cache.
+     * @throws IOException if the existing cache can't be read.
+     */
+    public static NegativeResolutionCache getInstance( File cacheFile, long ttl )
+        throws IOException
+    {
+        synchronized ( INSTANCES )
+        {
+            File key = cacheFile.getAbsoluteFile();
+            NegativeResolutionCache cache = (NegativeResolutionCache) INSTANCES.get( key );
+            if ( cache == null )
+            {
+                cache = new NegativeResolutionCache( key, ttl );
+                cache.load();
+                INSTANCES.put( key, cache );
+            }
+            cache.setTtl( ttl );
+            return cache;
+        }
+    }
+
+    /**
+     * @return the file the cache is stored in.
+     */
+    public File getCacheFile()
+    {
+        return this.cacheFile;
+    }
+
+    /**
+     * @param theTtl how long, in milliseconds, an artifact is considered missing.
+     */
+    public synchronized void setTtl( long theTtl )
+    {
+        this.ttl = theTtl;
+    }
+
+    /**
+     * Loads the entries stored by a previous build, if any.
+     *
+     * @throws IOException if the existing cache can't be read.
+     */
+    public synchronized void load()
+        throws IOException
+    {
+        if ( cacheFile.isFile() )
+        {
+            InputStream in = new FileInputStream( cacheFile );
+            try
+            {
+                entries.load( in );
+            }
+            finally
+            {
+                IOUtil.close( in );
+            }
+        }
+    }
+
+    /**
+     * @param artifact the artifact to look up.
+     * @param remoteRepositories the repositories it would be searched in.
+     * @return true if the artifact was not found in these repositories within the time to live.
+     */
+    public synchronized boolean isMissing( Artifact artifact, List remoteRepositories )
+    {
+        String value = entries.getProperty( getKey( artifact, remoteRepositories ) );
+        if ( value == null )
+        {
+            return false;
+        }
+
+        try
+        {
+            return System.currentTimeMillis() - Long.parseLong( value ) < ttl;
+        }
+        catch ( NumberFormatException e )
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Records that an artifact was not found.
+     *
+     * @param artifact the missing artifact.
+     * @param remoteRepositories the repositories it was searched in.
+     */
+    public synchronized void recordMissing( Artifact artifact, List remoteRepositories )
+    {
+        entries.setProperty( getKey( artifact, remoteRepositories ), String.valueOf( System.currentTimeMillis() ) );
+        dirty = true;
+    }
+
+    /**
+     * Forgets an artifact, typically because it was resolved after all.
+     *
+     * @param artifact the artifact.
+     * @param remoteRepositories the repositories it was searched in.
+     */
+    public synchronized void remove( Artifact artifact, List remoteRepositories )
+    {
+        if ( entries.remove( getKey( artifact, remoteRepositories ) ) != null )
+        {
+            dirty = true;
+        }
+    }
+
+    /**
+     * Writes the cache if it changed, leaving out expired entries.
+     *
+     * @throws IOException if the cache can't be written.
+     */
+    public synchronized void save()
+        throws IOException
+    {
+        if ( !dirty )
+        {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        for ( Iterator i = entries.values().iterator(); i.hasNext(); )
+        {
+            try
+            {
+                if ( now - Long.parseLong( (String) i.next() ) >= ttl )
+                {
+                    i.remove();
+                }
+            }
+            catch ( NumberFormatException e )
+            {
+                i.remove();
+            }
+        }
+
+        File parent = cacheFile.getAbsoluteFile().getParentFile();
+        parent.mkdirs();
+        File tmp = new File( parent, cacheFile.getName() + "." + Integer.toHexString( hashCode() ) + ".tmp" );
+
+        OutputStream out = new FileOutputStream( tmp );
+        try
+        {
+            entries.store( out, "Artifacts not found by the maven-dependency-plugin: key=time of the last attempt" );
+        }
+        finally
+        {
+            IOUtil.close( out );
+        }
+
+        if ( !tmp.renameTo( cacheFile ) )
+        {
+            // rename can't replace an existing file on all platforms
+            cacheFile.delete();
+            if ( !tmp.renameTo( cacheFile ) )
+            {
+                tmp.delete();
+                throw new IOException( "Unable to replace negative resolution cache " + cacheFile );
+            }
+        }
+        dirty = false;
+    }
+
+    /**
+     * @param artifact the artifact.
+     * @param remoteRepositories the repositories searched.
+     * @return the key of the artifact in the cache.
+     */
+    static String getKey( Artifact artifact, List remoteRepositories )
+    {
+        StringBuffer key = new StringBuffer();
+        key.append( artifact.getGroupId() ).append( ':' ).append( artifact.getArtifactId() ).append( ':' );
+        key.append( artifact.getVersion() ).append( ':' );
+        key.append( artifact.getClassifier() == null ? "" : artifact.getClassifier() ).append( ':' );
+        key.append( artifact.getType() ).append( '@' );
+        if ( remoteRepositories != null )
+        {
+            for ( Iterator i = remoteRepositories.iterator(); i.hasNext(); )
+            {
+                key.append( ( (ArtifactRepository) i.next() ).getUrl() );
+                if ( i.hasNext() )
+                {
+                    key.append( ',' );
+                }
+            }
+        }
+        return key.toString();
+    }
+}
@@ -0,0 +1,224 @@
+package org.apache.maven.plugin.dependency.utils.resolvers;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.repository.ArtifactRepository;
+
+/**
+ * Translated and resolved artifacts shared by all the modules of a build session, so each coordinate is translated
+ * and resolved at most once per reactor.
+ * <p>
+ * Resolutions are keyed by the full coordinates and the repositories searched. One cache exists per session object
+ * and goes away with it. The cache is safe for concurrent use: when several threads need the same coordinate, the
+ * first one resolves it and the others wait for its result. Only successful resolutions and artifacts that were not
+ * found are shared; after a resolution error the next thread tries again.
+ * </p>
+ *
+ * @version $Id$
+ */
+public class ResolutionCache
+{
+    private static final Map SESSIONS = new WeakHashMap();
+
+    /**
+     * key -> translated Artifact
+     */
+    private final Map translated = new HashMap();
+
+    /**
+     * key -> Entry
+     */
+    private final Map resolved = new HashMap();
+
+    /**
+     * Gets the cache of a build session.
+     *
+     * @param session the session, compared by identity.
+     * @return the cache, created on first use.
+     */
+    public static ResolutionCache getInstance( Object session )
+    {
+        synchronized ( SESSIONS )
+        {
+            ResolutionCache cache = (ResolutionCache) SESSIONS.get( session );
+            if ( cache == null )
+            {
+                cache = new ResolutionCache();
+                SESSIONS.put( session, cache );
+            }
+            return cache;
+        }
+    }
+
+    /**
+     * Gets the artifact translated for the same coordinates and scope before, or stores this one.
+     *
+     * @param artifact a freshly translated artifact.
+     * @return the shared instance for the artifact's coordinates and scope.
+     */
+    public synchronized Artifact shareTranslated( Artifact artifact )
+    {
+        String key = getKey( artifact, null ) + ":" + artifact.getScope();
+        Artifact shared = (Artifact) translated.get( key );
+        if ( shared == null )
+        {
+            translated.put( key, artifact );
+            shared = artifact;
+        }
+        return shared;
+    }
+
+    /**
+     * Starts resolving an artifact. When the artifact was resolved before, or is being resolved by another thread,
+     * the finished entry is returned, waiting for the other thread if needed. Otherwise the caller owns the resolution
+     * and must call {@link #resolved(Artifact)}, {@link #missing(Artifact)} or {@link #failed(Artifact)}.
+     *
+     * @param artifact the artifact to resolve.
+     * @param remoteRepositories the repositories it is resolved from.
+     * @return the finished entry, or null if the caller has to resolve the artifact.
+     * @throws InterruptedException if interrupted while waiting for another thread.
+     */
+    public synchronized Entry begin( Artifact artifact, List remoteRepositories )
+        throws InterruptedException
+    {
+        String key = getKey( artifact, remoteRepositories );
+        while ( true )
+        {
+            Entry entry = (Entry) resolved.get( key );
+            if ( entry == null )
+            {
+                resolved.put( key, new Entry() );
+                return null;
+            }
+            if ( entry.done )
+            {
+                return entry;
+            }
+            wait();
+        }
+    }
+
+    /**
+     * Records a successful resolution.
+     *
+     * @param artifact the resolved artifact.
+     * @param remoteRepositories the repositories it was resolved from.
+     */
+    public synchronized void resolved( Artifact artifact, List remoteRepositories )
+    {
+        Entry entry = new Entry();
+        entry.done = true;
+        entry.file = artifact.getFile();
+        entry.version = artifact.getVersion();
+        resolved.put( getKey( artifact, remoteRepositories ), entry );
+        notifyAll();
+    }
+
+    /**
+     * Records that an artifact could not be found.
+     *
+     * @param artifact the missing artifact.
+     * @param remoteRepositories the repositories it was resolved from.
+     */
+    public synchronized void missing( Artifact artifact, List remoteRepositories )
+    {
+        Entry entry = new Entry();
+        entry.done = true;
+        resolved.put( getKey( artifact, remoteRepositories ), entry );
+        notifyAll();
+    }
+
+    /**
+     * Gives up the resolution of an artifact after an error, letting the next thread try again.
+     *
+     * @param artifact the artifact.
+     * @param remoteRepositories the repositories it was resolved from.
+     */
+    public synchronized void failed( Artifact artifact, List remoteRepositories )
+    {
+        resolved.remove( getKey( artifact, remoteRepositories ) );
+        notifyAll();
+    }
+
+    /**
+     * @param artifact the artifact.
+     * @param remoteRepositories the repositories, may be null.
+     * @return the full coordinates of the artifact and the urls of the repositories.
+     */
+    static String getKey( Artifact artifact, List remoteRepositories )
+    {
+        StringBuffer key = new StringBuffer();
+        key.append( artifact.getGroupId() ).append( ':' ).append( artifact.getArtifactId() ).append( ':' );
+        key.append( artifact.getBaseVersion() ).append( ':' ).append( artifact.getType() ).append( ':' );
+        key.append( artifact.getClassifier() == null ? "" : artifact.getClassifier() );
+        if ( remoteRepositories != null )
+        {
+            key.append( '@' );
+            for ( Iterator i = remoteRepositories.iterator(); i.hasNext(); )
+            {
+                key.append( ( (ArtifactRepository) i.next() ).getUrl() ).append( ',' );
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * The result of a resolution.
+     */
+    public static class Entry
+    {
+        boolean done;
+
+        File file;
+
+        String version;
+
+        /**
+         * @return true if the artifact was resolved, false if it was not found.
+         */
+        public boolean isResolved()
+        {
+            return file != null;
+        }
+
+        /**
+         * Copies the resolution result to another instance of the same artifact.
+         *
+         * @param artifact the artifact to update.
+         */
+        public void applyTo( Artifact artifact )
+        {
+            if ( version != null && !version.equals( artifact.getVersion() ) )
+            {
+                artifact.setVersion( version );
+            }
+            artifact.setFile( file );
+            artifact.setResolved( true );
+        }
+    }
+}
@@ -29,6 +29,7 @@ import java.util.Set;
 
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.factory.ArtifactFactory;
+import org.apache.maven.plugin.dependency.utils.resolvers.ResolutionCache;
 import org.apache.maven.plugin.logging.Log;
 import org.codehaus.plexus.util.StringUtils;
 
@@ -46,6 +47,8 @@ public class ClassifierTypeTranslator
 
     private ArtifactFactory factory;
 
+    private ResolutionCache resolutionCache;
+
     public ClassifierTypeTranslator( String theClassifier, String theType, ArtifactFactory theFactory )
     {
         this.classifier = theClassifier;
@@ -101,12 +104,35 @@ public class ClassifierTypeTranslator
             // reset it here so that it will pass other filters if needed
             newArtifact.setScope( artifact.getScope() );
 
+            if ( resolutionCache != null )
+            {
+                // share the instance with the other modules, it may be resolved already
+                newArtifact = resolutionCache.shareTranslated( newArtifact );
+            }
+
             results.add( newArtifact );
         }
 
         return results;
     }
 
+    /**
+     * @return Returns the resolution cache.
+     */
+    public ResolutionCache getResolutionCache()
+    {
+        return this.resolutionCache;
+    }
+
+    /**
+     * @param theResolutionCache
+     *            The cache translated artifacts are shared through, may be null.
+     */
+    public void setResolutionCache( ResolutionCache theResolutionCache )
+    {
+        this.resolutionCache = theResolutionCache;
+    }
+
     /**
      * @return Returns the type.
      */
@@ -20,13 +20,21 @@ package org.apache.maven.plugin.dependency;
  */
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
 
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.dependency.utils.DependencyUtil;
 import org.apache.maven.plugin.testing.stubs.StubArtifactRepository;
 import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.FileUtils;
 
 public class TestBuildClasspathMojo
     extends AbstractDependencyMojoTestCase
@@ -144,4 +152,225 @@ public class TestBuildClasspathMojo
         mojo.appendArtifactPath( artifact, sb );
         assertEquals("prefix"+File.separator+DependencyUtil.getFormattedFileName( artifact, true ),sb.toString());
     }
+
+    public void testFingerprint()
+        throws Exception
+    {
+        File testPom = new File( getBasedir(), "target/test-classes/unit/build-classpath-test/plugin-config.xml" );
+        BuildClasspathMojo mojo = (BuildClasspathMojo) lookupMojo( "build-classpath", testPom );
+        MavenProject project = mojo.getProject();
+
+        Set artifacts = this.stubFactory.getScopedArtifacts();
+        project.setArtifacts( artifacts );
+        project.setDependencyArtifacts( artifacts );
+
+        File outputFile = new File( testDir, "buildClasspath.txt" );
+        mojo.setCpFile( outputFile );
+        mojo.markersDirectory = new File( testDir, "markers" );
+        mojo.execute();
+
+        assertTrue( outputFile.exists() );
+        String original = mojo.readClasspathFile();
+        File[] fingerprints = mojo.markersDirectory.listFiles();
+        assertEquals( 1, fingerprints.length );
+
+        // unchanged inputs leave the file alone
+        long time = outputFile.lastModified() - 10000;
+        outputFile.setLastModified( time );
+        fingerprints[0].delete();
+        mojo.execute();
+        assertEquals( time, outputFile.lastModified() );
+        mojo.execute();
+        assertEquals( time, outputFile.lastModified() );
+        assertEquals( original, mojo.readClasspathFile() );
+
+        // an edited file is regenerated
+        FileUtils.fileWrite( outputFile.getPath(), "edited" );
+        mojo.execute();
+        assertEquals( original, mojo.readClasspathFile() );
+
+        // so is a file whose inputs changed
+        mojo.setPathSeparator( "%%%%%" );
+        mojo.execute();
+        assertTrue( mojo.readClasspathFile().indexOf( "%%%%%" ) >= 0 );
+    }
+
+    public void testClasspathOrder()
+        throws Exception
+    {
+        File testPom = new File( getBasedir(), "target/test-classes/unit/build-classpath-test/plugin-config.xml" );
+        BuildClasspathMojo mojo = (BuildClasspathMojo) lookupMojo( "build-classpath", testPom );
+        MavenProject project = mojo.getProject();
+
+        Artifact first = stubFactory.createArtifact( "b", "first", "1.0", Artifact.SCOPE_COMPILE, "jar", null );
+        Artifact second = stubFactory.createArtifact( "c", "second", "1.0", Artifact.SCOPE_COMPILE, "jar", null );
+        Artifact transitive = stubFactory.createArtifact( "a", "transitive", "1.0", Artifact.SCOPE_COMPILE, "jar",
+                                                          null );
+
+        Set artifacts = new LinkedHashSet();
+        artifacts.add( transitive );
+        artifacts.add( second );
+        artifacts.add( first );
+        project.setArtifacts( artifacts );
+
+        List dependencies = new ArrayList();
+        dependencies.add( createDependency( first ) );
+        dependencies.add( createDependency( second ) );
+        project.setDependencies( dependencies );
+
+        mojo.setCpFile( new File( testDir, "buildClasspath.txt" ) );
+        mojo.setPrefix( "lib" );
+        mojo.setFileSeparator( "/" );
+        mojo.setPathSeparator( ":" );
+
+        mojo.setClasspathOrder( BuildClasspathMojo.ORDER_SORTED );
+        mojo.execute();
+        assertEquals( "lib/transitive-1.0.jar:lib/first-1.0.jar:lib/second-1.0.jar", mojo.readClasspathFile() );
+
+        mojo.setClasspathOrder( BuildClasspathMojo.ORDER_DECLARATION );
+        mojo.execute();
+        assertEquals( "lib/first-1.0.jar:lib/second-1.0.jar:lib/transitive-1.0.jar", mojo.readClasspathFile() );
+
+        mojo.setClasspathOrder( "random" );
+        try
+        {
+            mojo.execute();
+            fail( "Expected MojoExecutionException" );
+        }
+        catch ( MojoExecutionException e )
+        {
+            // expected
+        }
+    }
+
+    private static Dependency createDependency( Artifact artifact )
+    {
+        Dependency dependency = new Dependency();
+        dependency.setGroupId( artifact.getGroupId() );
+        dependency.setArtifactId( artifact.getArtifactId() );
+        dependency.setVersion( artifact.getVersion() );
+        return dependency;
+    }
+
+    public void testCompare()
+        throws Exception
+    {
+        File testPom = new File( getBasedir(), "target/test-classes/unit/build-classpath-test/plugin-config.xml" );
+        BuildClasspathMojo mojo = (BuildClasspathMojo) lookupMojo( "build-classpath", testPom );
+
+        Artifact a = stubFactory.createArtifact( "ab", "c", "1.0" );
+        Artifact b = stubFactory.createArtifact( "a", "bc", "1.0" );
+        Artifact sources = stubFactory.createArtifact( "a", "bc", "1.0", Artifact.SCOPE_COMPILE, "jar", "sources" );
+
+        // fields are compared one at a time, not concatenated
+        assertTrue( mojo.compare( a, b ) > 0 );
+        assertTrue( mojo.compare( b, a ) < 0 );
+        assertTrue( mojo.compare( b, sources ) < 0 );
+        assertEquals( 0, mojo.compare( a, a ) );
+    }
+
+    public void testStreamedFile()
+        throws Exception
+    {
+        File testPom = new File( getBasedir(), "target/test-classes/unit/build-classpath-test/plugin-config.xml" );
+        BuildClasspathMojo mojo = (BuildClasspathMojo) lookupMojo( "build-classpath", testPom );
+        MavenProject project = mojo.getProject();
+
+        Set artifacts = new LinkedHashSet();
+        artifacts.add( stubFactory.createArtifact( "a", "one", "1.0" ) );
+        artifacts.add( stubFactory.createArtifact( "a", "two", "1.0" ) );
+        project.setArtifacts( artifacts );
+
+        File outputFile = new File( testDir, "buildClasspath.txt" );
+        mojo.setCpFile( outputFile );
+        mojo.setPrefix( "lib\u00e9" );
+        mojo.setFileSeparator( "#" );
+        mojo.setPathSeparator( "%" );
+        mojo.outputFilterFile = true;
+        mojo.execute();
+
+        String expected = "classpath=lib\u00e9#one-1.0.jar%lib\u00e9#two-1.0.jar";
+        assertEquals( expected, mojo.readClasspathFile() );
+        assertFalse( new File( testDir, "buildClasspath.txt.tmp" ).exists() );
+
+        // identical content leaves the file alone
+        long time = outputFile.lastModified() - 10000;
+        outputFile.setLastModified( time );
+        mojo.execute();
+        assertEquals( time, outputFile.lastModified() );
+    }
+
+    private BuildClasspathMojo createFormatMojo( String format, File outputFile )
+        throws Exception
+    {
+        File testPom = new File( getBasedir(), "target/test-classes/unit/build-classpath-test/plugin-config.xml" );
+        BuildClasspathMojo mojo = (BuildClasspathMojo) lookupMojo( "build-classpath", testPom );
+
+        Set artifacts = new LinkedHashSet();
+        artifacts.add( stubFactory.createArtifact( "a", "one", "1.0" ) );
+        artifacts.add( stubFactory.createArtifact( "a", "two", "1.0" ) );
+        mojo.getProject().setArtifacts( artifacts );
+
+        mojo.setCpFile( outputFile );
+        mojo.setPrefix( "lib dir" );
+        mojo.setFileSeparator( "/" );
+        mojo.setPathSeparator( ":" );
+        mojo.setOutputFormat( format );
+        return mojo;
+    }
+
+    public void testListFormat()
+        throws Exception
+    {
+        BuildClasspathMojo mojo = createFormatMojo( BuildClasspathMojo.FORMAT_LIST, new File( testDir, "cp.list" ) );
+        mojo.execute();
+        assertEquals( "lib dir/one-1.0.jar\nlib dir/two-1.0.jar\n",
+                      FileUtils.fileRead( new File( testDir, "cp.list" ).getPath() ) );
+    }
+
+    public void testArgFileFormat()
+        throws Exception
+    {
+        BuildClasspathMojo mojo = createFormatMojo( BuildClasspathMojo.FORMAT_ARGFILE, new File( testDir, "cp.args" ) );
+        mojo.setFileSeparator( "\\" );
+        mojo.execute();
+        assertEquals( "-classpath\n\"lib dir\\\\one-1.0.jar:lib dir\\\\two-1.0.jar\"\n",
+                      FileUtils.fileRead( new File( testDir, "cp.args" ).getPath() ) );
+    }
+
+    public void testManifestJarFormat()
+        throws Exception
+    {
+        File jarFile = new File( testDir, "pathing.jar" );
+        BuildClasspathMojo mojo = createFormatMojo( BuildClasspathMojo.FORMAT_MANIFEST_JAR, jarFile );
+        mojo.execute();
+
+        JarFile jar = new JarFile( jarFile );
+        try
+        {
+            String classPath = jar.getManifest().getMainAttributes().getValue( Attributes.Name.CLASS_PATH );
+            assertEquals( "lib%20dir/one-1.0.jar lib%20dir/two-1.0.jar", classPath );
+        }
+        finally
+        {
+            jar.close();
+        }
+
+        // the jar is byte stable, so an unchanged classpath leaves it alone
+        long time = jarFile.lastModified() - 10000;
+        jarFile.setLastModified( time );
+        mojo.execute();
+        assertEquals( time, jarFile.lastModified() );
+
+        mojo.setCpFile( null );
+        try
+        {
+            mojo.execute();
+            fail( "Expected MojoExecutionException" );
+        }
+        catch ( MojoExecutionException e )
+        {
+            // expected, the jar needs a file
+        }
+    }
 }
@@ -94,6 +94,37 @@ public class TestCopyDependenciesMojo
         assertTrue( dest.exists() );
     }
 
+    public void testCopyFileLinkMode()
+        throws MojoExecutionException, IOException
+    {
+        File src = File.createTempFile( "copy", null );
+
+        File dest = new File( mojo.outputDirectory, "linkMe.jar" );
+
+        assertFalse( dest.exists() );
+
+        mojo.setCopyMode( "link" );
+        mojo.copyFile( src, dest );
+        assertTrue( dest.exists() );
+    }
+
+    public void testCopyFileUnknownMode()
+        throws IOException
+    {
+        File src = File.createTempFile( "copy", null );
+
+        mojo.setCopyMode( "teleport" );
+        try
+        {
+            mojo.copyFile( src, new File( mojo.outputDirectory, "toMe.jar" ) );
+            fail( "Expected MojoExecutionException" );
+        }
+        catch ( MojoExecutionException e )
+        {
+            // expected
+        }
+    }
+
     /**
      * tests the proper discovery and configuration of the mojo
      * 
@@ -116,6 +147,22 @@ public class TestCopyDependenciesMojo
         }
     }
 
+    public void testMultipleThreads()
+        throws Exception
+    {
+        mojo.threads = 4;
+        mojo.execute();
+
+        Iterator iter = mojo.project.getArtifacts().iterator();
+        while ( iter.hasNext() )
+        {
+            Artifact artifact = (Artifact) iter.next();
+            String fileName = DependencyUtil.getFormattedFileName( artifact, false );
+            File file = new File( mojo.outputDirectory, fileName );
+            assertTrue( file.exists() );
+        }
+    }
+
     public void testStripVersion()
         throws Exception
     {
@@ -415,6 +462,21 @@ public class TestCopyDependenciesMojo
         dotestClassifierType( "jdk14", "sources" );
     }
 
+    public void testCDMClassifierSerialResolver()
+        throws Exception
+    {
+        mojo.resolverThreads = 1;
+        dotestClassifierType( "jdk14", null );
+    }
+
+    public void testCDMClassifierConcurrentResolver()
+        throws Exception
+    {
+        mojo.resolverThreads = 4;
+        mojo.maxRemoteResolutions = 2;
+        dotestClassifierType( "jdk14", "sources" );
+    }
+
     public void dotestClassifierType( String testClassifier, String testType )
         throws Exception
     {
@@ -129,6 +129,33 @@ public class TestUnpackDependenciesMojo
         }
     }
 
+    public void testMultipleThreads()
+        throws Exception
+    {
+        mojo.threads = 4;
+        mojo.execute();
+        Iterator iter = mojo.project.getArtifacts().iterator();
+        while ( iter.hasNext() )
+        {
+            Artifact artifact = (Artifact) iter.next();
+            assertUnpacked( artifact );
+        }
+    }
+
+    public void testMultipleThreadsSubPerArtifact()
+        throws Exception
+    {
+        mojo.threads = 4;
+        mojo.useSubDirectoryPerArtifact = true;
+        mojo.execute();
+        Iterator iter = mojo.project.getArtifacts().iterator();
+        while ( iter.hasNext() )
+        {
+            Artifact artifact = (Artifact) iter.next();
+            assertUnpacked( artifact );
+        }
+    }
+
     public void testNoTransitive()
         throws Exception
     {
@@ -0,0 +1,137 @@
+package org.apache.maven.plugin.dependency.analyzer;
+
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.artifact.versioning.VersionRange;
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Model;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.dependency.analyzer.ProjectDependencyAnalysis;
+import org.codehaus.plexus.util.FileUtils;
+
+public class TestAnalysisCache
+    extends TestCase
+{
+    File outputFolder;
+
+    File classFile;
+
+    MavenProject project;
+
+    ProjectDependencyAnalysis analysis;
+
+    protected void setUp()
+        throws Exception
+    {
+        super.setUp();
+
+        outputFolder = new File( "target/analysis-cache/" );
+        FileUtils.deleteDirectory( outputFolder );
+        classFile = new File( outputFolder, "classes/org/test/A.class" );
+        classFile.getParentFile().mkdirs();
+        FileUtils.fileWrite( classFile.getPath(), "A" );
+
+        Model model = new Model();
+        model.setGroupId( "group" );
+        model.setArtifactId( "project" );
+        model.setVersion( "1.0" );
+        Build build = new Build();
+        build.setOutputDirectory( new File( outputFolder, "classes" ).getPath() );
+        build.setTestOutputDirectory( new File( outputFolder, "test-classes" ).getPath() );
+        model.setBuild( build );
+        project = new MavenProject( model );
+
+        Artifact artifact =
+            new DefaultArtifact( "group", "lib", VersionRange.createFromVersion( "1.0" ), Artifact.SCOPE_COMPILE,
+                                 "jar", null, new DefaultArtifactHandler( "jar" ) );
+        project.setArtifacts( Collections.singleton( artifact ) );
+        project.setDependencyArtifacts( Collections.singleton( artifact ) );
+
+        analysis =
+            new ProjectDependencyAnalysis( new HashSet( project.getArtifacts() ), new HashSet(), new HashSet() );
+    }
+
+    protected void tearDown()
+        throws IOException
+    {
+        FileUtils.deleteDirectory( outputFolder );
+    }
+
+    public void testShared()
+    {
+        AnalysisCache cache = AnalysisCache.getInstance( this );
+        assertSame( cache, AnalysisCache.getInstance( this ) );
+
+        assertNull( cache.get( project ) );
+        ProjectDependencyAnalysis shared = cache.put( project, analysis );
+        assertEquals( analysis.getUsedDeclaredArtifacts(), shared.getUsedDeclaredArtifacts() );
+        assertSame( shared, cache.get( project ) );
+
+        try
+        {
+            shared.getUsedDeclaredArtifacts().clear();
+            fail( "Expected UnsupportedOperationException" );
+        }
+        catch ( UnsupportedOperationException e )
+        {
+            // expected
+        }
+
+        // another session analyzes again
+        assertNull( AnalysisCache.getInstance( new Object() ).get( project ) );
+    }
+
+    public void testChangedClasses()
+        throws IOException
+    {
+        AnalysisCache cache = AnalysisCache.getInstance( this );
+        cache.put( project, analysis );
+
+        FileUtils.fileWrite( classFile.getPath(), "AB" );
+        assertNull( cache.get( project ) );
+
+        cache.put( project, analysis );
+        assertNotNull( cache.get( project ) );
+
+        new File( outputFolder, "test-classes" ).mkdirs();
+        FileUtils.fileWrite( new File( outputFolder, "test-classes/ATest.class" ).getPath(), "T" );
+        assertNull( cache.get( project ) );
+    }
+
+    public void testChangedDependencies()
+    {
+        AnalysisCache cache = AnalysisCache.getInstance( this );
+        cache.put( project, analysis );
+
+        project.setDependencyArtifacts( Collections.EMPTY_SET );
+        assertNull( cache.get( project ) );
+    }
+}
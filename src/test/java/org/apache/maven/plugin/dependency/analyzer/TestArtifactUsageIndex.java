@@ -0,0 +1,125 @@
+package org.apache.maven.plugin.dependency.analyzer;
+
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.artifact.versioning.VersionRange;
+import org.apache.maven.shared.dependency.analyzer.ProjectDependencyAnalysis;
+
+public class TestArtifactUsageIndex
+    extends TestCase
+{
+    private static Artifact createArtifact( String artifactId, String version )
+    {
+        return new DefaultArtifact( "group", artifactId, VersionRange.createFromVersion( version ),
+                                    Artifact.SCOPE_COMPILE, "jar", null, new DefaultArtifactHandler( "jar" ) );
+    }
+
+    private static Set set( Object[] values )
+    {
+        return new HashSet( Arrays.asList( values ) );
+    }
+
+    public void testAnalyze()
+    {
+        Artifact lib1 = createArtifact( "lib1", "1.0" );
+        Artifact lib2 = createArtifact( "lib2", "1.0" );
+        Artifact lib3 = createArtifact( "lib3", "1.0" );
+        Artifact lib4 = createArtifact( "lib4", "1.0" );
+
+        ArtifactUsageIndex index = new ArtifactUsageIndex();
+        index.addReferencedClasses( set( new String[] { "org.lib1.L1", "org.lib2.L2", "java.lang.String" } ) );
+        index.addReferencedClasses( set( new String[] { "org.lib1.L1", "org.lib4.L4" } ) );
+        assertEquals( 4, index.getReferencedClassCount() );
+
+        index.addArtifact( lib1, new String[] { "org.lib1.L1", "org.lib1.Other" } );
+        // L1 belongs to lib1, which comes first
+        index.addArtifact( lib2, new String[] { "org.lib1.L1", "org.lib2.L2" } );
+        index.addArtifact( lib3, new String[] { "org.lib1.L1", "org.lib3.L3" } );
+        index.addArtifact( lib4, null );
+        assertEquals( 6, index.getDependencyClassCount() );
+
+        // lib1 is declared with another version, lib5 is not on the classpath
+        Artifact declaredLib1 = createArtifact( "lib1", "0.9" );
+        Artifact declaredLib3 = createArtifact( "lib3", "1.0" );
+        Artifact declaredLib5 = createArtifact( "lib5", "1.0" );
+        ProjectDependencyAnalysis analysis =
+            index.analyze( set( new Artifact[] { declaredLib1, declaredLib3, declaredLib5 } ) );
+
+        // like the default analyzer, the declared lib1 is unused and the resolved one used undeclared
+        assertEquals( Collections.EMPTY_SET, analysis.getUsedDeclaredArtifacts() );
+        assertEquals( set( new Artifact[] { lib1, lib2 } ), analysis.getUsedUndeclaredArtifacts() );
+        assertEquals( set( new Artifact[] { declaredLib1, declaredLib3, declaredLib5 } ),
+                      analysis.getUnusedDeclaredArtifacts() );
+    }
+
+    public void testEqualArtifactsShareUsage()
+    {
+        ArtifactUsageIndex index = new ArtifactUsageIndex();
+        index.addReferencedClasses( Collections.singleton( "org.lib1.L1" ) );
+        index.addArtifact( createArtifact( "lib1", "1.0" ), new String[0] );
+        index.addArtifact( createArtifact( "lib1", "1.0" ), new String[] { "org.lib1.L1" } );
+
+        Artifact declaredLib1 = createArtifact( "lib1", "1.0" );
+        ProjectDependencyAnalysis analysis = index.analyze( Collections.singleton( declaredLib1 ) );
+        assertEquals( Collections.singleton( declaredLib1 ), analysis.getUsedDeclaredArtifacts() );
+        assertEquals( Collections.EMPTY_SET, analysis.getUsedUndeclaredArtifacts() );
+        assertEquals( Collections.EMPTY_SET, analysis.getUnusedDeclaredArtifacts() );
+    }
+
+    public void testUsedDeclared()
+    {
+        Artifact lib1 = createArtifact( "lib1", "1.0" );
+
+        ArtifactUsageIndex index = new ArtifactUsageIndex();
+        index.addReferencedClasses( Collections.singleton( "org.lib1.L1" ) );
+        index.addArtifact( lib1, new String[] { "org.lib1.L1" } );
+
+        ProjectDependencyAnalysis analysis = index.analyze( Collections.singleton( createArtifact( "lib1", "1.0" ) ) );
+        assertEquals( Collections.singleton( lib1 ), analysis.getUsedDeclaredArtifacts() );
+        assertEquals( Collections.EMPTY_SET, analysis.getUsedUndeclaredArtifacts() );
+        assertEquals( Collections.EMPTY_SET, analysis.getUnusedDeclaredArtifacts() );
+    }
+
+    public void testReferencedClassesFirst()
+    {
+        ArtifactUsageIndex index = new ArtifactUsageIndex();
+        index.addArtifact( createArtifact( "lib1", "1.0" ), new String[0] );
+        try
+        {
+            index.addReferencedClasses( Collections.singleton( "org.lib1.L1" ) );
+            fail( "Expected IllegalStateException" );
+        }
+        catch ( IllegalStateException e )
+        {
+            // expected
+        }
+    }
+}
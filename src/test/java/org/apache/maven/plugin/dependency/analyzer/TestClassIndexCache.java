@@ -0,0 +1,138 @@
+package org.apache.maven.plugin.dependency.analyzer;
+
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.plugin.dependency.utils.DigestIndex;
+import org.codehaus.plexus.util.FileUtils;
+
+public class TestClassIndexCache
+    extends TestCase
+{
+    File outputFolder;
+
+    File jar;
+
+    protected void setUp()
+        throws Exception
+    {
+        super.setUp();
+
+        outputFolder = new File( "target/class-index-cache/" );
+        FileUtils.deleteDirectory( outputFolder );
+        outputFolder.mkdirs();
+
+        jar = new File( outputFolder, "test.jar" );
+        JarOutputStream out = new JarOutputStream( new FileOutputStream( jar ) );
+        try
+        {
+            String[] entries =
+                new String[] { "org/", "org/test/", "org/test/b/Second.class", "org/test/First.class",
+                    "org/test/First$Inner.class", "META-INF/test.properties" };
+            for ( int i = 0; i < entries.length; i++ )
+            {
+                out.putNextEntry( new JarEntry( entries[i] ) );
+                out.closeEntry();
+            }
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+
+    protected void tearDown()
+        throws IOException
+    {
+        FileUtils.deleteDirectory( outputFolder );
+    }
+
+    private ClassIndexCache createCache()
+    {
+        return new ClassIndexCache( new File( outputFolder, "cache" ),
+                                    new DigestIndex( new File( outputFolder, "digests.properties" ) ) );
+    }
+
+    private static void assertNames( String[] expected, String[] actual )
+    {
+        assertEquals( expected.length, actual.length );
+        for ( int i = 0; i < expected.length; i++ )
+        {
+            assertEquals( expected[i], actual[i] );
+        }
+    }
+
+    public void testScan()
+        throws IOException
+    {
+        String[] names = createCache().getClassNames( jar );
+
+        assertNames( new String[] { "org.test.First", "org.test.First$Inner", "org.test.b.Second" }, names );
+    }
+
+    public void testCached()
+        throws IOException
+    {
+        ClassIndexCache cache = createCache();
+        cache.getClassNames( jar );
+        cache.save();
+
+        File indexFile = cache.getIndexFile( DigestIndex.computeDigest( jar ) );
+        assertTrue( indexFile.isFile() );
+
+        // a later build reads the index instead of the jar
+        String[] names = new String[] { "a.A", "a.AB", "a.b.C", "b.C" };
+        ClassIndexCache.writeTable( indexFile, names );
+        assertNames( names, createCache().getClassNames( jar ) );
+    }
+
+    public void testCorruptIndex()
+        throws IOException
+    {
+        ClassIndexCache cache = createCache();
+        File indexFile = cache.getIndexFile( DigestIndex.computeDigest( jar ) );
+        indexFile.getParentFile().mkdirs();
+        FileUtils.fileWrite( indexFile.getPath(), "garbage" );
+
+        assertEquals( 3, cache.getClassNames( jar ).length );
+        assertEquals( 3, ClassIndexCache.readTable( indexFile ).length );
+    }
+
+    public void testMissingJar()
+    {
+        try
+        {
+            createCache().getClassNames( new File( outputFolder, "missing.jar" ) );
+            fail( "Expected IOException" );
+        }
+        catch ( IOException e )
+        {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package org.apache.maven.plugin.dependency.analyzer;
+
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.plugin.dependency.utils.DigestIndex;
+import org.codehaus.plexus.util.FileUtils;
+
+public class TestClassReferenceCache
+    extends TestCase
+{
+    File outputFolder;
+
+    protected void setUp()
+        throws Exception
+    {
+        super.setUp();
+
+        outputFolder = new File( "target/class-reference-cache/" );
+        FileUtils.deleteDirectory( outputFolder );
+        outputFolder.mkdirs();
+    }
+
+    protected void tearDown()
+        throws IOException
+    {
+        FileUtils.deleteDirectory( outputFolder );
+    }
+
+    private ClassReferenceCache loadCache()
+        throws IOException
+    {
+        ClassReferenceCache cache =
+            new ClassReferenceCache( new File( outputFolder, "references.dat" ),
+                                     new DigestIndex( new File( outputFolder, "digests.properties" ) ) );
+        cache.load();
+        return cache;
+    }
+
+    public void testSaveAndLoad()
+        throws IOException
+    {
+        ClassReferenceCache cache = loadCache();
+        assertNull( cache.getReferences( "aa" ) );
+        cache.putReferences( "aa", new String[] { "java.lang.String", "org.test.A" } );
+        cache.putReferences( "bb", new String[] { "java.lang.String" } );
+        cache.save();
+
+        cache = loadCache();
+        String[] references = cache.getReferences( "aa" );
+        assertEquals( 2, references.length );
+        assertEquals( "java.lang.String", references[0] );
+        assertEquals( "org.test.A", references[1] );
+        // the names are stored once
+        assertSame( references[0], cache.getReferences( "bb" )[0] );
+    }
+
+    public void testUnusedEntriesAreDropped()
+        throws IOException
+    {
+        ClassReferenceCache cache = loadCache();
+        cache.putReferences( "aa", new String[] { "org.test.A" } );
+        cache.putReferences( "bb", new String[] { "org.test.B" } );
+        cache.save();
+
+        cache = loadCache();
+        cache.getReferences( "aa" );
+        cache.save();
+
+        cache = loadCache();
+        assertNotNull( cache.getReferences( "aa" ) );
+        assertNull( cache.getReferences( "bb" ) );
+    }
+
+    public void testDigest()
+        throws IOException
+    {
+        File classFile = new File( outputFolder, "A.class" );
+        FileUtils.fileWrite( classFile.getPath(), "content" );
+
+        ClassReferenceCache cache = loadCache();
+        assertEquals( DigestIndex.computeDigest( classFile ), cache.getDigest( classFile ) );
+
+        try
+        {
+            cache.getDigest( new File( outputFolder, "Missing.class" ) );
+            fail( "Expected IOException" );
+        }
+        catch ( IOException e )
+        {
+            // expected
+        }
+    }
+}
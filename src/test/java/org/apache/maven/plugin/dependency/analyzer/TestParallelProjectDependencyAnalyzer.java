@@ -0,0 +1,272 @@
+package org.apache.maven.plugin.dependency.analyzer;
+
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.artifact.versioning.VersionRange;
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Model;
+import org.apache.maven.plugin.dependency.utils.DependencySilentLog;
+import org.apache.maven.plugin.dependency.utils.DigestIndex;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.dependency.analyzer.ClassAnalyzer;
+import org.apache.maven.shared.dependency.analyzer.DependencyAnalyzer;
+import org.apache.maven.shared.dependency.analyzer.ProjectDependencyAnalysis;
+import org.apache.maven.shared.dependency.analyzer.ProjectDependencyAnalyzerException;
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.IOUtil;
+
+public class TestParallelProjectDependencyAnalyzer
+    extends TestCase
+{
+    /**
+     * Dependency analyzer reading the referenced class names from the fake class files.
+     */
+    static class StubDependencyAnalyzer
+        implements DependencyAnalyzer
+    {
+        public Set analyze( URL url )
+            throws IOException
+        {
+            Set classes = new HashSet();
+            List files = FileUtils.getFiles( new File( url.getPath() ), "**/*.class", null );
+            for ( int i = 0; i < files.size(); i++ )
+            {
+                String content = FileUtils.fileRead( ( (File) files.get( i ) ).getPath() );
+                classes.addAll( Arrays.asList( content.split( "," ) ) );
+            }
+            return classes;
+        }
+    }
+
+    /**
+     * Analyzer parsing single class files the way the stub dependency analyzer does.
+     */
+    static class StubParallelProjectDependencyAnalyzer
+        extends ParallelProjectDependencyAnalyzer
+    {
+        int classFiles;
+
+        StubParallelProjectDependencyAnalyzer()
+        {
+            super( new StubClassAnalyzer(), new StubDependencyAnalyzer(), null, 4, new DependencySilentLog() );
+        }
+
+        protected Set parseClass( String className, InputStream in )
+            throws IOException
+        {
+            synchronized ( this )
+            {
+                classFiles++;
+            }
+            return new HashSet( Arrays.asList( IOUtil.toString( in ).split( "," ) ) );
+        }
+    }
+
+    static class StubClassAnalyzer
+        implements ClassAnalyzer
+    {
+        public Set analyze( URL url )
+        {
+            return Collections.EMPTY_SET;
+        }
+    }
+
+    File outputFolder;
+
+    File classes;
+
+    File testClasses;
+
+    protected void setUp()
+        throws Exception
+    {
+        super.setUp();
+
+        outputFolder = new File( "target/parallel-analyzer/" );
+        FileUtils.deleteDirectory( outputFolder );
+        classes = new File( outputFolder, "classes" );
+        testClasses = new File( outputFolder, "test-classes" );
+
+        writeClass( classes, "com/a/A.class", "org.lib1.L1" );
+        writeClass( classes, "com/a/sub/B.class", "org.lib2.L2" );
+        writeClass( classes, "com/b/C.class", "java.lang.String" );
+        writeClass( testClasses, "T.class", "com.a.A" );
+        new File( classes, "META-INF" ).mkdirs();
+    }
+
+    protected void tearDown()
+        throws IOException
+    {
+        FileUtils.deleteDirectory( outputFolder );
+    }
+
+    private static void writeClass( File directory, String path, String references )
+        throws IOException
+    {
+        File file = new File( directory, path );
+        file.getParentFile().mkdirs();
+        FileUtils.fileWrite( file.getPath(), references );
+    }
+
+    private Artifact createArtifact( String artifactId, String[] entries )
+        throws IOException
+    {
+        File jar = new File( outputFolder, artifactId + ".jar" );
+        JarOutputStream out = new JarOutputStream( new FileOutputStream( jar ) );
+        try
+        {
+            for ( int i = 0; i < entries.length; i++ )
+            {
+                out.putNextEntry( new JarEntry( entries[i] ) );
+                out.closeEntry();
+            }
+        }
+        finally
+        {
+            out.close();
+        }
+
+        Artifact artifact =
+            new DefaultArtifact( "group", artifactId, VersionRange.createFromVersion( "1.0" ), Artifact.SCOPE_COMPILE,
+                                 "jar", null, new DefaultArtifactHandler( "jar" ) );
+        artifact.setFile( jar );
+        return artifact;
+    }
+
+    public void testCollectClassDirectories()
+    {
+        List units = new ArrayList();
+        ParallelProjectDependencyAnalyzer.collectClassDirectories( classes, units );
+        ParallelProjectDependencyAnalyzer.collectClassDirectories( testClasses, units );
+        ParallelProjectDependencyAnalyzer.collectClassDirectories( new File( outputFolder, "missing" ), units );
+
+        Collections.sort( units );
+        assertEquals( Arrays.asList( new File[] { new File( classes, "com/a" ), new File( classes, "com/b" ),
+            testClasses } ), units );
+    }
+
+    private MavenProject createProject()
+        throws IOException
+    {
+        Artifact lib1 = createArtifact( "lib1", new String[] { "org/lib1/L1.class" } );
+        // also contains L1, but comes second on the classpath
+        Artifact lib2 = createArtifact( "lib2", new String[] { "org/lib1/L1.class", "org/lib2/L2.class" } );
+        Artifact lib3 = createArtifact( "lib3", new String[] { "org/lib3/L3.class" } );
+
+        Model model = new Model();
+        Build build = new Build();
+        build.setOutputDirectory( classes.getPath() );
+        build.setTestOutputDirectory( testClasses.getPath() );
+        model.setBuild( build );
+        MavenProject project = new MavenProject( model );
+        project.setArtifacts( new LinkedHashSet( Arrays.asList( new Artifact[] { lib1, lib2, lib3 } ) ) );
+        project.setDependencyArtifacts( new HashSet( Arrays.asList( new Artifact[] { lib1, lib3 } ) ) );
+        return project;
+    }
+
+    private static Artifact getArtifact( MavenProject project, String artifactId )
+    {
+        for ( Iterator i = project.getArtifacts().iterator(); i.hasNext(); )
+        {
+            Artifact artifact = (Artifact) i.next();
+            if ( artifact.getArtifactId().equals( artifactId ) )
+            {
+                return artifact;
+            }
+        }
+        return null;
+    }
+
+    private void assertAnalysis( MavenProject project, ProjectDependencyAnalysis analysis )
+    {
+        assertEquals( Collections.singleton( getArtifact( project, "lib1" ) ), analysis.getUsedDeclaredArtifacts() );
+        assertEquals( Collections.singleton( getArtifact( project, "lib2" ) ), analysis.getUsedUndeclaredArtifacts() );
+        assertEquals( Collections.singleton( getArtifact( project, "lib3" ) ), analysis.getUnusedDeclaredArtifacts() );
+    }
+
+    public void testAnalyze()
+        throws IOException, ProjectDependencyAnalyzerException
+    {
+        MavenProject project = createProject();
+
+        ParallelProjectDependencyAnalyzer analyzer =
+            new ParallelProjectDependencyAnalyzer( new StubClassAnalyzer(), new StubDependencyAnalyzer(), null, 4,
+                                                   new DependencySilentLog() );
+
+        assertAnalysis( project, analyzer.analyze( project ) );
+    }
+
+    private ProjectDependencyAnalysis analyzeIncrementally( MavenProject project,
+                                                           StubParallelProjectDependencyAnalyzer analyzer )
+        throws IOException, ProjectDependencyAnalyzerException
+    {
+        ClassReferenceCache references =
+            new ClassReferenceCache( new File( outputFolder, "references.dat" ),
+                                     new DigestIndex( new File( outputFolder, "digests.properties" ) ) );
+        references.load();
+
+        analyzer.setReferenceCache( references );
+        return analyzer.analyze( project );
+    }
+
+    public void testIncremental()
+        throws IOException, ProjectDependencyAnalyzerException
+    {
+        MavenProject project = createProject();
+
+        StubParallelProjectDependencyAnalyzer analyzer = new StubParallelProjectDependencyAnalyzer();
+        assertAnalysis( project, analyzeIncrementally( project, analyzer ) );
+        assertEquals( 4, analyzer.classFiles );
+
+        // nothing changed, nothing is parsed
+        analyzer = new StubParallelProjectDependencyAnalyzer();
+        assertAnalysis( project, analyzeIncrementally( project, analyzer ) );
+        assertEquals( 0, analyzer.classFiles );
+
+        // B doesn't use lib2 anymore, only B is parsed
+        writeClass( classes, "com/a/sub/B.class", "java.lang.Object" );
+        analyzer = new StubParallelProjectDependencyAnalyzer();
+        ProjectDependencyAnalysis analysis = analyzeIncrementally( project, analyzer );
+        assertEquals( 1, analyzer.classFiles );
+        assertEquals( Collections.EMPTY_SET, analysis.getUsedUndeclaredArtifacts() );
+    }
+}
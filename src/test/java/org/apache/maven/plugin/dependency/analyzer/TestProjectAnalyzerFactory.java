@@ -0,0 +1,110 @@
+package org.apache.maven.plugin.dependency.analyzer;
+
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.artifact.repository.DefaultArtifactRepository;
+import org.apache.maven.artifact.repository.layout.DefaultRepositoryLayout;
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Model;
+import org.apache.maven.plugin.dependency.utils.DependencySilentLog;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.dependency.analyzer.ProjectDependencyAnalysis;
+import org.apache.maven.shared.dependency.analyzer.ProjectDependencyAnalyzerException;
+import org.codehaus.plexus.util.FileUtils;
+
+public class TestProjectAnalyzerFactory
+    extends TestCase
+{
+    File outputFolder;
+
+    MavenProject project;
+
+    ProjectAnalyzerFactory factory;
+
+    protected void setUp()
+        throws Exception
+    {
+        super.setUp();
+
+        outputFolder = new File( "target/analyzer-factory/" );
+        FileUtils.deleteDirectory( outputFolder );
+        File classFile = new File( outputFolder, "classes/org/test/A.class" );
+        classFile.getParentFile().mkdirs();
+        FileUtils.fileWrite( classFile.getPath(), "java.lang.String" );
+
+        Model model = new Model();
+        model.setGroupId( "group" );
+        model.setArtifactId( "project" );
+        model.setVersion( "1.0" );
+        Build build = new Build();
+        build.setDirectory( outputFolder.getPath() );
+        build.setOutputDirectory( new File( outputFolder, "classes" ).getPath() );
+        build.setTestOutputDirectory( new File( outputFolder, "test-classes" ).getPath() );
+        model.setBuild( build );
+        project = new MavenProject( model );
+        project.setArtifacts( Collections.EMPTY_SET );
+        project.setDependencyArtifacts( Collections.EMPTY_SET );
+
+        factory =
+            new ProjectAnalyzerFactory( new TestParallelProjectDependencyAnalyzer.StubClassAnalyzer(),
+                                        new TestParallelProjectDependencyAnalyzer.StubDependencyAnalyzer(),
+                                        new DependencySilentLog() );
+    }
+
+    protected void tearDown()
+        throws IOException
+    {
+        FileUtils.deleteDirectory( outputFolder );
+    }
+
+    public void testClassIndexDirectory()
+        throws IOException
+    {
+        assertNull( factory.getClassIndexDirectory() );
+
+        File repository = new File( outputFolder, "repository" ).getAbsoluteFile();
+        factory.setLocalRepository( new DefaultArtifactRepository( "local", repository.toURI().toURL().toString(),
+                                                                   new DefaultRepositoryLayout() ) );
+        assertEquals( new File( repository, ".cache/maven-dependency-plugin/class-index" ).getPath(),
+                      factory.getClassIndexDirectory().getPath() );
+
+        File directory = new File( outputFolder, "index" );
+        factory.setClassIndexDirectory( directory );
+        assertEquals( directory, factory.getClassIndexDirectory() );
+    }
+
+    public void testShareAnalysis()
+        throws ProjectDependencyAnalyzerException
+    {
+        ProjectDependencyAnalysis analysis = factory.analyze( project );
+        assertNotSame( analysis, factory.analyze( project ) );
+
+        factory.setSession( new Object() );
+        analysis = factory.analyze( project );
+        assertSame( analysis, factory.analyze( project ) );
+    }
+}
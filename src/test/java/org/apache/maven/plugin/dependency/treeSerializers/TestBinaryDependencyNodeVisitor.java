@@ -0,0 +1,144 @@
+package org.apache.maven.plugin.dependency.treeSerializers;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.artifact.versioning.VersionRange;
+import org.apache.maven.shared.dependency.tree.DependencyNode;
+import org.codehaus.plexus.util.FileUtils;
+
+public class TestBinaryDependencyNodeVisitor
+    extends TestCase
+{
+    File outputFolder;
+
+    protected void setUp()
+        throws Exception
+    {
+        super.setUp();
+
+        outputFolder = new File( "target/binary-tree/" );
+        FileUtils.deleteDirectory( outputFolder );
+        outputFolder.mkdirs();
+    }
+
+    protected void tearDown()
+        throws IOException
+    {
+        FileUtils.deleteDirectory( outputFolder );
+    }
+
+    private static DependencyNode createNode( String groupId, String artifactId, String scope, String classifier )
+    {
+        Artifact artifact =
+            new DefaultArtifact( groupId, artifactId, VersionRange.createFromVersion( "1.0" ), scope, "jar",
+                                 classifier, new DefaultArtifactHandler( "jar" ) );
+        return new DependencyNode( artifact );
+    }
+
+    private File export( DependencyNode root )
+        throws IOException
+    {
+        File file = new File( outputFolder, "tree.bin" );
+        OutputStream out = new FileOutputStream( file );
+        try
+        {
+            BinaryDependencyNodeVisitor visitor = new BinaryDependencyNodeVisitor( out );
+            root.accept( visitor );
+            assertNull( visitor.getFailure() );
+        }
+        finally
+        {
+            out.close();
+        }
+        return file;
+    }
+
+    public void testRoundTrip()
+        throws IOException
+    {
+        DependencyNode root = createNode( "group", "root", null, null );
+        DependencyNode a = createNode( "group", "a", Artifact.SCOPE_COMPILE, null );
+        DependencyNode a1 = createNode( "other", "a1", Artifact.SCOPE_TEST, "sources" );
+        DependencyNode b = createNode( "group", "b", Artifact.SCOPE_RUNTIME, null );
+        root.addChild( a );
+        a.addChild( a1 );
+        root.addChild( b );
+
+        BinaryDependencyTree tree = new BinaryDependencyTree( export( root ) );
+
+        assertEquals( 4, tree.getNodeCount() );
+        // group, root, 1.0, jar, a, other, a1, sources, b
+        assertEquals( 9, tree.getStringCount() );
+
+        assertEquals( -1, tree.getParent( 0 ) );
+        assertEquals( "root", tree.getArtifactId( 0 ) );
+        assertNull( tree.getScope( 0 ) );
+
+        assertEquals( 0, tree.getParent( 1 ) );
+        assertEquals( "a", tree.getArtifactId( 1 ) );
+        assertEquals( Artifact.SCOPE_COMPILE, tree.getScope( 1 ) );
+
+        assertEquals( 1, tree.getParent( 2 ) );
+        assertEquals( "other:a1:jar:sources:1.0", tree.getId( 2 ) );
+        assertEquals( Artifact.SCOPE_TEST, tree.getScope( 2 ) );
+        assertEquals( DependencyNode.INCLUDED, tree.getState( 2 ) );
+
+        assertEquals( 0, tree.getParent( 3 ) );
+        assertEquals( "group:b:jar:1.0", tree.getId( 3 ) );
+        assertNull( tree.getClassifier( 3 ) );
+        assertEquals( Artifact.SCOPE_RUNTIME, tree.getScope( 3 ) );
+
+        try
+        {
+            tree.getParent( 4 );
+            fail( "Expected IndexOutOfBoundsException" );
+        }
+        catch ( IndexOutOfBoundsException e )
+        {
+            // expected
+        }
+    }
+
+    public void testNotATree()
+        throws IOException
+    {
+        File file = new File( outputFolder, "text.txt" );
+        FileUtils.fileWrite( file.getPath(), "not a tree at all" );
+        try
+        {
+            new BinaryDependencyTree( file );
+            fail( "Expected IOException" );
+        }
+        catch ( IOException e )
+        {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package org.apache.maven.plugin.dependency.treeSerializers;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.artifact.versioning.VersionRange;
+import org.apache.maven.shared.dependency.tree.DependencyNode;
+import org.apache.maven.shared.dependency.tree.filter.DependencyNodeFilter;
+import org.apache.maven.shared.dependency.tree.traversal.SerializingDependencyNodeVisitor;
+
+public class TestFilteringTreeDependencyNodeVisitor
+    extends TestCase
+{
+    DependencyNode root;
+
+    DependencyNode a;
+
+    DependencyNode a1;
+
+    DependencyNode a2;
+
+    DependencyNode b;
+
+    DependencyNode b1;
+
+    DependencyNode c;
+
+    protected void setUp()
+        throws Exception
+    {
+        super.setUp();
+
+        root = createNode( "root" );
+        a = createNode( "a" );
+        a1 = createNode( "a1" );
+        a2 = createNode( "a2" );
+        b = createNode( "b" );
+        b1 = createNode( "b1" );
+        c = createNode( "c" );
+
+        root.addChild( a );
+        a.addChild( a1 );
+        a.addChild( a2 );
+        root.addChild( b );
+        b.addChild( b1 );
+        root.addChild( c );
+    }
+
+    private static DependencyNode createNode( String artifactId )
+    {
+        Artifact artifact =
+            new DefaultArtifact( "group", artifactId, VersionRange.createFromVersion( "1.0" ), Artifact.SCOPE_COMPILE,
+                                 "jar", null, new DefaultArtifactHandler( "jar" ) );
+        return new DependencyNode( artifact );
+    }
+
+    private String serialize( DependencyNodeFilter filter )
+    {
+        StringWriter writer = new StringWriter();
+        root.accept( new FilteringTreeDependencyNodeVisitor( new PrintWriter( writer ),
+                                                             SerializingDependencyNodeVisitor.STANDARD_TOKENS,
+                                                             filter ) );
+        return writer.toString();
+    }
+
+    private static String lines( String[] lines )
+    {
+        StringWriter writer = new StringWriter();
+        PrintWriter printWriter = new PrintWriter( writer );
+        for ( int i = 0; i < lines.length; i++ )
+        {
+            printWriter.println( lines[i] );
+        }
+        printWriter.flush();
+        return writer.toString();
+    }
+
+    private static DependencyNodeFilter acceptArtifactIds( final String ids )
+    {
+        return new DependencyNodeFilter()
+        {
+            public boolean accept( DependencyNode node )
+            {
+                return ( "," + ids + "," ).indexOf( "," + node.getArtifact().getArtifactId() + "," ) >= 0;
+            }
+        };
+    }
+
+    public void testUnfiltered()
+    {
+        String expected =
+            lines( new String[] { root.toNodeString(), "+- " + a.toNodeString(), "|  +- " + a1.toNodeString(),
+                "|  \\- " + a2.toNodeString(), "+- " + b.toNodeString(), "|  \\- " + b1.toNodeString(),
+                "\\- " + c.toNodeString() } );
+        assertEquals( expected, serialize( null ) );
+    }
+
+    public void testFilteredKeepsAncestors()
+    {
+        String expected =
+            lines( new String[] { root.toNodeString(), "+- " + a.toNodeString(), "|  \\- " + a1.toNodeString(),
+                "\\- " + b.toNodeString(), "   \\- " + b1.toNodeString() } );
+        assertEquals( expected, serialize( acceptArtifactIds( "a1,b1" ) ) );
+    }
+
+    public void testFilteredInnerNode()
+    {
+        String expected = lines( new String[] { root.toNodeString(), "\\- " + b.toNodeString() } );
+        assertEquals( expected, serialize( acceptArtifactIds( "root,b" ) ) );
+    }
+
+    public void testNothingAccepted()
+    {
+        assertEquals( "", serialize( acceptArtifactIds( "none" ) ) );
+    }
+}
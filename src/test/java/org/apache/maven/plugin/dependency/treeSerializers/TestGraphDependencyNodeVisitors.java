@@ -0,0 +1,142 @@
+package org.apache.maven.plugin.dependency.treeSerializers;
+
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.artifact.versioning.VersionRange;
+import org.apache.maven.shared.dependency.tree.DependencyNode;
+import org.apache.maven.shared.dependency.tree.filter.DependencyNodeFilter;
+
+public class TestGraphDependencyNodeVisitors
+    extends TestCase
+{
+    DependencyNode root;
+
+    DependencyNode a;
+
+    DependencyNode a1;
+
+    DependencyNode b;
+
+    DependencyNode b1;
+
+    protected void setUp()
+        throws Exception
+    {
+        super.setUp();
+
+        root = createNode( "root", null );
+        a = createNode( "a", Artifact.SCOPE_COMPILE );
+        a1 = createNode( "a1", Artifact.SCOPE_TEST );
+        b = createNode( "b", Artifact.SCOPE_COMPILE );
+        // same artifact as a1, a different node
+        b1 = createNode( "a1", Artifact.SCOPE_TEST );
+
+        root.addChild( a );
+        a.addChild( a1 );
+        root.addChild( b );
+        b.addChild( b1 );
+    }
+
+    private static DependencyNode createNode( String artifactId, String scope )
+    {
+        Artifact artifact =
+            new DefaultArtifact( "group", artifactId, VersionRange.createFromVersion( "1.0" ), scope, "jar", null,
+                                 new DefaultArtifactHandler( "jar" ) );
+        return new DependencyNode( artifact );
+    }
+
+    private static String lines( String[] lines )
+    {
+        StringWriter writer = new StringWriter();
+        PrintWriter printWriter = new PrintWriter( writer );
+        for ( int i = 0; i < lines.length; i++ )
+        {
+            printWriter.println( lines[i] );
+        }
+        printWriter.flush();
+        return writer.toString();
+    }
+
+    public void testTGF()
+    {
+        StringWriter writer = new StringWriter();
+        root.accept( new TGFDependencyNodeVisitor( writer ) );
+
+        String expected =
+            lines( new String[] { "0 " + root.toNodeString(), "1 " + a.toNodeString(), "2 " + a1.toNodeString(),
+                "3 " + b.toNodeString(), "4 " + b1.toNodeString(), "#", "1 2 test", "0 1 compile", "3 4 test",
+                "0 3 compile" } );
+        assertEquals( expected, writer.toString() );
+    }
+
+    public void testDOT()
+    {
+        StringWriter writer = new StringWriter();
+        root.accept( new DOTDependencyNodeVisitor( writer ) );
+
+        String dot = writer.toString();
+        assertTrue( dot.startsWith( "digraph \"" + root.toNodeString() + "\" { " ) );
+        assertTrue( dot.indexOf( "\t2 [label=\"" + a1.toNodeString() + "\"] ; " ) > 0 );
+        assertTrue( dot.indexOf( "\t4 [label=\"" + b1.toNodeString() + "\"] ; " ) > 0 );
+        assertTrue( dot.indexOf( "\t1 -> 2 ; " ) > 0 );
+        assertTrue( dot.indexOf( "\t3 -> 4 ; " ) > 0 );
+        assertTrue( dot.endsWith( " } " ) );
+    }
+
+    public void testGraphml()
+    {
+        StringWriter writer = new StringWriter();
+        root.accept( new GraphmlDependencyNodeVisitor( writer ) );
+
+        String graphml = writer.toString();
+        assertTrue( graphml.indexOf( "<node id=\"4\">" ) > 0 );
+        assertTrue( graphml.indexOf( "<edge source=\"3\" target=\"4\">" ) > 0 );
+        assertTrue( graphml.endsWith( "</graph></graphml>" ) );
+    }
+
+    public void testPruning()
+    {
+        DependencyNodeFilter filter = new DependencyNodeFilter()
+        {
+            public boolean accept( DependencyNode node )
+            {
+                return node == b1;
+            }
+        };
+
+        StringWriter writer = new StringWriter();
+        root.accept( new PruningDependencyNodeVisitor( new TGFDependencyNodeVisitor( writer ),
+                                                       new SubtreeSelector( filter ) ) );
+
+        String expected =
+            lines( new String[] { "0 " + root.toNodeString(), "1 " + b.toNodeString(), "2 " + b1.toNodeString(),
+                "#", "1 2 test", "0 1 compile" } );
+        assertEquals( expected, writer.toString() );
+    }
+}
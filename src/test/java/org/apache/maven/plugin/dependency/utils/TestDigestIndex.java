@@ -0,0 +1,110 @@
+package org.apache.maven.plugin.dependency.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+
+import junit.framework.TestCase;
+
+import org.codehaus.plexus.util.FileUtils;
+
+public class TestDigestIndex
+    extends TestCase
+{
+    private static final String ABC_SHA1 = "a9993e364706816aba3e25717850c26c9cd0d89d";
+
+    File outputFolder;
+
+    File file;
+
+    protected void setUp()
+        throws Exception
+    {
+        super.setUp();
+
+        outputFolder = new File( "target/digest-index/" );
+        FileUtils.deleteDirectory( outputFolder );
+        outputFolder.mkdirs();
+
+        file = new File( outputFolder, "file.jar" );
+        FileUtils.fileWrite( file.getPath(), "abc" );
+    }
+
+    protected void tearDown()
+        throws IOException
+    {
+        FileUtils.deleteDirectory( outputFolder );
+    }
+
+    public void testComputeDigest()
+        throws IOException
+    {
+        assertEquals( ABC_SHA1, DigestIndex.computeDigest( file ) );
+    }
+
+    public void testMissingFile()
+        throws IOException
+    {
+        DigestIndex index = new DigestIndex( new File( outputFolder, "index.properties" ) );
+        assertNull( index.getDigest( new File( outputFolder, "missing.jar" ) ) );
+    }
+
+    public void testSidecarIsUsed()
+        throws IOException
+    {
+        String published = "0123456789abcdef0123456789abcdef01234567";
+        File sidecar = new File( file.getPath() + ".sha1" );
+        FileUtils.fileWrite( sidecar.getPath(), published.toUpperCase() + "  file.jar" );
+        sidecar.setLastModified( file.lastModified() + 1000 );
+
+        DigestIndex index = new DigestIndex( new File( outputFolder, "index.properties" ) );
+        assertEquals( published, index.getDigest( file ) );
+    }
+
+    public void testInvalidSidecarIsIgnored()
+        throws IOException
+    {
+        File sidecar = new File( file.getPath() + ".sha1" );
+        FileUtils.fileWrite( sidecar.getPath(), "<html>not found</html>" );
+        sidecar.setLastModified( file.lastModified() + 1000 );
+
+        DigestIndex index = new DigestIndex( new File( outputFolder, "index.properties" ) );
+        assertEquals( ABC_SHA1, index.getDigest( file ) );
+    }
+
+    public void testRecordedDigestSurvivesReload()
+        throws IOException
+    {
+        File indexFile = new File( outputFolder, "markers/index.properties" );
+        DigestIndex index = new DigestIndex( indexFile );
+        index.record( file, "recorded" );
+        index.save();
+        assertTrue( indexFile.exists() );
+
+        DigestIndex reloaded = new DigestIndex( indexFile );
+        reloaded.load();
+        assertEquals( "recorded", reloaded.getDigest( file ) );
+
+        // a changed timestamp invalidates the entry
+        file.setLastModified( file.lastModified() - 10000 );
+        assertEquals( ABC_SHA1, reloaded.getDigest( file ) );
+    }
+}
@@ -0,0 +1,153 @@
+package org.apache.maven.plugin.dependency.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.plexus.util.FileUtils;
+
+public class TestFileCopyUtil
+    extends TestCase
+{
+    File outputFolder;
+
+    File source;
+
+    Log log = new DependencySilentLog();
+
+    protected void setUp()
+        throws Exception
+    {
+        super.setUp();
+
+        outputFolder = new File( "target/copy-util/" );
+        FileUtils.deleteDirectory( outputFolder );
+        outputFolder.mkdirs();
+
+        source = new File( outputFolder, "source.jar" );
+        FileUtils.fileWrite( source.getPath(), "some content" );
+    }
+
+    protected void tearDown()
+        throws IOException
+    {
+        FileUtils.deleteDirectory( outputFolder );
+    }
+
+    private void assertCopied( String mode )
+        throws IOException
+    {
+        File dest = new File( outputFolder, mode + "/dest.jar" );
+        FileCopyUtil.copyFile( source, dest, mode, log );
+        assertTrue( dest.exists() );
+        assertEquals( "some content", FileUtils.fileRead( dest.getPath() ) );
+
+        // a second copy over an existing file must work too
+        FileCopyUtil.copyFile( source, dest, mode, log );
+        assertEquals( "some content", FileUtils.fileRead( dest.getPath() ) );
+    }
+
+    public void testCopy()
+        throws IOException
+    {
+        assertCopied( FileCopyUtil.MODE_COPY );
+    }
+
+    public void testTransfer()
+        throws IOException
+    {
+        assertCopied( FileCopyUtil.MODE_TRANSFER );
+    }
+
+    public void testLink()
+        throws IOException
+    {
+        assertCopied( FileCopyUtil.MODE_LINK );
+    }
+
+    public void testReflink()
+        throws IOException
+    {
+        assertCopied( FileCopyUtil.MODE_REFLINK );
+    }
+
+    public void testDefaultMode()
+        throws IOException
+    {
+        assertCopied( null );
+    }
+
+    private void assertCopyOverLinkKeepsSource( String mode )
+        throws IOException
+    {
+        File dest = new File( outputFolder, "linked/dest.jar" );
+        FileCopyUtil.copyFile( source, dest, FileCopyUtil.MODE_LINK, log );
+
+        long length = source.length();
+        FileCopyUtil.copyFile( source, dest, mode, log );
+        assertEquals( length, source.length() );
+        assertEquals( "some content", FileUtils.fileRead( source.getPath() ) );
+        assertEquals( "some content", FileUtils.fileRead( dest.getPath() ) );
+    }
+
+    public void testTransferOverLink()
+        throws IOException
+    {
+        assertCopyOverLinkKeepsSource( FileCopyUtil.MODE_TRANSFER );
+    }
+
+    public void testCopyOverLink()
+        throws IOException
+    {
+        assertCopyOverLinkKeepsSource( FileCopyUtil.MODE_COPY );
+    }
+
+    public void testSameFile()
+        throws IOException
+    {
+        FileCopyUtil.copyFile( source, new File( outputFolder, "./source.jar" ), null, log );
+        assertEquals( "some content", FileUtils.fileRead( source.getPath() ) );
+    }
+
+    public void testMissingSource()
+    {
+        try
+        {
+            FileCopyUtil.transfer( new File( outputFolder, "missing.jar" ), new File( outputFolder, "dest.jar" ) );
+            fail( "Expected IOException" );
+        }
+        catch ( IOException e )
+        {
+            // expected
+        }
+    }
+
+    public void testValidModes()
+    {
+        assertTrue( FileCopyUtil.isValidMode( null ) );
+        assertTrue( FileCopyUtil.isValidMode( "" ) );
+        assertTrue( FileCopyUtil.isValidMode( "link" ) );
+        assertFalse( FileCopyUtil.isValidMode( "symlink" ) );
+    }
+}
@@ -0,0 +1,76 @@
+package org.apache.maven.plugin.dependency.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+public class TestLogWriter
+    extends TestCase
+{
+    /**
+     * Log that only records info messages.
+     */
+    private static class RecordingLog
+        extends DependencySilentLog
+    {
+        List messages = new ArrayList();
+
+        public void info( CharSequence content )
+        {
+            messages.add( content.toString() );
+        }
+    }
+
+    public void testLines()
+    {
+        RecordingLog log = new RecordingLog();
+        LogWriter writer = new LogWriter( log );
+        writer.write( "first\nsec".toCharArray(), 0, 9 );
+        assertEquals( 1, log.messages.size() );
+
+        writer.write( "ond\r\n\rlast".toCharArray(), 0, 10 );
+        assertEquals( 3, log.messages.size() );
+
+        writer.close();
+        assertEquals( 4, log.messages.size() );
+        assertEquals( "first", log.messages.get( 0 ) );
+        assertEquals( "second", log.messages.get( 1 ) );
+        assertEquals( "", log.messages.get( 2 ) );
+        assertEquals( "last", log.messages.get( 3 ) );
+    }
+
+    public void testPrintWriter()
+    {
+        RecordingLog log = new RecordingLog();
+        PrintWriter writer = new PrintWriter( new LogWriter( log ) );
+        writer.println( "one" );
+        writer.print( "two" );
+        writer.println();
+        writer.close();
+
+        assertEquals( 2, log.messages.size() );
+        assertEquals( "one", log.messages.get( 0 ) );
+        assertEquals( "two", log.messages.get( 1 ) );
+    }
+}
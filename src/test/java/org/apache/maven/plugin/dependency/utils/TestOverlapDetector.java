@@ -0,0 +1,159 @@
+package org.apache.maven.plugin.dependency.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import junit.framework.TestCase;
+
+import org.codehaus.plexus.util.FileUtils;
+
+public class TestOverlapDetector
+    extends TestCase
+{
+    File outputFolder;
+
+    List archives = new ArrayList();
+
+    List destinations = new ArrayList();
+
+    protected void setUp()
+        throws Exception
+    {
+        super.setUp();
+
+        outputFolder = new File( "target/overlap/" );
+        FileUtils.deleteDirectory( outputFolder );
+        outputFolder.mkdirs();
+    }
+
+    protected void tearDown()
+        throws IOException
+    {
+        FileUtils.deleteDirectory( outputFolder );
+    }
+
+    private void addArchive( String name, String[] entries, String destination )
+        throws IOException
+    {
+        File archive = new File( outputFolder, name );
+        ZipOutputStream out = new ZipOutputStream( new FileOutputStream( archive ) );
+        try
+        {
+            for ( int i = 0; i < entries.length; i++ )
+            {
+                out.putNextEntry( new ZipEntry( entries[i] ) );
+                out.closeEntry();
+            }
+        }
+        finally
+        {
+            out.close();
+        }
+        archives.add( archive );
+        destinations.add( new File( outputFolder, destination ) );
+    }
+
+    private void assertGroup( List groups, int group, int[] indexes )
+    {
+        List actual = (List) groups.get( group );
+        assertEquals( indexes.length, actual.size() );
+        for ( int i = 0; i < indexes.length; i++ )
+        {
+            assertEquals( indexes[i], ( (Integer) actual.get( i ) ).intValue() );
+        }
+    }
+
+    public void testSeparateDirectories()
+        throws IOException
+    {
+        addArchive( "a.jar", new String[] { "x.txt" }, "out/a" );
+        addArchive( "b.jar", new String[] { "x.txt" }, "out/b" );
+
+        List groups = OverlapDetector.groupOverlapping( archives, destinations );
+        assertEquals( 2, groups.size() );
+    }
+
+    public void testSameDirectory()
+        throws IOException
+    {
+        addArchive( "a.jar", new String[] { "META-INF/", "a.txt" }, "out" );
+        addArchive( "b.jar", new String[] { "META-INF/", "b.txt" }, "out" );
+        addArchive( "c.jar", new String[] { "a.txt" }, "out" );
+
+        List groups = OverlapDetector.groupOverlapping( archives, destinations );
+        assertEquals( 2, groups.size() );
+        assertGroup( groups, 0, new int[] { 0, 2 } );
+        assertGroup( groups, 1, new int[] { 1 } );
+    }
+
+    public void testNestedDirectory()
+        throws IOException
+    {
+        addArchive( "a.jar", new String[] { "sub/x.txt" }, "out" );
+        addArchive( "b.jar", new String[] { "y.txt" }, "out" );
+        addArchive( "c.jar", new String[] { "x.txt" }, "out/sub" );
+
+        List groups = OverlapDetector.groupOverlapping( archives, destinations );
+        assertEquals( 2, groups.size() );
+        assertGroup( groups, 0, new int[] { 0, 2 } );
+        assertGroup( groups, 1, new int[] { 1 } );
+    }
+
+    public void testUnreadableArchive()
+        throws IOException
+    {
+        addArchive( "a.jar", new String[] { "a.txt" }, "out" );
+        File notZip = new File( outputFolder, "b.tar" );
+        FileUtils.fileWrite( notZip.getPath(), "not a zip" );
+        archives.add( notZip );
+        destinations.add( new File( outputFolder, "out" ) );
+        addArchive( "c.jar", new String[] { "c.txt" }, "elsewhere" );
+
+        List groups = OverlapDetector.groupOverlapping( archives, destinations );
+        assertEquals( 2, groups.size() );
+        assertGroup( groups, 0, new int[] { 0, 1 } );
+        assertGroup( groups, 1, new int[] { 2 } );
+    }
+
+    public void testPreviousEntries()
+        throws IOException
+    {
+        addArchive( "a.jar", new String[] { "a.txt" }, "out" );
+        addArchive( "b.jar", new String[] { "b.txt" }, "out" );
+
+        // a used to contain b.txt, which its next unpack deletes
+        List previous = new ArrayList();
+        previous.add( Arrays.asList( new String[] { "a.txt", "b.txt" } ) );
+        previous.add( null );
+
+        assertEquals( 2, OverlapDetector.groupOverlapping( archives, destinations ).size() );
+        List groups = OverlapDetector.groupOverlapping( archives, destinations, previous );
+        assertEquals( 1, groups.size() );
+        assertGroup( groups, 0, new int[] { 0, 1 } );
+    }
+}
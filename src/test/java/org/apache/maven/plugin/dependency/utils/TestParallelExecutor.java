@@ -0,0 +1,180 @@
+package org.apache.maven.plugin.dependency.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+
+public class TestParallelExecutor
+    extends TestCase
+{
+    /**
+     * Log that only records info messages.
+     */
+    private static class RecordingLog
+        extends DependencySilentLog
+    {
+        List messages = new ArrayList();
+
+        public boolean isInfoEnabled()
+        {
+            return true;
+        }
+
+        public synchronized void info( CharSequence content )
+        {
+            messages.add( content.toString() );
+        }
+    }
+
+    public void testLogOrderIsPreserved()
+        throws MojoExecutionException
+    {
+        RecordingLog log = new RecordingLog();
+        ParallelExecutor executor = new ParallelExecutor( 4, log );
+        for ( int i = 0; i < 20; i++ )
+        {
+            final int index = i;
+            executor.add( new ParallelExecutor.Task()
+            {
+                public void execute( Log taskLog )
+                {
+                    // make later tasks finish first
+                    try
+                    {
+                        Thread.sleep( 20 - index );
+                    }
+                    catch ( InterruptedException e )
+                    {
+                        // ignore
+                    }
+                    taskLog.info( "task " + index );
+                }
+            } );
+        }
+        executor.execute();
+
+        assertEquals( 20, log.messages.size() );
+        for ( int i = 0; i < 20; i++ )
+        {
+            assertEquals( "task " + i, log.messages.get( i ) );
+        }
+    }
+
+    public void testFailuresAreAggregated()
+    {
+        ParallelExecutor executor = new ParallelExecutor( 2, new DependencySilentLog() );
+        for ( int i = 0; i < 2; i++ )
+        {
+            final int index = i;
+            executor.add( new ParallelExecutor.Task()
+            {
+                public void execute( Log taskLog )
+                    throws MojoExecutionException
+                {
+                    try
+                    {
+                        // give both workers the chance to pick up a task
+                        Thread.sleep( 50 );
+                    }
+                    catch ( InterruptedException e )
+                    {
+                        // ignore
+                    }
+                    throw new MojoExecutionException( "failure " + index );
+                }
+            } );
+        }
+
+        try
+        {
+            executor.execute();
+            fail( "Expected MojoExecutionException" );
+        }
+        catch ( MojoExecutionException e )
+        {
+            assertTrue( e.getMessage().indexOf( "failure 0" ) >= 0 );
+            assertTrue( e.getMessage().indexOf( "failure 1" ) >= 0 );
+        }
+    }
+
+    public void testStopsAfterFailure()
+    {
+        final int[] runs = new int[1];
+        ParallelExecutor executor = new ParallelExecutor( 1, new DependencySilentLog() );
+        for ( int i = 0; i < 5; i++ )
+        {
+            executor.add( new ParallelExecutor.Task()
+            {
+                public void execute( Log taskLog )
+                    throws MojoExecutionException
+                {
+                    runs[0]++;
+                    throw new MojoExecutionException( "failure" );
+                }
+            } );
+        }
+
+        try
+        {
+            executor.execute();
+            fail( "Expected MojoExecutionException" );
+        }
+        catch ( MojoExecutionException e )
+        {
+            assertEquals( 1, runs[0] );
+        }
+    }
+
+    public void testErrorIsRethrown()
+        throws MojoExecutionException
+    {
+        ParallelExecutor executor = new ParallelExecutor( 2, new DependencySilentLog() );
+        for ( int i = 0; i < 2; i++ )
+        {
+            final int index = i;
+            executor.add( new ParallelExecutor.Task()
+            {
+                public void execute( Log taskLog )
+                {
+                    if ( index == 0 )
+                    {
+                        throw new LinkageError( "broken" );
+                    }
+                }
+            } );
+        }
+
+        try
+        {
+            executor.execute();
+            fail( "Expected LinkageError" );
+        }
+        catch ( LinkageError e )
+        {
+            assertEquals( "broken", e.getMessage() );
+        }
+    }
+}
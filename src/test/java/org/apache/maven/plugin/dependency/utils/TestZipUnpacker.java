@@ -0,0 +1,213 @@
+package org.apache.maven.plugin.dependency.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.plexus.util.FileUtils;
+
+public class TestZipUnpacker
+    extends TestCase
+{
+    File outputFolder;
+
+    File archive;
+
+    File location;
+
+    Log log = new DependencySilentLog();
+
+    protected void setUp()
+        throws Exception
+    {
+        super.setUp();
+
+        outputFolder = new File( "target/zip-unpacker/" );
+        FileUtils.deleteDirectory( outputFolder );
+        outputFolder.mkdirs();
+
+        archive = createArchive( "test.jar", new String[] { "META-INF/", "META-INF/MANIFEST.MF", "proto/",
+            "proto/a.proto", "proto/b.proto", "proto/internal/c.proto", "readme.txt" } );
+        location = new File( outputFolder, "out" );
+    }
+
+    protected void tearDown()
+        throws IOException
+    {
+        FileUtils.deleteDirectory( outputFolder );
+    }
+
+    private File createArchive( String name, String[] entries )
+        throws IOException
+    {
+        File file = new File( outputFolder, name );
+        ZipOutputStream out = new ZipOutputStream( new FileOutputStream( file ) );
+        try
+        {
+            for ( int i = 0; i < entries.length; i++ )
+            {
+                out.putNextEntry( new ZipEntry( entries[i] ) );
+                if ( !entries[i].endsWith( "/" ) )
+                {
+                    out.write( entries[i].getBytes( "UTF-8" ) );
+                }
+                out.closeEntry();
+            }
+        }
+        finally
+        {
+            out.close();
+        }
+        return file;
+    }
+
+    private void assertExtracted( boolean val, String name )
+    {
+        assertEquals( name, val, new File( location, name ).exists() );
+    }
+
+    public void testIncludes()
+        throws IOException
+    {
+        assertEquals( 3, ZipUnpacker.unpack( archive, location, "**/*.proto", null ) );
+        assertExtracted( true, "proto/a.proto" );
+        assertExtracted( true, "proto/internal/c.proto" );
+        assertExtracted( false, "readme.txt" );
+        assertExtracted( false, "META-INF" );
+        assertEquals( "proto/a.proto", FileUtils.fileRead( new File( location, "proto/a.proto" ).getPath() ) );
+    }
+
+    public void testExcludesOverrideIncludes()
+        throws IOException
+    {
+        assertEquals( 2, ZipUnpacker.unpack( archive, location, "**/*.proto", "**/internal/**" ) );
+        assertExtracted( true, "proto/b.proto" );
+        assertExtracted( false, "proto/internal/c.proto" );
+    }
+
+    public void testExcludesOnly()
+        throws IOException
+    {
+        assertEquals( 1, ZipUnpacker.unpack( archive, location, "", "proto/, META-INF/**" ) );
+        assertExtracted( true, "readme.txt" );
+        assertExtracted( false, "proto" );
+    }
+
+    public void testEntryOutsideLocation()
+        throws IOException
+    {
+        File evil = createArchive( "evil.jar", new String[] { "../evil.txt" } );
+        try
+        {
+            ZipUnpacker.unpack( evil, location, "**", null );
+            fail( "Expected IOException" );
+        }
+        catch ( IOException e )
+        {
+            assertFalse( new File( outputFolder, "evil.txt" ).exists() );
+        }
+    }
+
+    public void testIncremental()
+        throws IOException
+    {
+        File stateFile = new File( outputFolder, "markers/test.entries" );
+        File v1 = createArchive( "v1.jar", new String[] { "a.txt", "b.txt", "c.txt" } );
+        assertEquals( 3, ZipUnpacker.unpackIncremental( v1, location, null, null, stateFile, log ) );
+        assertTrue( stateFile.exists() );
+
+        File a = new File( location, "a.txt" );
+        a.setLastModified( 1000000000L );
+
+        File v2 = new File( outputFolder, "v2.jar" );
+        ZipOutputStream out = new ZipOutputStream( new FileOutputStream( v2 ) );
+        try
+        {
+            out.putNextEntry( new ZipEntry( "a.txt" ) );
+            out.write( "a.txt".getBytes( "UTF-8" ) );
+            out.putNextEntry( new ZipEntry( "b.txt" ) );
+            out.write( "changed".getBytes( "UTF-8" ) );
+            out.putNextEntry( new ZipEntry( "d.txt" ) );
+            out.write( "d.txt".getBytes( "UTF-8" ) );
+        }
+        finally
+        {
+            out.close();
+        }
+
+        assertEquals( 2, ZipUnpacker.unpackIncremental( v2, location, null, null, stateFile, log ) );
+        assertEquals( 1000000000L, a.lastModified() );
+        assertEquals( "changed", FileUtils.fileRead( new File( location, "b.txt" ).getPath() ) );
+        assertExtracted( false, "c.txt" );
+        assertExtracted( true, "d.txt" );
+
+        // a deleted file is restored even though the entry didn't change
+        a.delete();
+        assertEquals( 1, ZipUnpacker.unpackIncremental( v2, location, null, null, stateFile, log ) );
+        assertExtracted( true, "a.txt" );
+    }
+
+    public void testIncrementalKeepsEntriesOfOtherArchives()
+        throws IOException
+    {
+        File markers = new File( outputFolder, "markers" );
+        File stateA = new File( markers, "a.entries" );
+        File stateB = new File( markers, "b.entries" );
+        File a1 = createArchive( "a1.jar", new String[] { "a.txt", "shared.txt" } );
+        File b = createArchive( "b.jar", new String[] { "b.txt", "shared.txt" } );
+        ZipUnpacker.unpackIncremental( a1, location, null, null, stateA, log );
+        ZipUnpacker.unpackIncremental( b, location, null, null, stateB, log );
+
+        // the same archive unpacked elsewhere doesn't claim the entry
+        ZipUnpacker.unpackIncremental( b, new File( outputFolder, "elsewhere" ), null, null,
+                                       new File( markers, "b-elsewhere.entries" ), log );
+
+        // shared.txt is gone from a, but b still provides it
+        File a2 = createArchive( "a2.jar", new String[] { "a.txt" } );
+        ZipUnpacker.unpackIncremental( a2, location, null, null, stateA, log );
+        assertExtracted( true, "shared.txt" );
+        assertEquals( "shared.txt", FileUtils.fileRead( new File( location, "shared.txt" ).getPath() ) );
+
+        // once b drops it too, nothing claims it anymore
+        File b2 = createArchive( "b2.jar", new String[] { "b.txt" } );
+        ZipUnpacker.unpackIncremental( b2, location, null, null, stateB, log );
+        assertExtracted( false, "shared.txt" );
+        assertTrue( ZipUnpacker.readEntryNames( stateB ).contains( "b.txt" ) );
+    }
+
+    public void testIsZipFile()
+        throws IOException
+    {
+        assertTrue( ZipUnpacker.isZipFile( archive ) );
+        assertTrue( ZipUnpacker.isZipFile( createArchive( "empty.zip", new String[0] ) ) );
+
+        File text = new File( outputFolder, "test.txt" );
+        FileUtils.fileWrite( text.getPath(), "not a zip" );
+        assertFalse( ZipUnpacker.isZipFile( text ) );
+        assertFalse( ZipUnpacker.isZipFile( new File( outputFolder, "missing.zip" ) ) );
+    }
+}
@@ -0,0 +1,236 @@
+package org.apache.maven.plugin.dependency.utils.filters;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.HashSet;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.artifact.versioning.VersionRange;
+import org.apache.maven.shared.artifact.filter.collection.ArtifactFilterException;
+
+public class TestCompiledArtifactFilter
+    extends TestCase
+{
+    Set artifacts = new HashSet();
+
+    Artifact compileJar;
+
+    Artifact runtimeJar;
+
+    Artifact testJar;
+
+    Artifact providedWar;
+
+    Artifact systemSources;
+
+    protected void setUp()
+        throws Exception
+    {
+        super.setUp();
+
+        compileJar = createArtifact( "org.apache", "one", Artifact.SCOPE_COMPILE, "jar", null );
+        runtimeJar = createArtifact( "org.apache.maven", "two", Artifact.SCOPE_RUNTIME, "jar", null );
+        testJar = createArtifact( "junit", "junit", Artifact.SCOPE_TEST, "jar", null );
+        providedWar = createArtifact( "org.codehaus", "three", Artifact.SCOPE_PROVIDED, "war", null );
+        systemSources = createArtifact( "com.sun", "tools", Artifact.SCOPE_SYSTEM, "jar", "sources" );
+
+        artifacts.add( compileJar );
+        artifacts.add( runtimeJar );
+        artifacts.add( testJar );
+        artifacts.add( providedWar );
+        artifacts.add( systemSources );
+    }
+
+    private static Artifact createArtifact( String groupId, String artifactId, String scope, String type,
+                                            String classifier )
+    {
+        return new DefaultArtifact( groupId, artifactId, VersionRange.createFromVersion( "1.0" ), scope, type,
+                                    classifier, new DefaultArtifactHandler( type ) );
+    }
+
+    private static CompiledArtifactFilter createFilter( String includeScope, String excludeScope )
+        throws ArtifactFilterException
+    {
+        return new CompiledArtifactFilter( null, false, includeScope, excludeScope, null, null, null, null, null,
+                                           null, null, null );
+    }
+
+    public void testNoCriteria()
+        throws ArtifactFilterException
+    {
+        Set result = createFilter( null, "" ).filter( artifacts );
+        assertEquals( 5, result.size() );
+    }
+
+    public void testTransitivity()
+        throws ArtifactFilterException
+    {
+        Set direct = new HashSet();
+        direct.add( compileJar );
+        direct.add( testJar );
+
+        CompiledArtifactFilter filter =
+            new CompiledArtifactFilter( direct, true, null, null, null, null, null, null, null, null, null, null );
+        Set result = filter.filter( artifacts );
+        assertEquals( 2, result.size() );
+        assertTrue( result.contains( compileJar ) );
+        assertTrue( result.contains( testJar ) );
+
+        filter = new CompiledArtifactFilter( direct, false, null, null, null, null, null, null, null, null, null, null );
+        assertEquals( 5, filter.filter( artifacts ).size() );
+    }
+
+    public void testIncludeScope()
+        throws ArtifactFilterException
+    {
+        // runtime includes compile and runtime
+        Set result = createFilter( Artifact.SCOPE_RUNTIME, null ).filter( artifacts );
+        assertEquals( 2, result.size() );
+        assertTrue( result.contains( compileJar ) );
+        assertTrue( result.contains( runtimeJar ) );
+
+        // provided and system only include themselves
+        result = createFilter( Artifact.SCOPE_PROVIDED, null ).filter( artifacts );
+        assertEquals( 1, result.size() );
+        assertTrue( result.contains( providedWar ) );
+
+        // test includes everything
+        assertEquals( 5, createFilter( Artifact.SCOPE_TEST, null ).filter( artifacts ).size() );
+    }
+
+    public void testExcludeScope()
+        throws ArtifactFilterException
+    {
+        Set result = createFilter( null, Artifact.SCOPE_RUNTIME ).filter( artifacts );
+        assertEquals( 3, result.size() );
+        assertFalse( result.contains( compileJar ) );
+        assertFalse( result.contains( runtimeJar ) );
+
+        result = createFilter( null, Artifact.SCOPE_SYSTEM ).filter( artifacts );
+        assertEquals( 4, result.size() );
+        assertFalse( result.contains( systemSources ) );
+
+        // include wins over exclude
+        result = createFilter( Artifact.SCOPE_PROVIDED, Artifact.SCOPE_PROVIDED ).filter( artifacts );
+        assertEquals( 1, result.size() );
+    }
+
+    public void testInvalidScopes()
+    {
+        try
+        {
+            createFilter( "bogus", null );
+            fail( "Expected ArtifactFilterException" );
+        }
+        catch ( ArtifactFilterException e )
+        {
+            assertEquals( "Invalid Scope in includeScope: bogus", e.getMessage() );
+        }
+
+        try
+        {
+            createFilter( null, "bogus" );
+            fail( "Expected ArtifactFilterException" );
+        }
+        catch ( ArtifactFilterException e )
+        {
+            assertEquals( "Invalid Scope in excludeScope: bogus", e.getMessage() );
+        }
+
+        try
+        {
+            createFilter( null, Artifact.SCOPE_TEST );
+            fail( "Expected ArtifactFilterException" );
+        }
+        catch ( ArtifactFilterException e )
+        {
+            // expected
+        }
+    }
+
+    public void testFeatures()
+        throws ArtifactFilterException
+    {
+        // types
+        CompiledArtifactFilter filter =
+            new CompiledArtifactFilter( null, false, null, null, "jar", null, null, null, null, null, null, null );
+        assertEquals( 4, filter.filter( artifacts ).size() );
+        filter = new CompiledArtifactFilter( null, false, null, null, "jar,war", "war", null, null, null, null, null,
+                                             null );
+        assertEquals( 4, filter.filter( artifacts ).size() );
+
+        // classifiers, artifacts without one never match an include
+        filter = new CompiledArtifactFilter( null, false, null, null, null, null, "sources", null, null, null, null,
+                                             null );
+        assertEquals( 1, filter.filter( artifacts ).size() );
+        filter = new CompiledArtifactFilter( null, false, null, null, null, null, null, "sources", null, null, null,
+                                             null );
+        assertEquals( 4, filter.filter( artifacts ).size() );
+
+        // artifactIds are matched exactly
+        filter = new CompiledArtifactFilter( null, false, null, null, null, null, null, null, null, null, "one,tw",
+                                             null );
+        Set result = filter.filter( artifacts );
+        assertEquals( 1, result.size() );
+        assertTrue( result.contains( compileJar ) );
+    }
+
+    public void testGroupIdPrefixes()
+        throws ArtifactFilterException
+    {
+        CompiledArtifactFilter filter =
+            new CompiledArtifactFilter( null, false, null, null, null, null, null, null, "org.apache,junit",
+                                        "org.apache.maven", null, null );
+        Set result = filter.filter( artifacts );
+        assertEquals( 2, result.size() );
+        assertTrue( result.contains( compileJar ) );
+        assertTrue( result.contains( testJar ) );
+    }
+
+    public void testCombined()
+        throws ArtifactFilterException
+    {
+        CompiledArtifactFilter filter =
+            new CompiledArtifactFilter( null, false, Artifact.SCOPE_TEST, null, "jar", null, null, "sources", "org",
+                                        null, null, "two" );
+        Set result = filter.filter( artifacts );
+        assertEquals( 1, result.size() );
+        assertTrue( result.contains( compileJar ) );
+        assertTrue( filter.isIncluded( compileJar ) );
+        assertFalse( filter.isIncluded( runtimeJar ) );
+    }
+
+    public void testPatterns()
+        throws ArtifactFilterException
+    {
+        CompiledArtifactFilter filter =
+            new CompiledArtifactFilter( null, false, null, null, null, null, null, null, "org.*,junit", null, null,
+                                        "regex:t.*" );
+        Set result = filter.filter( artifacts );
+        assertEquals( 2, result.size() );
+        assertTrue( result.contains( compileJar ) );
+        assertTrue( result.contains( testJar ) );
+    }
+}
@@ -34,9 +34,11 @@ import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.dependency.testUtils.DependencyArtifactStubFactory;
 import org.apache.maven.plugin.dependency.testUtils.DependencyTestUtils;
 import org.apache.maven.plugin.dependency.utils.DependencyUtil;
+import org.apache.maven.plugin.dependency.utils.DigestIndex;
 import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.plugin.testing.SilentLog;
 import org.apache.maven.shared.artifact.filter.collection.ArtifactFilterException;
+import org.codehaus.plexus.util.FileUtils;
 
 /**
  * @author brianf
@@ -192,6 +194,34 @@ public class TestDestFileFilter
         assertFalse( filter.isArtifactIncluded( artifact ) );
     }
 
+    public void testDestFileChecksums()
+        throws IOException, ArtifactFilterException
+    {
+        DestFileFilter filter = new DestFileFilter( outputFolder );
+        filter.setDigestIndex( new DigestIndex( new File( outputFolder, "digests.properties" ) ) );
+        filter.overWriteIfNewer = true;
+
+        fact.setCreateFiles( true );
+        Artifact artifact = fact.getSnapshotArtifact();
+        File artifactFile = artifact.getFile();
+        FileUtils.fileWrite( artifactFile.getPath(), "source content" );
+
+        assertTrue( filter.isArtifactIncluded( artifact ) );
+
+        // different content in the destination
+        File destFile = createFile( artifact, false, false, false );
+        FileUtils.fileWrite( destFile.getPath(), "other content" );
+        assertTrue( filter.isArtifactIncluded( artifact ) );
+
+        // same content but an older timestamp, as left by a checkout
+        FileUtils.fileWrite( destFile.getPath(), "source content" );
+        destFile.setLastModified( artifactFile.lastModified() - 10000 );
+        assertFalse( filter.isArtifactIncluded( artifact ) );
+
+        filter.overWriteSnapshots = true;
+        assertTrue( filter.isArtifactIncluded( artifact ) );
+    }
+
     public void testGettersSetters()
     {
         DestFileFilter filter = new DestFileFilter( null );
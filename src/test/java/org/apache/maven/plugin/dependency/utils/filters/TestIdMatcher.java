@@ -0,0 +1,140 @@
+package org.apache.maven.plugin.dependency.utils.filters;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import junit.framework.TestCase;
+
+import org.apache.maven.shared.artifact.filter.collection.ArtifactFilterException;
+
+public class TestIdMatcher
+    extends TestCase
+{
+    public void testEmpty()
+        throws ArtifactFilterException
+    {
+        IdMatcher matcher = new IdMatcher( "includeGroupIds", "", true );
+        assertTrue( matcher.isEmpty() );
+        assertFalse( matcher.matches( "org.apache" ) );
+
+        assertTrue( new IdMatcher( "includeGroupIds", null, true ).isEmpty() );
+    }
+
+    public void testPrefixes()
+        throws ArtifactFilterException
+    {
+        IdMatcher matcher = new IdMatcher( "includeGroupIds", "org.apache.maven,org.apache,com.acme", true );
+        assertFalse( matcher.isEmpty() );
+        assertTrue( matcher.matches( "org.apache" ) );
+        assertTrue( matcher.matches( "org.apache.maven.plugins" ) );
+        assertTrue( matcher.matches( "org.apachefoo" ) );
+        assertTrue( matcher.matches( "com.acme.tools" ) );
+        assertFalse( matcher.matches( "org.apach" ) );
+        assertFalse( matcher.matches( "org.codehaus" ) );
+        assertFalse( matcher.matches( "" ) );
+        assertFalse( matcher.matches( null ) );
+    }
+
+    public void testExactIds()
+        throws ArtifactFilterException
+    {
+        IdMatcher matcher = new IdMatcher( "includeArtifactIds", "one,two", false );
+        assertTrue( matcher.matches( "one" ) );
+        assertTrue( matcher.matches( "two" ) );
+        assertFalse( matcher.matches( "on" ) );
+        assertFalse( matcher.matches( "onea" ) );
+    }
+
+    public void testGlobs()
+        throws ArtifactFilterException
+    {
+        IdMatcher matcher = new IdMatcher( "includeArtifactIds", "maven-*-plugin,commons-?o,plain", false );
+        assertTrue( matcher.matches( "maven-dependency-plugin" ) );
+        assertTrue( matcher.matches( "maven--plugin" ) );
+        assertTrue( matcher.matches( "commons-io" ) );
+        assertTrue( matcher.matches( "plain" ) );
+        assertFalse( matcher.matches( "maven-dependency-plugin-tools" ) );
+        assertFalse( matcher.matches( "commons-lang" ) );
+
+        // globs match the whole groupId, dots are literal
+        matcher = new IdMatcher( "includeGroupIds", "org.*.maven", true );
+        assertTrue( matcher.matches( "org.apache.maven" ) );
+        assertFalse( matcher.matches( "org.apache.maven.plugins" ) );
+        assertFalse( matcher.matches( "orgXapache.maven" ) );
+    }
+
+    public void testRegex()
+        throws ArtifactFilterException
+    {
+        IdMatcher matcher = new IdMatcher( "includeGroupIds", "regex:org\\.(apache|codehaus)\\..*", true );
+        assertTrue( matcher.matches( "org.apache.maven" ) );
+        assertTrue( matcher.matches( "org.codehaus.plexus" ) );
+        assertFalse( matcher.matches( "org.apache" ) );
+        assertFalse( matcher.matches( "com.acme" ) );
+    }
+
+    public void testRegexesAreMatchedSeparately()
+        throws ArtifactFilterException
+    {
+        // the backreference of the second expression refers to its own group
+        IdMatcher matcher = new IdMatcher( "includeArtifactIds", "regex:(a)b,regex:(x)y\\1", false );
+        assertTrue( matcher.matches( "ab" ) );
+        assertTrue( matcher.matches( "xyx" ) );
+        assertFalse( matcher.matches( "xya" ) );
+    }
+
+    public void testGlobsSharingPrefixes()
+        throws ArtifactFilterException
+    {
+        IdMatcher matcher =
+            new IdMatcher( "includeGroupIds", "org.apache.*.plugins,org.apache.maven.*,org.codehaus.*,*.acme", true );
+        assertTrue( matcher.matches( "org.apache.maven.plugins" ) );
+        assertTrue( matcher.matches( "org.apache.maven.shared" ) );
+        assertTrue( matcher.matches( "org.apache.felix.plugins" ) );
+        assertTrue( matcher.matches( "org.codehaus.plexus" ) );
+        assertTrue( matcher.matches( "com.acme" ) );
+        assertFalse( matcher.matches( "org.apache.felix" ) );
+        assertFalse( matcher.matches( "org.apache" ) );
+        assertFalse( matcher.matches( "org.mortbay.jetty" ) );
+
+        // the id may end exactly where the literal part of a glob does
+        matcher = new IdMatcher( "includeArtifactIds", "commons-?", false );
+        assertTrue( matcher.matches( "commons-x" ) );
+        assertFalse( matcher.matches( "commons-" ) );
+    }
+
+    public void testInvalidRegex()
+    {
+        try
+        {
+            new IdMatcher( "excludeGroupIds", "org.apache,regex:org.(apache", true );
+            fail( "Expected ArtifactFilterException" );
+        }
+        catch ( ArtifactFilterException e )
+        {
+            assertEquals( "Invalid pattern in excludeGroupIds: regex:org.(apache", e.getMessage() );
+        }
+    }
+
+    public void testGlobToRegex()
+    {
+        assertEquals( "org\\.apache\\..*", IdMatcher.globToRegex( "org.apache.*" ) );
+        assertEquals( "a.b\\$", IdMatcher.globToRegex( "a?b$" ) );
+    }
+}
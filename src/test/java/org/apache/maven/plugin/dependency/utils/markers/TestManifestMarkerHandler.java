@@ -0,0 +1,197 @@
+package org.apache.maven.plugin.dependency.utils.markers;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.ArtifactHandler;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.artifact.versioning.VersionRange;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.dependency.fromConfiguration.ArtifactItem;
+import org.apache.maven.plugin.dependency.testUtils.DependencyTestUtils;
+import org.codehaus.plexus.util.FileUtils;
+
+public class TestManifestMarkerHandler
+    extends TestCase
+{
+    List artifacts = new ArrayList();
+
+    File outputFolder;
+
+    File manifestFile;
+
+    protected void setUp()
+        throws Exception
+    {
+        super.setUp();
+
+        ArtifactHandler ah = new DefaultArtifactHandler();
+        VersionRange vr = VersionRange.createFromVersion( "1.1" );
+        Artifact artifact = new DefaultArtifact( "test", "1", vr, Artifact.SCOPE_COMPILE, "jar", "", ah, false );
+        artifacts.add( artifact );
+        artifact = new DefaultArtifact( "test", "2", vr, Artifact.SCOPE_PROVIDED, "war", "", ah, false );
+        artifacts.add( artifact );
+
+        outputFolder = new File( "target/manifest-markers/" );
+        DependencyTestUtils.removeDirectory( this.outputFolder );
+        assertFalse( outputFolder.exists() );
+        manifestFile = new File( outputFolder, MarkerManifest.MANIFEST_NAME );
+    }
+
+    protected void tearDown()
+        throws IOException
+    {
+        DependencyTestUtils.removeDirectory( this.outputFolder );
+    }
+
+    public void testSetMarker()
+        throws MojoExecutionException
+    {
+        ManifestMarkerHandler handler =
+            new ManifestMarkerHandler( (Artifact) artifacts.get( 0 ), new MarkerManifest( manifestFile ) );
+        assertFalse( handler.isMarkerSet() );
+        handler.setMarker();
+        assertTrue( handler.isMarkerSet() );
+        assertTrue( handler.clearMarker() );
+        assertFalse( handler.isMarkerSet() );
+        assertFalse( handler.clearMarker() );
+
+        handler.setArtifact( (Artifact) artifacts.get( 1 ) );
+        assertFalse( handler.isMarkerSet() );
+
+        // a single file, whatever the number of markers
+        assertEquals( 1, outputFolder.list().length );
+    }
+
+    public void testMarkersSurviveWithoutSave()
+        throws MojoExecutionException, IOException
+    {
+        MarkerManifest manifest = new MarkerManifest( manifestFile );
+        new ManifestMarkerHandler( (Artifact) artifacts.get( 0 ), manifest ).setMarker();
+        new ManifestMarkerHandler( (Artifact) artifacts.get( 1 ), manifest ).setMarker();
+        new ManifestMarkerHandler( (Artifact) artifacts.get( 1 ), manifest ).clearMarker();
+
+        // as after an interrupted build
+        MarkerManifest reloaded = new MarkerManifest( manifestFile );
+        reloaded.load();
+        assertTrue( new ManifestMarkerHandler( (Artifact) artifacts.get( 0 ), reloaded ).isMarkerSet() );
+        assertFalse( new ManifestMarkerHandler( (Artifact) artifacts.get( 1 ), reloaded ).isMarkerSet() );
+        manifest.save();
+    }
+
+    public void testLoadAndSaveTwice()
+        throws MojoExecutionException, IOException
+    {
+        for ( int run = 0; run < 2; run++ )
+        {
+            MarkerManifest manifest = new MarkerManifest( manifestFile );
+            manifest.load();
+            ManifestMarkerHandler handler = new ManifestMarkerHandler( (Artifact) artifacts.get( run ), manifest );
+            assertFalse( handler.isMarkerSet() );
+            handler.setMarker();
+            manifest.save();
+        }
+
+        MarkerManifest manifest = new MarkerManifest( manifestFile );
+        manifest.load();
+        assertTrue( new ManifestMarkerHandler( (Artifact) artifacts.get( 0 ), manifest ).isMarkerSet() );
+        assertTrue( new ManifestMarkerHandler( (Artifact) artifacts.get( 1 ), manifest ).isMarkerSet() );
+    }
+
+    public void testSaveCompacts()
+        throws MojoExecutionException, IOException
+    {
+        MarkerManifest manifest = new MarkerManifest( manifestFile );
+        ManifestMarkerHandler handler = new ManifestMarkerHandler( (Artifact) artifacts.get( 0 ), manifest );
+        for ( int i = 0; i < 10; i++ )
+        {
+            handler.setMarker();
+            handler.clearMarker();
+        }
+        handler.setMarker();
+        manifest.save();
+
+        String content = FileUtils.fileRead( manifestFile.getPath() );
+        assertEquals( 2, content.split( "\n" ).length );
+
+        MarkerManifest reloaded = new MarkerManifest( manifestFile );
+        reloaded.load();
+        assertTrue( new ManifestMarkerHandler( (Artifact) artifacts.get( 0 ), reloaded ).isMarkerSet() );
+    }
+
+    public void testTruncatedLineIsIgnored()
+        throws MojoExecutionException, IOException
+    {
+        outputFolder.mkdirs();
+        Artifact artifact = (Artifact) artifacts.get( 0 );
+        FileUtils.fileWrite( manifestFile.getPath(), artifact.getId() + "\t12345\n"
+            + ( (Artifact) artifacts.get( 1 ) ).getId() + "\t12" + "x" );
+
+        MarkerManifest manifest = new MarkerManifest( manifestFile );
+        manifest.load();
+        assertEquals( 12345, manifest.getTimestamp( artifact.getId() ) );
+        assertFalse( new ManifestMarkerHandler( (Artifact) artifacts.get( 1 ), manifest ).isMarkerSet() );
+    }
+
+    public void testIncludesAndExcludesAreKeys()
+        throws MojoExecutionException
+    {
+        MarkerManifest manifest = new MarkerManifest( manifestFile );
+        Artifact artifact = (Artifact) artifacts.get( 0 );
+        ArtifactItem item = new ArtifactItem( artifact );
+        item.setIncludes( "**/*.xml" );
+
+        ManifestMarkerHandler handler = new ManifestMarkerHandler( item, manifest );
+        handler.setMarker();
+        assertTrue( handler.isMarkerSet() );
+        assertFalse( new ManifestMarkerHandler( artifact, manifest ).isMarkerSet() );
+
+        item.setIncludes( "**/*.properties" );
+        assertFalse( handler.isMarkerSet() );
+    }
+
+    public void testMarkerOlder()
+        throws MojoExecutionException, IOException
+    {
+        outputFolder.mkdirs();
+        File artifactFile = new File( outputFolder, "test.jar" );
+        artifactFile.createNewFile();
+        Artifact artifact = (Artifact) artifacts.get( 0 );
+        artifact.setFile( artifactFile );
+
+        ManifestMarkerHandler handler = new ManifestMarkerHandler( artifact, new MarkerManifest( manifestFile ) );
+        assertTrue( handler.isMarkerOlder( artifact ) );
+
+        handler.setMarker();
+        artifactFile.setLastModified( System.currentTimeMillis() - 60000 );
+        assertFalse( handler.isMarkerOlder( artifact ) );
+
+        artifactFile.setLastModified( System.currentTimeMillis() + 60000 );
+        assertTrue( handler.isMarkerOlder( artifact ) );
+    }
+}
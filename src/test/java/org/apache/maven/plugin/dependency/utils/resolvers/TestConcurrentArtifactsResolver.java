@@ -0,0 +1,146 @@
+package org.apache.maven.plugin.dependency.utils.resolvers;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.artifact.resolver.ArtifactNotFoundException;
+import org.apache.maven.artifact.versioning.VersionRange;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.dependency.utils.DependencySilentLog;
+import org.apache.maven.plugin.testing.stubs.StubArtifactResolver;
+
+public class TestConcurrentArtifactsResolver
+    extends TestCase
+{
+    /**
+     * Resolver that records how many resolutions run at the same time.
+     */
+    private static class CountingResolver
+        extends StubArtifactResolver
+    {
+        int running;
+
+        int maxRunning;
+
+        int resolutions;
+
+        CountingResolver()
+        {
+            super( null, false, false );
+        }
+
+        public void resolve( Artifact artifact, List remoteRepositories, ArtifactRepository localRepository )
+            throws ArtifactNotFoundException
+        {
+            synchronized ( this )
+            {
+                resolutions++;
+                running++;
+                maxRunning = Math.max( maxRunning, running );
+            }
+            try
+            {
+                if ( "missing".equals( artifact.getArtifactId() ) )
+                {
+                    throw new ArtifactNotFoundException( "missing", artifact );
+                }
+                Thread.sleep( 50 );
+            }
+            catch ( InterruptedException e )
+            {
+                // ignore
+            }
+            finally
+            {
+                synchronized ( this )
+                {
+                    running--;
+                }
+            }
+        }
+    }
+
+    private static Set createArtifacts( String first, int count )
+    {
+        Set artifacts = new LinkedHashSet();
+        for ( int i = 0; i < count; i++ )
+        {
+            String artifactId = i == 0 ? first : "artifact" + i;
+            artifacts.add( new DefaultArtifact( "test", artifactId, VersionRange.createFromVersion( "1.0" ),
+                                                Artifact.SCOPE_COMPILE, "jar", "sources",
+                                                new DefaultArtifactHandler(), false ) );
+        }
+        return artifacts;
+    }
+
+    public void testRemoteResolutionsAreLimited()
+        throws MojoExecutionException
+    {
+        CountingResolver resolver = new CountingResolver();
+        ConcurrentArtifactsResolver artifactsResolver =
+            new ConcurrentArtifactsResolver( resolver, null, Collections.EMPTY_LIST, false, 8, 2 );
+
+        Set resolved = artifactsResolver.resolve( createArtifacts( "artifact0", 8 ), new DependencySilentLog() );
+        assertEquals( 8, resolved.size() );
+        assertEquals( 8, resolver.resolutions );
+        assertTrue( "ran " + resolver.maxRunning + " at once", resolver.maxRunning <= 2 );
+    }
+
+    public void testNoLimit()
+        throws MojoExecutionException
+    {
+        CountingResolver resolver = new CountingResolver();
+        ConcurrentArtifactsResolver artifactsResolver =
+            new ConcurrentArtifactsResolver( resolver, null, Collections.EMPTY_LIST, false, 4, 0 );
+
+        Set resolved = artifactsResolver.resolve( createArtifacts( "missing", 4 ), new DependencySilentLog() );
+        // failures are skipped without stopOnFailure
+        assertEquals( 3, resolved.size() );
+        assertEquals( 4, resolver.resolutions );
+    }
+
+    public void testStopOnFailure()
+    {
+        CountingResolver resolver = new CountingResolver();
+        ConcurrentArtifactsResolver artifactsResolver =
+            new ConcurrentArtifactsResolver( resolver, null, Collections.EMPTY_LIST, true, 2, 2 );
+
+        try
+        {
+            artifactsResolver.resolve( createArtifacts( "missing", 10 ), new DependencySilentLog() );
+            fail( "Expected MojoExecutionException" );
+        }
+        catch ( MojoExecutionException e )
+        {
+            assertTrue( e.getMessage().indexOf( "missing" ) >= 0 );
+            assertTrue( "started " + resolver.resolutions + " resolutions", resolver.resolutions < 10 );
+        }
+    }
+}
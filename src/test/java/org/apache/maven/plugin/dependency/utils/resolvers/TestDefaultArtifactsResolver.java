@@ -0,0 +1,135 @@
+package org.apache.maven.plugin.dependency.utils.resolvers;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.artifact.resolver.ArtifactNotFoundException;
+import org.apache.maven.artifact.versioning.VersionRange;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.dependency.utils.DependencySilentLog;
+import org.apache.maven.plugin.testing.stubs.StubArtifactResolver;
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.IOUtil;
+
+public class TestDefaultArtifactsResolver
+    extends TestCase
+{
+    /**
+     * Resolver that never finds anything.
+     */
+    private static class MissingResolver
+        extends StubArtifactResolver
+    {
+        int resolutions;
+
+        MissingResolver()
+        {
+            super( null, false, false );
+        }
+
+        public void resolve( Artifact artifact, List remoteRepositories, ArtifactRepository localRepository )
+            throws ArtifactNotFoundException
+        {
+            resolutions++;
+            throw new ArtifactNotFoundException( "missing", artifact );
+        }
+    }
+
+    File outputFolder;
+
+    File cacheFile;
+
+    Artifact sources;
+
+    protected void setUp()
+        throws Exception
+    {
+        super.setUp();
+
+        outputFolder = new File( "target/default-resolver/" );
+        FileUtils.deleteDirectory( outputFolder );
+        cacheFile = new File( outputFolder, "missing.properties" );
+
+        sources = new DefaultArtifact( "test", "test", VersionRange.createFromVersion( "1.0" ), Artifact.SCOPE_COMPILE,
+                                       "java-source", "sources", new DefaultArtifactHandler(), false );
+    }
+
+    protected void tearDown()
+        throws IOException
+    {
+        FileUtils.deleteDirectory( outputFolder );
+    }
+
+    private String readRecordedTime()
+        throws IOException
+    {
+        Properties properties = new Properties();
+        InputStream in = new FileInputStream( cacheFile );
+        try
+        {
+            properties.load( in );
+        }
+        finally
+        {
+            IOUtil.close( in );
+        }
+        return properties.getProperty( NegativeResolutionCache.getKey( sources, Collections.EMPTY_LIST ) );
+    }
+
+    public void testCachedMissKeepsItsTime()
+        throws MojoExecutionException, IOException, InterruptedException
+    {
+        MissingResolver resolver = new MissingResolver();
+        DefaultArtifactsResolver artifactsResolver =
+            new DefaultArtifactsResolver( resolver, null, Collections.EMPTY_LIST, false );
+        artifactsResolver.setNegativeCache( new NegativeResolutionCache( cacheFile, 1000 ) );
+
+        assertFalse( artifactsResolver.resolve( sources, new DependencySilentLog() ) );
+        assertEquals( 1, resolver.resolutions );
+        artifactsResolver.saveNegativeCache( new DependencySilentLog() );
+        String recorded = readRecordedTime();
+        assertNotNull( recorded );
+
+        // answered from the cache, without touching the recorded time
+        Thread.sleep( 600 );
+        assertFalse( artifactsResolver.resolve( sources, new DependencySilentLog() ) );
+        assertEquals( 1, resolver.resolutions );
+        artifactsResolver.saveNegativeCache( new DependencySilentLog() );
+        assertEquals( recorded, readRecordedTime() );
+
+        // expired a ttl after the first miss, so the resolver is asked again
+        Thread.sleep( 600 );
+        assertFalse( artifactsResolver.resolve( sources, new DependencySilentLog() ) );
+        assertEquals( 2, resolver.resolutions );
+    }
+}
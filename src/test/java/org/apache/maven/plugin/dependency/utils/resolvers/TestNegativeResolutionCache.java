@@ -0,0 +1,119 @@
+package org.apache.maven.plugin.dependency.utils.resolvers;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.artifact.versioning.VersionRange;
+import org.codehaus.plexus.util.FileUtils;
+
+public class TestNegativeResolutionCache
+    extends TestCase
+{
+    private static final long DAY = 24L * 60 * 60 * 1000;
+
+    File outputFolder;
+
+    File cacheFile;
+
+    Artifact sources;
+
+    List repositories = Collections.EMPTY_LIST;
+
+    protected void setUp()
+        throws Exception
+    {
+        super.setUp();
+
+        outputFolder = new File( "target/negative-cache/" );
+        FileUtils.deleteDirectory( outputFolder );
+        cacheFile = new File( outputFolder, "missing.properties" );
+
+        sources = new DefaultArtifact( "test", "test", VersionRange.createFromVersion( "1.0" ), Artifact.SCOPE_COMPILE,
+                                       "java-source", "sources", new DefaultArtifactHandler(), false );
+    }
+
+    protected void tearDown()
+        throws IOException
+    {
+        FileUtils.deleteDirectory( outputFolder );
+    }
+
+    public void testRecordAndRemove()
+    {
+        NegativeResolutionCache cache = new NegativeResolutionCache( cacheFile, DAY );
+        assertFalse( cache.isMissing( sources, repositories ) );
+
+        cache.recordMissing( sources, repositories );
+        assertTrue( cache.isMissing( sources, repositories ) );
+
+        cache.remove( sources, repositories );
+        assertFalse( cache.isMissing( sources, repositories ) );
+    }
+
+    public void testKeyIncludesClassifier()
+    {
+        Artifact javadoc = new DefaultArtifact( "test", "test", VersionRange.createFromVersion( "1.0" ),
+                                                Artifact.SCOPE_COMPILE, "javadoc", "javadoc",
+                                                new DefaultArtifactHandler(), false );
+        NegativeResolutionCache cache = new NegativeResolutionCache( cacheFile, DAY );
+        cache.recordMissing( sources, repositories );
+        assertFalse( cache.isMissing( javadoc, repositories ) );
+        assertEquals( "test:test:1.0:sources:java-source@",
+                      NegativeResolutionCache.getKey( sources, repositories ) );
+    }
+
+    public void testEntriesExpire()
+        throws InterruptedException
+    {
+        NegativeResolutionCache cache = new NegativeResolutionCache( cacheFile, 10 );
+        cache.recordMissing( sources, repositories );
+        Thread.sleep( 50 );
+        assertFalse( cache.isMissing( sources, repositories ) );
+    }
+
+    public void testSaveAndLoad()
+        throws IOException
+    {
+        NegativeResolutionCache cache = new NegativeResolutionCache( cacheFile, DAY );
+        cache.recordMissing( sources, repositories );
+        cache.save();
+        assertTrue( cacheFile.exists() );
+
+        NegativeResolutionCache loaded = new NegativeResolutionCache( cacheFile, DAY );
+        loaded.load();
+        assertTrue( loaded.isMissing( sources, repositories ) );
+    }
+
+    public void testInstanceIsShared()
+        throws IOException
+    {
+        NegativeResolutionCache cache = NegativeResolutionCache.getInstance( cacheFile, DAY );
+        assertSame( cache, NegativeResolutionCache.getInstance( new File( outputFolder, "missing.properties" ), DAY ) );
+    }
+}
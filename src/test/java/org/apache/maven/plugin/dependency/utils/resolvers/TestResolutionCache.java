@@ -0,0 +1,131 @@
+package org.apache.maven.plugin.dependency.utils.resolvers;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.artifact.versioning.VersionRange;
+
+public class TestResolutionCache
+    extends TestCase
+{
+    List repositories = Collections.EMPTY_LIST;
+
+    private Artifact createArtifact( String scope )
+    {
+        return new DefaultArtifact( "test", "test", VersionRange.createFromVersion( "1.0" ), scope, "jar", "sources",
+                                    new DefaultArtifactHandler(), false );
+    }
+
+    public void testInstancePerSession()
+    {
+        Object session = new Object();
+        ResolutionCache cache = ResolutionCache.getInstance( session );
+        assertSame( cache, ResolutionCache.getInstance( session ) );
+        assertNotSame( cache, ResolutionCache.getInstance( new Object() ) );
+    }
+
+    public void testShareTranslated()
+    {
+        ResolutionCache cache = new ResolutionCache();
+        Artifact first = createArtifact( Artifact.SCOPE_COMPILE );
+        assertSame( first, cache.shareTranslated( first ) );
+        assertSame( first, cache.shareTranslated( createArtifact( Artifact.SCOPE_COMPILE ) ) );
+
+        Artifact test = createArtifact( Artifact.SCOPE_TEST );
+        assertSame( test, cache.shareTranslated( test ) );
+    }
+
+    public void testResolvedOnce()
+        throws InterruptedException
+    {
+        ResolutionCache cache = new ResolutionCache();
+        Artifact artifact = createArtifact( Artifact.SCOPE_COMPILE );
+        assertNull( cache.begin( artifact, repositories ) );
+
+        artifact.setFile( new File( "test-1.0-sources.jar" ) );
+        cache.resolved( artifact, repositories );
+
+        Artifact other = createArtifact( Artifact.SCOPE_RUNTIME );
+        ResolutionCache.Entry entry = cache.begin( other, repositories );
+        assertNotNull( entry );
+        assertTrue( entry.isResolved() );
+        entry.applyTo( other );
+        assertEquals( artifact.getFile(), other.getFile() );
+        assertTrue( other.isResolved() );
+    }
+
+    public void testMissingAndFailed()
+        throws InterruptedException
+    {
+        ResolutionCache cache = new ResolutionCache();
+        Artifact artifact = createArtifact( Artifact.SCOPE_COMPILE );
+        assertNull( cache.begin( artifact, repositories ) );
+        cache.failed( artifact, repositories );
+
+        // an error is not remembered
+        assertNull( cache.begin( artifact, repositories ) );
+        cache.missing( artifact, repositories );
+
+        ResolutionCache.Entry entry = cache.begin( artifact, repositories );
+        assertNotNull( entry );
+        assertFalse( entry.isResolved() );
+    }
+
+    public void testWaitsForOtherThread()
+        throws InterruptedException
+    {
+        final ResolutionCache cache = new ResolutionCache();
+        final Artifact artifact = createArtifact( Artifact.SCOPE_COMPILE );
+        assertNull( cache.begin( artifact, repositories ) );
+
+        final ResolutionCache.Entry[] result = new ResolutionCache.Entry[1];
+        Thread waiter = new Thread()
+        {
+            public void run()
+            {
+                try
+                {
+                    result[0] = cache.begin( createArtifact( Artifact.SCOPE_COMPILE ), repositories );
+                }
+                catch ( InterruptedException e )
+                {
+                    // result stays null
+                }
+            }
+        };
+        waiter.start();
+        Thread.sleep( 50 );
+        assertNull( result[0] );
+
+        artifact.setFile( new File( "test-1.0-sources.jar" ) );
+        cache.resolved( artifact, repositories );
+        waiter.join( 5000 );
+        assertNotNull( result[0] );
+        assertTrue( result[0].isResolved() );
+    }
+}